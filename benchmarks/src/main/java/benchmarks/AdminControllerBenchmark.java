@@ -0,0 +1,58 @@
+package benchmarks;
+
+import controllers.AdminController;
+import indexes.AggregateCounters;
+import models.Reservation;
+import org.openjdk.jmh.annotations.*;
+import types.RoomType;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the admin reports AdminController.viewAllBookings, getCancellationFees and the monthly
+ * getBookingStatistics of a random hotel, with the controllers' results returned to JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AdminControllerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final AdminController controller = new AdminController();
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Datasets.useDirectory(Datasets.prepare(this.size));
+        Datasets.muteOutput();
+    }
+
+    private int randomHotelId() {
+        return 1 + this.random.nextInt(Datasets.hotelsCount(this.size));
+    }
+
+    @Benchmark
+    public ArrayList<Reservation> viewAllBookings() {
+        return this.controller.viewAllBookings(this.randomHotelId());
+    }
+
+    @Benchmark
+    public long getCancellationFees() {
+        return this.controller.getCancellationFees(this.randomHotelId());
+    }
+
+    @Benchmark
+    public EnumMap<RoomType, AggregateCounters> getBookingStatistics() {
+        LocalDate from = Datasets.firstDay.toLocalDate();
+        return this.controller.getBookingStatistics(this.randomHotelId(), from, from.plusMonths(1));
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import analytics.AnalyticsEngine;
+import analytics.RevenueMetrics;
+import org.openjdk.jmh.annotations.*;
+import types.RoomType;
+import utils.Money;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the occupancy, ADR and RevPAR queries of the AnalyticsEngine over "size" reservations, for a
+ * single hotel and for all hotels in one scan, sequentially (parallelism=1) and on all cores (parallelism=0).
+ * The engine's columns are filled directly with seeded stays of 20 reservations per room and 100 rooms
+ * per hotel, as the JSON repositories cannot hold 10M reservations in a benchmark's heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AnalyticsBenchmark {
+    private static final int reservationsPerRoom = 20;
+    private static final LocalDate firstDay = LocalDate.of(2026, 1, 1);
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private AnalyticsEngine engine;
+    private int hotelsCount;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final EnumSet<RoomType> allTypes = EnumSet.allOf(RoomType.class);
+    private final EnumSet<RoomType> suites = EnumSet.of(RoomType.SUITE, RoomType.DELUXE);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.pool = this.parallelism == 0 ? ForkJoinPool.commonPool() : new ForkJoinPool(this.parallelism);
+        this.engine = new AnalyticsEngine(this.pool, roomId -> null);
+        int roomsCount = Math.max(1, this.size / reservationsPerRoom);
+        this.hotelsCount = Math.max(1, roomsCount / Datasets.roomsPerHotel);
+        RoomType[] types = {RoomType.SINGLE, RoomType.DOUBLE, RoomType.DELUXE, RoomType.SUITE};
+
+        SplittableRandom stays = new SplittableRandom(7);
+        int reservationId = 0;
+        int firstEpochDay = (int) firstDay.toEpochDay();
+        for (int roomId = 1; roomId <= roomsCount; roomId++) {
+            int hotelId = 1 + (roomId - 1) % this.hotelsCount;
+            RoomType type = types[roomId % types.length];
+            this.engine.addRoom(roomId, hotelId, type);
+            int day = firstEpochDay + stays.nextInt(7);
+            long nightlyRate = Money.of(50 + 50 * type.ordinal());
+            // Stays of the room one after another, 1 to 7 nights with gaps of 0 to 6 nights
+            for (int i = 0; i < reservationsPerRoom; i++) {
+                int nights = 1 + stays.nextInt(7);
+                this.engine.getColumns().replace(++reservationId, new int[]{hotelId}, new byte[]{(byte) type.ordinal()},
+                        day, day + nights, new long[]{nightlyRate});
+                day += nights + stays.nextInt(7);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.pool != ForkJoinPool.commonPool()) {
+            this.pool.shutdown();
+        }
+    }
+
+    private LocalDate randomMonth() {
+        return firstDay.plusMonths(this.random.nextInt(4));
+    }
+
+    @Benchmark
+    public RevenueMetrics hotelMonth() {
+        LocalDate from = this.randomMonth();
+        return this.engine.metricsOf(1 + this.random.nextInt(this.hotelsCount), from, from.plusMonths(1), this.allTypes);
+    }
+
+    @Benchmark
+    public RevenueMetrics hotelQuarterSuites() {
+        return this.engine.metricsOf(1 + this.random.nextInt(this.hotelsCount), firstDay, firstDay.plusMonths(3),
+                this.suites);
+    }
+
+    @Benchmark
+    public TreeMap<Integer, RevenueMetrics> allHotelsMonth() {
+        LocalDate from = this.randomMonth();
+        return this.engine.metricsByHotel(from, from.plusMonths(1), this.allTypes);
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import generators.DatasetGenerator;
+import repositories.Repositories;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Datasets class generates the benchmark datasets with the DatasetGenerator: "size" rooms in hotels of
+ * 100 rooms and about "size" reservations, one per room on average, booked by size / 10 users. Every
+ * dataset is generated once into the temp directory and reused by all benchmarks and forks of the month.
+ */
+public final class Datasets {
+    public static final int roomsPerHotel = 100;
+    // Stays start next month, so they fall into the occupancy calendars' horizon
+    public static final LocalDateTime firstDay = LocalDate.now().withDayOfMonth(1).plusMonths(1).atTime(14, 0);
+    private static final Path root = Path.of(System.getProperty("java.io.tmpdir"), "hotel-benchmarks");
+    private static final long seed = 42;
+    // One night in 75 booked, an average stay of 4 nights gives one stay per room in the horizon
+    private static final double bookingDensity = 1.0 / 75;
+
+    private Datasets() {
+    }
+
+    public static int hotelsCount(int size) {
+        return Math.max(1, (size + roomsPerHotel - 1) / roomsPerHotel);
+    }
+
+    public static int usersCount(int size) {
+        return Math.max(1, size / 10);
+    }
+
+    /**
+     * Gets the directory of a dataset, generating it first if needed.
+     *
+     * @param size Count of rooms and of reservations.
+     * @return The directory holding the dataset's entity files.
+     * @throws IOException If the dataset cannot be written.
+     */
+    public static synchronized Path prepare(int size) throws IOException {
+        Path dir = root.resolve(size + "-" + seed + "-" + firstDay.toLocalDate());
+        if (Files.exists(dir.resolve("complete"))) {
+            return dir;
+        }
+        Files.createDirectories(dir);
+        generate(size, dir);
+        Files.createFile(dir.resolve("complete"));
+        return dir;
+    }
+
+    /**
+     * Copies a dataset into a fresh directory, for benchmarks which change the data.
+     *
+     * @param size Count of rooms and of reservations.
+     * @return The directory of the copy.
+     * @throws IOException If the dataset cannot be copied.
+     */
+    public static Path copyOf(int size) throws IOException {
+        Path source = prepare(size);
+        Path copy = Files.createTempDirectory(root, size + "-");
+        try (Stream<Path> files = Files.list(source)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, copy.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Makes the repositories load the given directory. It must be called before the repositories are
+     * used, which JMH guarantees by running every trial in its own fork.
+     *
+     * @param dir The directory of a dataset.
+     */
+    public static void useDirectory(Path dir) {
+        System.setProperty("storage.dir", dir.toString());
+        if (!dir.toString().equals(Repositories.dataDirectory)) {
+            throw new IllegalStateException("The repositories were loaded before the dataset was chosen!");
+        }
+    }
+
+    /**
+     * Discards the console output of the controllers, so it does not dominate the measurements.
+     */
+    public static void muteOutput() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    public static void deleteDirectory(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static void generate(int size, Path dir) throws IOException {
+        new DatasetGenerator(seed, hotelsCount(size), roomsPerHotel, DatasetGenerator.defaultRoomTypeWeights(),
+                usersCount(size), bookingDensity, firstDay, DatasetGenerator.defaultHorizonDays).generate(dir);
+    }
+}
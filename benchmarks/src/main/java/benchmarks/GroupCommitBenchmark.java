@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import transactions.GroupCommitWriter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures appending a durable journal record from 16 threads through a GroupCommitWriter, for the
+ * maximum batch sizes and latencies given with -p maxBatchSize=... -p maxLatencyMicros=...;
+ * maxBatchSize=1 forces every record on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class GroupCommitBenchmark {
+    @Param({"1", "256"})
+    public int maxBatchSize;
+
+    @Param({"0", "1000"})
+    public long maxLatencyMicros;
+
+    private final byte[] record = ("TX 1 0 PUT models.Reservation {\"id\":1,\"fromDate\":\"2026-11-01T12:00:00\","
+            + "\"toDate\":\"2026-11-03T12:00:00\",\"roomsIds\":{\"1\":100.0},\"bookedById\":1,"
+            + "\"cancellationFees\":100.0,\"totalPrice\":200.0,\"isCancelled\":false}\n").getBytes(StandardCharsets.UTF_8);
+    private Path path;
+    private FileChannel channel;
+    private GroupCommitWriter writer;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        this.path = Files.createTempFile("journal", ".journal");
+        this.channel = FileChannel.open(this.path, StandardOpenOption.WRITE);
+        this.writer = new GroupCommitWriter(this.channel, this.path.getFileName().toString(), this.maxBatchSize,
+                this.maxLatencyMicros * 1000, 4096);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        System.out.println();
+        System.out.println(this.writer.stats());
+        this.writer.close();
+        this.channel.close();
+        Files.delete(this.path);
+    }
+
+    @Benchmark
+    public void appendDurable() {
+        this.writer.append(this.record, true).join();
+    }
+}
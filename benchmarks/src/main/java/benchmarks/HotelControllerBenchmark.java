@@ -0,0 +1,110 @@
+package benchmarks;
+
+import booking.BookingEngine;
+import booking.BookingResult;
+import controllers.HotelController;
+import indexes.Indexes;
+import models.Hotel;
+import models.Room;
+import models.User;
+import org.openjdk.jmh.annotations.*;
+import repositories.Repositories;
+import types.BookingStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures HotelController.recommendRooms, bookRoom and cancelReservation on a copy of a dataset,
+ * with the controllers' results returned to JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class HotelControllerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final HotelController controller = new HotelController();
+    private final Random random = new Random(42);
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.dir = Datasets.copyOf(this.size);
+        Datasets.useDirectory(this.dir);
+        Datasets.muteOutput();
+        Indexes.availability();
+        Indexes.calendars();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Datasets.deleteDirectory(this.dir);
+    }
+
+    private Hotel randomHotel() {
+        return Repositories.hotels().findById(1 + this.random.nextInt(Datasets.hotelsCount(this.size)));
+    }
+
+    private User randomUser() {
+        return Repositories.users().findById(1 + this.random.nextInt(Datasets.usersCount(this.size)));
+    }
+
+    // A stay after the generated ones, so most bookings succeed
+    private LocalDateTime randomLaterStay() {
+        return Datasets.firstDay.plusDays(310 + this.random.nextInt(400));
+    }
+
+    @Benchmark
+    public ArrayList<Room> recommendRooms() {
+        LocalDateTime from = Datasets.firstDay.plusDays(this.random.nextInt(300));
+        return this.controller.recommendRooms(from, from.plusDays(2), 1 + this.random.nextInt(4), this.randomHotel());
+    }
+
+    @Benchmark
+    public BookingResult bookRoom() throws IOException {
+        Room room = Repositories.rooms().findById(1 + this.random.nextInt(this.size));
+        Hotel hotel = Repositories.hotels().findById(room.getHotelId());
+        LocalDateTime from = this.randomLaterStay();
+        return this.controller.bookRoom(room.getId(), hotel, from, from.plusDays(2), this.randomUser(),
+                HotelController.fixedCancellationFee);
+    }
+
+    /**
+     * A fresh reservation booked before every cancellation.
+     */
+    @State(Scope.Thread)
+    public static class Booked {
+        private final BookingEngine engine = new BookingEngine();
+        int reservationId;
+        User user;
+        Hotel hotel;
+
+        @Setup(Level.Invocation)
+        public void book(HotelControllerBenchmark benchmark) {
+            BookingResult result;
+            do {
+                Room room = Repositories.rooms().findById(1 + benchmark.random.nextInt(benchmark.size));
+                this.hotel = Repositories.hotels().findById(room.getHotelId());
+                this.user = benchmark.randomUser();
+                LocalDateTime from = benchmark.randomLaterStay();
+                result = this.engine.book(room.getId(), this.hotel, from, from.plusDays(1), this.user,
+                        HotelController.fixedCancellationFee);
+            } while (result.getStatus() != BookingStatus.BOOKED);
+            this.reservationId = result.getReservation().getId();
+        }
+    }
+
+    @Benchmark
+    public BookingResult cancelReservation(Booked booked) {
+        return this.controller.cancelReservation(booked.reservationId, booked.user, booked.hotel);
+    }
+}
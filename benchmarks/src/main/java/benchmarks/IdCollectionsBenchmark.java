@@ -0,0 +1,146 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.IntLongMap;
+import utils.IntSet;
+import utils.Money;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures a membership check on the room IDs of a hotel with 10k rooms, half of the checked IDs being
+ * the hotel's: in an ArrayList of boxed IDs, the way the hotels held them before (arrayList), in a
+ * HashSet (hashSet) and in an IntSet (intSet); and a price lookup in a HashMap of boxed reservation IDs
+ * and prices (hashMap) and in an IntLongMap (intLongMap). The setup prints the retained heap of each
+ * collection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdCollectionsBenchmark {
+    private static final int firstId = 1_000_000; // IDs of a later hotel, above the cached Integers
+    private static final int probesCount = 1 << 12;
+    private static final int copiesMeasured = 100;
+
+    @Param({"10000"})
+    public int size;
+
+    private ArrayList<Integer> arrayList;
+    private HashSet<Integer> hashSet;
+    private IntSet intSet;
+    private HashMap<Integer, Long> hashMap;
+    private IntLongMap intLongMap;
+    private final int[] probes = new int[probesCount];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.arrayList = this.newArrayList();
+        this.hashSet = new HashSet<>(this.arrayList);
+        this.intSet = this.newIntSet();
+        this.hashMap = this.newHashMap();
+        this.intLongMap = this.newIntLongMap();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < probesCount; i++) {
+            this.probes[i] = firstId + random.nextInt(2 * this.size); // Every second ID is not in the hotel
+        }
+
+        System.out.printf("%nRetained heap of %d IDs: ArrayList<Integer> %d KB | HashSet<Integer> %d KB | IntSet %d KB (estimated %d KB)%n",
+                this.size, retainedBytes(this::newArrayList) / 1024,
+                retainedBytes(() -> new HashSet<>(this.newArrayList())) / 1024,
+                retainedBytes(this::newIntSet) / 1024, this.intSet.memoryFootprintBytes() / 1024);
+        System.out.printf("Retained heap of %d prices: HashMap<Integer, Long> %d KB | IntLongMap %d KB (estimated %d KB)%n",
+                this.size, retainedBytes(this::newHashMap) / 1024, retainedBytes(this::newIntLongMap) / 1024,
+                this.intLongMap.memoryFootprintBytes() / 1024);
+    }
+
+    private ArrayList<Integer> newArrayList() {
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < this.size; i++) {
+            ids.add(firstId + i);
+        }
+        return ids;
+    }
+
+    private IntSet newIntSet() {
+        IntSet ids = new IntSet();
+        for (int i = 0; i < this.size; i++) {
+            ids.add(firstId + i);
+        }
+        return ids;
+    }
+
+    private HashMap<Integer, Long> newHashMap() {
+        HashMap<Integer, Long> prices = new HashMap<>();
+        for (int i = 0; i < this.size; i++) {
+            prices.put(firstId + i, Money.of(100 + i % 50));
+        }
+        return prices;
+    }
+
+    private IntLongMap newIntLongMap() {
+        IntLongMap prices = new IntLongMap();
+        for (int i = 0; i < this.size; i++) {
+            prices.put(firstId + i, Money.of(100 + i % 50));
+        }
+        return prices;
+    }
+
+    // Heap held by a collection, from the heap in use before and after making copies of it
+    private static long retainedBytes(Supplier<Object> factory) {
+        Object[] copies = new Object[copiesMeasured];
+        long before = usedHeap();
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = factory.get();
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(copies);
+        return (after - before) / copies.length;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private int nextProbe() {
+        return this.probes[this.next++ & (probesCount - 1)];
+    }
+
+    @Benchmark
+    public boolean arrayList() {
+        return this.arrayList.contains(this.nextProbe());
+    }
+
+    @Benchmark
+    public boolean hashSet() {
+        return this.hashSet.contains(this.nextProbe());
+    }
+
+    @Benchmark
+    public boolean intSet() {
+        return this.intSet.contains(this.nextProbe());
+    }
+
+    @Benchmark
+    public long hashMap() {
+        return this.hashMap.getOrDefault(this.nextProbe(), Money.zero);
+    }
+
+    @Benchmark
+    public long intLongMap() {
+        return this.intLongMap.getOrDefault(this.nextProbe(), Money.zero);
+    }
+}
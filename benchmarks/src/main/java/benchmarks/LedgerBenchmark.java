@@ -0,0 +1,60 @@
+package benchmarks;
+
+import models.DebitCard;
+import models.Hotel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import payments.DebitCardLedger;
+import utils.Money;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures debiting a card and refunding it again in the debit card ledger from 16 threads, each on its
+ * own card (disjointCards) or all on the same card (sharedCard), crediting the same hotel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class LedgerBenchmark {
+    private static final int cards = 1024;
+
+    private DebitCardLedger ledger;
+
+    @State(Scope.Thread)
+    public static class Card {
+        int id;
+
+        @Setup
+        public void setUp(ThreadParams params) {
+            this.id = params.getThreadIndex() % cards;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.ledger = new DebitCardLedger();
+        for (int i = 0; i < cards; i++) {
+            DebitCard card = new DebitCard(Money.of(1_000_000), i);
+            card.setId(i);
+            this.ledger.getCardsListener().saved(card);
+        }
+        Hotel hotel = new Hotel();
+        hotel.setId(1);
+        this.ledger.getHotelsListener().saved(hotel);
+    }
+
+    @Benchmark
+    public boolean disjointCards(Card card) {
+        return this.ledger.debit(card.id, 1, 12_345) && this.ledger.refund(card.id, 1, 12_345);
+    }
+
+    @Benchmark
+    public boolean sharedCard() {
+        return this.ledger.debit(0, 1, 12_345) && this.ledger.refund(0, 1, 12_345);
+    }
+}
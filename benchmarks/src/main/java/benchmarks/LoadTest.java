@@ -0,0 +1,329 @@
+package benchmarks;
+
+import booking.BookingResult;
+import controllers.HotelController;
+import controllers.UserController;
+import generators.DatasetGenerator;
+import models.Hotel;
+import models.Reservation;
+import models.Room;
+import models.User;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import repositories.Repositories;
+import security.Passwords;
+import transactions.Transactions;
+import types.BookingStatus;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * LoadTest simulates concurrent guests against the controllers in-process: every session registers a new
+ * user, logs in, searches with recommendRooms and books one of the recommended rooms, some bookings are
+ * cancelled again. The console is replaced by a discarding stream, so only the controllers are measured.
+ * <p>
+ * In the closed loop "users" guests run sessions back to back. In the open loop sessions arrive at a fixed
+ * "rate" per second whether the previous ones finished or not, and a session's latency is measured from
+ * its scheduled arrival, so a stalled system is not hidden by arrivals waiting for it.
+ * <p>
+ * The report holds the throughput and the latency percentiles of every operation, the booking conflicts
+ * (a recommended room taken by another guest before the booking) and the double bookings found afterward.
+ * Settings are key=value arguments, e.g. {@code mode=open rate=500 duration=30 hotels=10}.
+ */
+public final class LoadTest {
+    private static final long highestTrackableNanos = TimeUnit.MINUTES.toNanos(1);
+    private static final int significantDigits = 3;
+
+    private final Map<String, String> settings;
+    private final int hotelsCount;
+    private final LocalDateTime firstDay;
+    private final int searchDays; // Count of days in which guests search, fewer days give more conflicts
+    private final double bookRatio; // Share of searches followed by a booking
+    private final double cancelRatio; // Share of bookings cancelled again
+    private final long thinkNanos; // Pause of a closed-loop guest between operations
+    private final UserController userController = new UserController();
+    private final HotelController hotelController = new HotelController();
+    private final AtomicInteger sessionsCount = new AtomicInteger();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private enum Operation {
+        REGISTER, LOGIN, RECOMMEND, BOOK, CANCEL, SESSION
+    }
+
+    private LoadTest(Map<String, String> settings) {
+        this.settings = settings;
+        this.hotelsCount = this.intSetting("hotels", 10);
+        this.firstDay = LocalDate.now().withDayOfMonth(1).plusMonths(1).atTime(14, 0);
+        this.searchDays = this.intSetting("searchDays", 30);
+        this.bookRatio = Double.parseDouble(settings.getOrDefault("bookRatio", "0.8"));
+        this.cancelRatio = Double.parseDouble(settings.getOrDefault("cancelRatio", "0.2"));
+        this.thinkNanos = TimeUnit.MILLISECONDS.toNanos(this.intSetting("thinkMillis", 0));
+        for (Operation operation : Operation.values()) {
+            this.latencies.put(operation, new ConcurrentHistogram(highestTrackableNanos, significantDigits));
+        }
+    }
+
+    private int intSetting(String name, int defaultValue) {
+        return Integer.parseInt(this.settings.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private <T> T measure(Operation operation, Supplier<T> call) {
+        long started = System.nanoTime();
+        T result = call.get();
+        this.latencies.get(operation).recordValue(Math.min(System.nanoTime() - started, highestTrackableNanos));
+        return result;
+    }
+
+    private void think() {
+        if (this.thinkNanos > 0) {
+            LockSupport.parkNanos(this.thinkNanos);
+        }
+    }
+
+    /**
+     * Runs one guest's session: registration, login, a search and possibly a booking and its cancellation.
+     *
+     * @param scheduledNanos The time the session was due, its latency is measured from it.
+     */
+    private void session(long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int number = this.sessionsCount.incrementAndGet();
+        String username = String.format("load%08d", number);
+        String password = "password1";
+        try {
+            boolean isRegistered = this.measure(Operation.REGISTER, () -> this.userController.register(new String[]{
+                    username, String.format("l%08d@abv.bg", number), password, password, "100000"}));
+            if (!isRegistered) {
+                this.failures.increment();
+                return;
+            }
+            this.think();
+            User guest = new User();
+            boolean isLoggedIn = this.measure(Operation.LOGIN,
+                    () -> this.userController.login(new String[]{username, password}, guest));
+            if (!isLoggedIn) {
+                this.failures.increment();
+                return;
+            }
+            this.think();
+
+            Hotel hotel = Repositories.hotels().findById(1 + random.nextInt(this.hotelsCount));
+            LocalDateTime from = this.firstDay.plusDays(random.nextInt(this.searchDays));
+            LocalDateTime to = from.plusDays(1 + random.nextInt(3));
+            int guestsCount = 1 + random.nextInt(4);
+            ArrayList<Room> rooms = this.measure(Operation.RECOMMEND,
+                    () -> this.hotelController.recommendRooms(from, to, guestsCount, hotel));
+            if (rooms.isEmpty() || random.nextDouble() >= this.bookRatio) {
+                return;
+            }
+            this.think();
+
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            BookingResult booking = this.measure(Operation.BOOK, () -> this.book(room, hotel, from, to, guest));
+            if (booking.getStatus() == BookingStatus.UNAVAILABLE) {
+                this.conflicts.increment();
+                return;
+            }
+            if (booking.getStatus() != BookingStatus.BOOKED) {
+                this.failures.increment();
+                return;
+            }
+            if (random.nextDouble() < this.cancelRatio) {
+                this.think();
+                BookingResult cancellation = this.measure(Operation.CANCEL, () -> this.hotelController
+                        .cancelReservation(booking.getReservation().getId(), guest, hotel));
+                if (cancellation.getStatus() != BookingStatus.CANCELLED) {
+                    this.failures.increment();
+                }
+            }
+        } catch (RuntimeException ex) {
+            ex.fillInStackTrace();
+            this.failures.increment();
+        } finally {
+            this.latencies.get(Operation.SESSION)
+                    .recordValue(Math.min(System.nanoTime() - scheduledNanos, highestTrackableNanos));
+        }
+    }
+
+    private BookingResult book(Room room, Hotel hotel, LocalDateTime from, LocalDateTime to, User guest) {
+        try {
+            return this.hotelController.bookRoom(room.getId(), hotel, from, to, guest,
+                    HotelController.fixedCancellationFee);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    // Guests run sessions back to back until the deadline
+    private void runClosedLoop(int usersCount, long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        try (ExecutorService guests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < usersCount; i++) {
+                guests.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        this.session(System.nanoTime());
+                    }
+                });
+            }
+            guests.shutdown();
+            guests.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Sessions arrive at a fixed rate, each on its own virtual thread
+    private void runOpenLoop(double ratePerSecond, long durationNanos) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long started = System.nanoTime();
+        try (ExecutorService guests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = 0; arrival * intervalNanos < durationNanos; arrival++) {
+                long scheduled = started + arrival * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                guests.submit(() -> this.session(scheduled));
+            }
+            guests.shutdown();
+            guests.awaitTermination(TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void reset() {
+        this.latencies.values().forEach(Histogram::reset);
+        this.conflicts.reset();
+        this.failures.reset();
+    }
+
+    // Counts overlapping active reservations of the same room, which the booking engine must never allow
+    private static long countDoubleBookings() {
+        Map<Integer, List<Reservation>> byRoom = new HashMap<>();
+        Repositories.reservations().stream().forEach(reservation -> {
+            if (!reservation.isCancelled()) {
+                for (int roomId : reservation.getRoomsIds().keys()) {
+                    byRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(reservation);
+                }
+            }
+        });
+        long overlaps = 0;
+        for (List<Reservation> reservations : byRoom.values()) {
+            reservations.sort((first, second) -> first.getFromDate().compareTo(second.getFromDate()));
+            for (int i = 1; i < reservations.size(); i++) {
+                if (reservations.get(i).getFromDate().isBefore(reservations.get(i - 1).getToDate())) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private void report(PrintStream out, String mode, double seconds) {
+        out.printf("%nLoad test: %s loop, %.1f s, %d sessions%n", mode, seconds,
+                this.latencies.get(Operation.SESSION).getTotalCount());
+        out.printf("%-10s %10s %12s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Ops/s", "p50 ms", "p99 ms", "p999 ms", "Max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = this.latencies.get(operation);
+            out.printf("%-10s %10d %12.1f %10.3f %10.3f %10.3f %10.3f%n", operation, histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds, millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+        out.printf("Booking conflicts: %d | Failed operations: %d | Double bookings: %d%n",
+                this.conflicts.sum(), this.failures.sum(), countDoubleBookings());
+        out.println(Passwords.hasher().stats());
+        out.println(Transactions.journal().stats());
+
+        if (Boolean.parseBoolean(this.settings.getOrDefault("distribution", "false"))) {
+            for (Operation operation : Operation.values()) {
+                out.printf("%n%s latency distribution (ms):%n", operation);
+                this.latencies.get(operation).outputPercentileDistribution(out, 5, 1_000_000.0);
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Generates a dataset, runs the warmup and the measured load and prints the report.
+     * Settings: mode (closed or open), users (closed loop guests), rate (open loop sessions per second),
+     * duration and warmup (seconds), hotels, roomsPerHotel, datasetUsers, density, seed, searchDays,
+     * bookRatio, cancelRatio, thinkMillis and distribution (true prints the full latency distributions).
+     *
+     * @param args The settings as key=value pairs.
+     * @throws IOException If the dataset cannot be written.
+     * @throws InterruptedException If the run is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyAndValue = arg.split("=", 2);
+            if (keyAndValue.length != 2) {
+                System.out.println("Usage: LoadTest [mode=closed|open] [users=100] [rate=200] [duration=30]"
+                        + " [warmup=10] [hotels=10] [roomsPerHotel=100] [datasetUsers=1000] [density=0.3]"
+                        + " [seed=42] [searchDays=30] [bookRatio=0.8] [cancelRatio=0.2] [thinkMillis=0]"
+                        + " [distribution=false]");
+                return;
+            }
+            settings.put(keyAndValue[0], keyAndValue[1]);
+        }
+
+        LoadTest test = new LoadTest(settings);
+        Path dir = Files.createTempDirectory("hotel-load-");
+        new DatasetGenerator(Long.parseLong(settings.getOrDefault("seed", "42")), test.hotelsCount,
+                test.intSetting("roomsPerHotel", 100), DatasetGenerator.defaultRoomTypeWeights(),
+                test.intSetting("datasetUsers", 1000), Double.parseDouble(settings.getOrDefault("density", "0.3")),
+                test.firstDay, DatasetGenerator.defaultHorizonDays).generate(dir);
+        Datasets.useDirectory(dir);
+
+        // The console of the controllers and repositories is discarded, the report goes to the real one
+        PrintStream console = System.out;
+        Datasets.muteOutput();
+        Repositories.all();
+
+        String mode = settings.getOrDefault("mode", "closed");
+        long warmupNanos = TimeUnit.SECONDS.toNanos(test.intSetting("warmup", 10));
+        long durationNanos = TimeUnit.SECONDS.toNanos(test.intSetting("duration", 30));
+        try {
+            long[] phasesNanos = {warmupNanos, durationNanos};
+            for (int phase = 0; phase < phasesNanos.length; phase++) {
+                long phaseNanos = phasesNanos[phase];
+                test.reset();
+                long started = System.nanoTime();
+                if (mode.equals("open")) {
+                    test.runOpenLoop(Double.parseDouble(settings.getOrDefault("rate", "200")), phaseNanos);
+                } else {
+                    test.runClosedLoop(test.intSetting("users", 100), phaseNanos);
+                }
+                if (phase == phasesNanos.length - 1) {
+                    test.report(console, mode, (System.nanoTime() - started) / 1e9);
+                }
+            }
+        } finally {
+            System.setOut(console);
+            Datasets.deleteDirectory(dir);
+        }
+    }
+}
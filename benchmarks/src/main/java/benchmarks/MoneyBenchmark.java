@@ -0,0 +1,68 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.Money;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures summing the prices of a million reservations, as the incomes and statistics do: as boxed
+ * doubles in a map (boxedDoubles), the way the prices were held before, and as long cents in a map
+ * (boxedCents) and in an array (primitiveCents). The setup prints the drift of the double sum against
+ * the exact sum of cents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final int reservations = 1_000_000;
+
+    private final Map<Integer, Double> doublePrices = new HashMap<>();
+    private final Map<Integer, Long> centPrices = new HashMap<>();
+    private final long[] cents = new long[reservations];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < reservations; i++) {
+            long price = Money.of(40 + 5 * random.nextInt(33)) + 5 * random.nextInt(20); // Odd cents, e.g. 149.35
+            this.cents[i] = price;
+            this.centPrices.put(i, price);
+            this.doublePrices.put(i, Money.toDouble(price));
+        }
+        System.out.printf("%nExact sum %s | double sum %.6f%n", Money.format(this.primitiveCents()), this.boxedDoubles());
+    }
+
+    @Benchmark
+    public double boxedDoubles() {
+        double sum = 0.0;
+        for (Double price : this.doublePrices.values()) {
+            sum += price;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long boxedCents() {
+        long sum = 0;
+        for (Long price : this.centPrices.values()) {
+            sum += price;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveCents() {
+        long sum = 0;
+        for (long price : this.cents) {
+            sum += price;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import models.User;
+import org.openjdk.jmh.annotations.*;
+import security.PasswordHasher;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing a single password with User.hashPassword and verifying one on a password hashing
+ * pool, for the iteration counts given with -p iterations=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    @Param({"65536"})
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(PasswordHasher.defaultAlgorithm, iterations,
+                Runtime.getRuntime().availableProcessors(), 1024);
+        stored = hasher.hash("password1").join();
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.close();
+    }
+
+    @Benchmark
+    public String hashPassword() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return User.hashPassword("password1");
+    }
+
+    @Benchmark
+    public boolean verifyOnPool() {
+        return hasher.verify("password1", stored).join();
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import models.Reservation;
+import models.Room;
+import org.openjdk.jmh.annotations.*;
+import readersWriters.*;
+import repositories.Repositories;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the rooms and reservations files in the JSON and the binary format, writing a
+ * whole rooms file in both formats and appending a single room with RoomReaderWriter.write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PersistenceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final RoomReaderWriter rooms = new RoomReaderWriter();
+    private final ReservationReaderWriter reservations = new ReservationReaderWriter();
+    private final RoomBinaryReaderWriter binaryRooms = new RoomBinaryReaderWriter();
+    private final ReservationBinaryReaderWriter binaryReservations = new ReservationBinaryReaderWriter();
+    private File roomsFile;
+    private File reservationsFile;
+    private Path binaryRoomsFile;
+    private Path binaryReservationsFile;
+    private Path output;
+    private ArrayList<Room> loadedRooms;
+    private Room room;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path dir = Datasets.prepare(this.size);
+        this.roomsFile = dir.resolve(Repositories.roomsFilename).toFile();
+        this.reservationsFile = dir.resolve(Repositories.reservationsFilename).toFile();
+        this.binaryRoomsFile = dir.resolve(Repositories.roomsBinaryFilename);
+        this.binaryReservationsFile = dir.resolve(Repositories.reservationsBinaryFilename);
+        if (Files.notExists(this.binaryRoomsFile)) {
+            FormatConverter.jsonToBinary(this.rooms, this.binaryRooms, this.roomsFile.toPath(), this.binaryRoomsFile);
+        }
+        if (Files.notExists(this.binaryReservationsFile)) {
+            FormatConverter.jsonToBinary(this.reservations, this.binaryReservations,
+                    this.reservationsFile.toPath(), this.binaryReservationsFile);
+        }
+        this.loadedRooms = this.rooms.read(null, this.roomsFile);
+        this.room = this.loadedRooms.getFirst();
+        this.output = Files.createTempFile("rooms-", ".out");
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncateOutput() throws IOException {
+        Files.write(this.output, new byte[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.output);
+    }
+
+    @Benchmark
+    public ArrayList<Room> readRooms() throws IOException {
+        try (FileReader fr = new FileReader(this.roomsFile)) {
+            return this.rooms.read(fr, this.roomsFile);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Reservation> readReservations() throws IOException {
+        try (FileReader fr = new FileReader(this.reservationsFile)) {
+            return this.reservations.read(fr, this.reservationsFile);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Room> readRoomsBinary() {
+        return this.binaryRooms.read(null, this.binaryRoomsFile.toFile());
+    }
+
+    @Benchmark
+    public ArrayList<Reservation> readReservationsBinary() {
+        return this.binaryReservations.read(null, this.binaryReservationsFile.toFile());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void writeRoom() {
+        this.rooms.write(this.room, this.output.toString());
+    }
+
+    @Benchmark
+    public void writeAllRooms() throws IOException {
+        try (var bw = Files.newBufferedWriter(this.output)) {
+            for (Room current : this.loadedRooms) {
+                bw.write(current.toString());
+                bw.newLine();
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeAllRoomsBinary() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.output, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.binaryRooms.writeAll(this.loadedRooms, channel);
+        }
+    }
+}
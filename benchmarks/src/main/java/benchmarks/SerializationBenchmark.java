@@ -0,0 +1,88 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import models.Reservation;
+import models.Room;
+import org.openjdk.jmh.annotations.*;
+import utils.JsonMappers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-record cost of serializing and parsing a room and a reservation with the shared
+ * ObjectReader/ObjectWriter against building a configured ObjectMapper per record, as every
+ * toString() and every parsed line used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private Room room;
+    private Reservation reservation;
+    private String roomJson;
+    private String reservationJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = Datasets.prepare(1000);
+        this.roomJson = Files.readAllLines(dir.resolve("rooms.txt")).getFirst();
+        this.reservationJson = Files.readAllLines(dir.resolve("reservations.txt")).getFirst();
+        this.room = JsonMappers.readerFor(Room.class).readValue(this.roomJson);
+        this.reservation = JsonMappers.readerFor(Reservation.class).readValue(this.reservationJson);
+    }
+
+    private static ObjectMapper freshMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
+        return mapper;
+    }
+
+    @Benchmark
+    public String writeRoomShared() {
+        return this.room.toString();
+    }
+
+    @Benchmark
+    public String writeRoomFreshMapper() throws IOException {
+        return freshMapper().writeValueAsString(this.room);
+    }
+
+    @Benchmark
+    public String writeReservationShared() {
+        return this.reservation.toString();
+    }
+
+    @Benchmark
+    public String writeReservationFreshMapper() throws IOException {
+        return freshMapper().writeValueAsString(this.reservation);
+    }
+
+    @Benchmark
+    public Room parseRoomShared() throws IOException {
+        return JsonMappers.readerFor(Room.class).readValue(this.roomJson);
+    }
+
+    @Benchmark
+    public Room parseRoomFreshMapper() throws IOException {
+        return freshMapper().readValue(this.roomJson, Room.class);
+    }
+
+    @Benchmark
+    public Reservation parseReservationShared() throws IOException {
+        return JsonMappers.readerFor(Reservation.class).readValue(this.reservationJson);
+    }
+
+    @Benchmark
+    public Reservation parseReservationFreshMapper() throws IOException {
+        return freshMapper().readValue(this.reservationJson, Reservation.class);
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import controllers.UserController;
+import models.Reservation;
+import models.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the booking history of a random user with UserController.showAllBookings,
+ * with the controller's result returned to JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class UserControllerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final UserController controller = new UserController();
+    private final Random random = new Random(42);
+    private final User user = new User();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Datasets.useDirectory(Datasets.prepare(this.size));
+        Datasets.muteOutput();
+    }
+
+    @Benchmark
+    public ArrayList<Reservation> showAllBookings() {
+        this.user.setId(1 + this.random.nextInt(Datasets.usersCount(this.size)));
+        return this.controller.showAllBookings(this.user);
+    }
+}
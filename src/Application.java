@@ -1,19 +1,25 @@
+import booking.BookingResult;
 import controllers.AdminController;
 import controllers.HotelController;
 import controllers.UserController;
+import indexes.Indexes;
 import models.Hotel;
+import models.Reservation;
 import models.Room;
 import models.User;
-import readersWriters.HotelReaderWriter;
-import readersWriters.RoomReaderWriter;
+import repositories.LogCompactor;
+import repositories.Repositories;
+import server.ApiServer;
+import transactions.Transactions;
+import types.BookingStatus;
 import types.RoomType;
+import utils.Money;
 import validators.UserCredentialsValidator;
 
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /*
 Application class is start point of the application.
@@ -22,6 +28,9 @@ public class Application {
     private static final UserController userController = new UserController();
     private static final HotelController hotelController = new HotelController();
     private static final AdminController adminController = new AdminController();
+    private static final long compactionThresholdBytes = 1024 * 1024;
+    private static final long compactionPeriodMinutes = 10;
+    private static final String serverModeFlag = "--server";
 
     /*
     Initializes the registration form for new users.
@@ -96,6 +105,71 @@ public class Application {
         System.out.println("7. Log Out");
     }
 
+    /*
+    Prints rooms in the format of the hotel's room list or of the recommended rooms.
+    param rooms The rooms to be printed.
+    param withIdAndStatus Whether the IDs and the free status are printed, as for recommended rooms.
+    */
+    private static void printRooms(ArrayList<Room> rooms, boolean withIdAndStatus) {
+        for (Room room : rooms) {
+            if (withIdAndStatus) {
+                System.out.printf("ID: %d | Room type: %s | Max persons: %d | Price per night (per person): %.2f$ | " +
+                                "Total price per night: %.2f$ | Status: %s%n", room.getId(), room.getType(),
+                        room.getMaximumOccupancy(), Money.toDecimal(room.getPricePerNight()),
+                        Money.toDecimal(room.getTotalPrice()), "free");
+            } else {
+                System.out.printf("Room type: %s | Max persons: %d | Price per night (per person): %.2f$ | " +
+                                "Total price per night: %.2f$%n", room.getType(),
+                        room.getMaximumOccupancy(), Money.toDecimal(room.getPricePerNight()),
+                        Money.toDecimal(room.getTotalPrice()));
+            }
+        }
+    }
+
+    /*
+    Prints the bookings of a user.
+    param bookings The reservations booked by the user.
+    */
+    private static void printUserBookings(ArrayList<Reservation> bookings) {
+        System.out.println("All reservations:");
+        System.out.println("------------------");
+        System.out.println();
+        if (bookings.isEmpty()) {
+            System.out.println("There is no read reservations.");
+        }
+        for (Reservation reservation : bookings) {
+            System.out.printf("ID: %d | From: %s | To: %s | Total price: %.2f$ | Status: %s%n",
+                    reservation.getId(), reservation.getFromDate(), reservation.getToDate(),
+                    Money.toDecimal(reservation.getTotalPrice()), reservation.isCancelled() ? "cancelled" : "active");
+        }
+    }
+
+    /*
+    Prints all hotels with the memory footprint of their occupancy calendars.
+    */
+    private static void printHotels() {
+        System.out.println("All Hotels Listed:");
+        System.out.println("------------------");
+        for (Hotel currHotel : adminController.showAllHotels()) {
+            System.out.printf("ID: %d | Name: %s | Address: %s | All Rooms: %d | Booked Rooms: %d | Incomes: %.2f | Calendar: %d bytes%n",
+                    currHotel.getId(), currHotel.getName(), currHotel.getAddress(), currHotel.getAllRoomsIds().size(),
+                    currHotel.getBookedRoomsIds().size(), Money.toDecimal(adminController.getTotalIncome(currHotel.getId())),
+                    Indexes.calendars().memoryFootprintBytes(currHotel.getId()));
+        }
+    }
+
+    /*
+    Prints all rooms of a hotel in the admin format.
+    param hotelId The ID of the hotel.
+    */
+    private static void printHotelRooms(int hotelId) {
+        for (Room currRoom : adminController.showAllHotelRooms(hotelId)) {
+            System.out.printf("ID: %d | Hotel ID: %d | Type: %s | Amenities: %s | Max Occupancy: %d | Price Per Night (per person): %.2f$ | Total Price: %.2f$ | Status: %s%n",
+                    currRoom.getId(), currRoom.getHotelId(), currRoom.getType(), Arrays.toString(currRoom.getAmenities().toArray()),
+                    currRoom.getMaximumOccupancy(), Money.toDecimal(currRoom.getPricePerNight()), Money.toDecimal(currRoom.getTotalPrice()), currRoom.isBooked() ? "booked" : "free");
+        }
+    }
+
     /*
     Initializes a sample hotel with rooms and amenities.
     return Initialized Hotel object.
@@ -103,35 +177,18 @@ public class Application {
     private static Hotel initHotel() {
         Hotel hotel = null;
 
-        HotelReaderWriter hotelRW = new HotelReaderWriter();
-        File hotelsFile = new File("hotels.txt");
-        ArrayList<Hotel> readHotels;
-        try(FileReader hotelsFR = new FileReader(hotelsFile)) {
-            readHotels = hotelRW.read(hotelsFR, hotelsFile);
-
-            // Initialize the hotel object
-            if(!readHotels.isEmpty()) {
-                hotel = readHotels.getFirst();
-
-                // Read rooms for the hotel from rooms.txt
-                RoomReaderWriter roomRW = new RoomReaderWriter();
-                File roomsFile = new File("rooms.txt");
-                ArrayList<Room> readRooms = new ArrayList<>();
-                try (FileReader roomsFR = new FileReader(roomsFile)) {
-                    readRooms = roomRW.read(roomsFR, roomsFile);
-                } catch (IOException ex) {
-                    ex.fillInStackTrace();
-                    System.out.printf("Cannot read from file with name %s!%n", roomsFile.getName());
-                }
+        ArrayList<Hotel> readHotels = Repositories.hotels().findAll();
 
-                for (Room room : readRooms) {
-                    hotel.getAllRoomsIds().add(room.getId());
-                }
-            } else {
-                System.out.println("There is no hotels to be read!");
+        // Initialize the hotel object
+        if(!readHotels.isEmpty()) {
+            hotel = readHotels.getFirst();
+
+            // Add rooms for the hotel from the rooms repository
+            for (Room room : Repositories.rooms().findAll()) {
+                hotel.getAllRoomsIds().add(room.getId());
             }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
+        } else {
+            System.out.println("There is no hotels to be read!");
         }
 
         return hotel;
@@ -142,7 +199,11 @@ public class Application {
     param myHotel The hotel whose rooms are to be displayed.
     */
     private static void viewRooms(Hotel myHotel) {
-        hotelController.viewAllRooms(myHotel);
+        System.out.printf("%s's all FREE rooms%n", myHotel.getName());
+        System.out.printf("address: %s%n", myHotel.getAddress());
+        System.out.println("----------------");
+        System.out.println();
+        printRooms(hotelController.viewAllRooms(myHotel), false);
     }
 
     /*
@@ -173,17 +234,25 @@ public class Application {
         System.out.print("Enter to date: ");
         String toDateString = scanner.nextLine();
         LocalDateTime toDate = parseDate(toDateString);
-        double cancellationFees = 100.00;
+        long cancellationFees = Money.of(100);
 
         System.out.print("Enter guests count: ");
         int guestsCount = Integer.parseInt(scanner.nextLine());
 
         try {
-            hotelController.recommendRooms(fromDate, toDate, guestsCount, hotel);
+            printRooms(hotelController.recommendRooms(fromDate, toDate, guestsCount, hotel), true);
             System.out.print("Choose room and type its id: ");
             int roomId = Integer.parseInt(scanner.nextLine());
 
-            hotelController.bookRoom(roomId, hotel, fromDate, toDate, loggedIn, cancellationFees);
+            BookingResult result = hotelController.bookRoom(roomId, hotel, fromDate, toDate, loggedIn, cancellationFees);
+            if (result.getStatus() == BookingStatus.BOOKED) {
+                System.out.printf("You successfully have paid %.2f$!%n", Money.toDecimal(result.getReservation().getTotalPrice()));
+                System.out.printf("Congratulations! You've just booked room with ID: %d%n", roomId);
+            } else if (result.getStatus() == BookingStatus.INSUFFICIENT_FUNDS) {
+                System.out.println("Sorry, but you haven't enough money! Try again later...");
+            } else {
+                System.out.println("Sorry but the reservation was not successful!");
+            }
         } catch (RuntimeException ex) {
             ex.fillInStackTrace();
             System.out.println("Oops! Something went wrong! Please try again later!");
@@ -200,7 +269,12 @@ public class Application {
     param currentHotel The hotel from which the booking is canceled.
     */
     private static void cancelBooking(int bookingId, User loggedIn, Hotel currentHotel) {
-        hotelController.cancelReservation(bookingId, loggedIn, currentHotel);
+        BookingResult result = hotelController.cancelReservation(bookingId, loggedIn, currentHotel);
+        if (result.getStatus() == BookingStatus.CANCELLED) {
+            System.out.println("Successful cancelled booking!");
+        } else if (loggedIn.getReservations().containsKey(bookingId)) {
+            System.out.println("Sorry, but booking cancellation was not successful!");
+        }
     }
 
     /*
@@ -215,7 +289,7 @@ public class Application {
             case "View Rooms" -> viewRooms(hotel);
             case "Book a Room" -> bookRoom(hotel, currentUser);
             case "Cancel Booking" -> {
-                userController.showAllBookings(currentUser);
+                printUserBookings(userController.showAllBookings(currentUser));
                 System.out.println("If you really want to cancel this reservation, you must pay cancellation fees!");
                 System.out.print("Enter booking id: ");
                 int bookingId = Integer.parseInt(scanner.nextLine());
@@ -255,19 +329,27 @@ public class Application {
             return;
         }
         Scanner scanner = new Scanner(System.in);
-        adminController.showAllHotels();
+        printHotels();
         System.out.print("Enter hotel Id: ");
         int hotelId = Integer.parseInt(scanner.nextLine());
 
         switch (adminCmd) {
-            case "View All Bookings" -> adminController.viewAllBookings(hotelId);
+            case "View All Bookings" -> {
+                for (Reservation currReservation : adminController.viewAllBookings(hotelId)) {
+                    System.out.printf("ID: %d | From: %s | To: %s | Rooms: %d | Total Price: %.2f$ | Cancellation Fees: %.2f$ | Status: %s%n",
+                            currReservation.getId(), currReservation.getFromDate(), currReservation.getToDate(),
+                            currReservation.getRoomsIds().size(), Money.toDecimal(currReservation.getTotalPrice()),
+                            Money.toDecimal(currReservation.getCancellationFees()),
+                            currReservation.isCancelled() ? "cancelled" : "active");
+                }
+            }
             case "View Total Income" -> {
-                double currHotelIncomes = adminController.getTotalIncome(hotelId);
-                System.out.printf("Hotel total incomes are %.2f$.%n", currHotelIncomes);
+                long currHotelIncomes = adminController.getTotalIncome(hotelId);
+                System.out.printf("Hotel total incomes are %.2f$.%n", Money.toDecimal(currHotelIncomes));
             }
             case "View Total Cancellation Fees" -> {
-                double currHotelCancellationFees = adminController.getCancellationFees(hotelId);
-                System.out.printf("Hotel total cancellation fees are %.2f$.%n", currHotelCancellationFees);
+                long currHotelCancellationFees = adminController.getCancellationFees(hotelId);
+                System.out.printf("Hotel total cancellation fees are %.2f$.%n", Money.toDecimal(currHotelCancellationFees));
             }
             case "Add Room" -> {
                 System.out.print("Enter room id: ");
@@ -282,7 +364,7 @@ public class Application {
                 System.out.print("Enter maximum occupancy count: ");
                 int maxOccupancy = Integer.parseInt(scanner.nextLine());
                 System.out.print("Enter price per night per person: ");
-                double pricePerNight = Double.parseDouble(scanner.nextLine());
+                long pricePerNight = Money.parse(scanner.nextLine());
 
                 if(adminController.addRoom(id, hotelId, type, amenitiesList, maxOccupancy, pricePerNight)) {
                     System.out.printf("Successfully added new room in hotel with id %d!%n", hotelId);
@@ -291,7 +373,7 @@ public class Application {
                 }
             }
             case "Remove Room" -> {
-                adminController.showAllHotelRooms(hotelId);
+                printHotelRooms(hotelId);
                 System.out.print("Enter room id: ");
                 int roomId = Integer.parseInt(scanner.nextLine());
 
@@ -302,7 +384,7 @@ public class Application {
                 }
             }
             case "Update Room Data" -> {
-                adminController.showAllHotelRooms(hotelId);
+                printHotelRooms(hotelId);
                 System.out.print("Enter room id: ");
                 int roomId = Integer.parseInt(scanner.nextLine());
 
@@ -316,7 +398,7 @@ public class Application {
                 System.out.print("Enter maximum occupancy count: ");
                 int maxOccupancy = Integer.parseInt(scanner.nextLine());
                 System.out.print("Enter price per night per person: ");
-                double pricePerNight = Double.parseDouble(scanner.nextLine());
+                long pricePerNight = Money.parse(scanner.nextLine());
 
                 if(adminController.updateRoom(roomId, hotelId, type, amenitiesList, maxOccupancy, pricePerNight)) {
                     System.out.printf("Successfully updated room with id %d!%n", roomId);
@@ -328,11 +410,33 @@ public class Application {
         }
     }
 
+    /*
+    Serves the HTTP API until the process is stopped.
+    param port The port to listen on.
+    */
+    private static void serve(int port) {
+        try {
+            ApiServer server = new ApiServer(port);
+            server.start();
+            System.out.printf("Hotel Reservation System API is listening on port %d%n", server.getPort());
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot listen on port %d!%n", port);
+        }
+    }
+
     /*
     Main method that runs the hotel reservation application.
-    param args Command-line arguments (not used).
+    param args Command-line arguments: "--server [port]" serves the HTTP API instead of the console.
     */
     public static void main(String[] args) {
+        Transactions.journal(); // Recovers the bookings which were committed but not written before a crash
+        LogCompactor compactor = new LogCompactor(Repositories.all(), compactionThresholdBytes, System.err::println);
+        compactor.start(compactionPeriodMinutes, TimeUnit.MINUTES);
+        if (args.length > 0 && args[0].equals(serverModeFlag)) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : ApiServer.defaultPort);
+            return;
+        }
         Hotel hotel = initHotel();
         System.out.println("Welcome to Hotel Reservation System!");
         System.out.println("If you are registered, please enter \"Login\"," +
@@ -361,7 +465,8 @@ public class Application {
                     User loggedIn = new User();
                     boolean isLoggedIn = userController.login(userCredentials, loggedIn);
                     if (isLoggedIn) {
-                        userController.loadProfile(loggedIn);
+                        System.out.printf("%s | %s%n", loggedIn.getUsername(), loggedIn.getEmail());
+                        printUserBookings(userController.loadProfile(loggedIn));
                         System.out.printf("Welcome, %s!%n", loggedIn.getUsername());
                         initMenu();
                         String option;
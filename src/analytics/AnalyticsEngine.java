@@ -0,0 +1,318 @@
+package analytics;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+import models.Room;
+import types.RoomType;
+import utils.IntLongMap;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * The AnalyticsEngine class answers the occupancy rate, average daily rate and RevPAR of hotels over any
+ * period and set of room types. The booked rooms of the active reservations are kept in primitive columns
+ * (see ReservationColumns) and every query scans them in parallel on a fork/join pool, each task summing
+ * the sold room-nights and the revenue of its range of rows. The available room-nights are the hotel's
+ * current rooms of the requested types times the nights of the period.
+ * <p>
+ * The engine is maintained from the saved and deleted rooms and reservations, so the queries never read
+ * the reservation objects nor their files.
+ */
+public class AnalyticsEngine {
+    private static final int minRowsPerTask = 1 << 14;
+
+    private final ForkJoinPool pool; // Runs the scans
+    private final IntFunction<Room> roomsById; // Finds the booked rooms
+    private final ReservationColumns columns = new ReservationColumns();
+    private final Map<Integer, RoomSlot> indexedRooms = new HashMap<>(); // Hotel and type by room ID
+    private final Map<Integer, int[]> roomCountsByHotel = new HashMap<>(); // Rooms per type ordinal by hotel ID
+
+    /**
+     * The hotel and the type of an indexed room.
+     */
+    private static final class RoomSlot {
+        private final int hotelId;
+        private final RoomType type;
+
+        private RoomSlot(int hotelId, RoomType type) {
+            this.hotelId = hotelId;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Listener maintaining the hotels' rooms.
+     */
+    private final IRepositoryListener<Room> roomsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Room room) {
+            if (room.getHotelId() == null) {
+                removeRoom(room.getId());
+            } else {
+                addRoom(room.getId(), room.getHotelId(), room.getType());
+            }
+        }
+
+        @Override
+        public void deleted(Room room) {
+            removeRoom(room.getId());
+        }
+    };
+
+    /**
+     * Listener maintaining the booked rooms' rows.
+     */
+    private final IRepositoryListener<Reservation> reservationsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Reservation reservation) {
+            if (reservation.isCancelled()) {
+                columns.remove(reservation.getId());
+                return;
+            }
+            IntLongMap bookedRooms = reservation.getRoomsIds();
+            int[] hotelIds = new int[bookedRooms.size()];
+            byte[] types = new byte[bookedRooms.size()];
+            long[] nightlyRates = new long[bookedRooms.size()];
+            int count = 0;
+            for (int i = 0; i < bookedRooms.size(); i++) {
+                Room room = roomsById.apply(bookedRooms.keyAt(i));
+                if (room != null && room.getHotelId() != null) {
+                    hotelIds[count] = room.getHotelId();
+                    types[count] = (byte) typeOf(room.getType()).ordinal();
+                    nightlyRates[count] = bookedRooms.valueAt(i);
+                    count++;
+                }
+            }
+            columns.replace(reservation.getId(), Arrays.copyOf(hotelIds, count),
+                    Arrays.copyOf(types, count), (int) reservation.getFromDate().toLocalDate().toEpochDay(),
+                    (int) reservation.getToDate().toLocalDate().toEpochDay(), Arrays.copyOf(nightlyRates, count));
+        }
+
+        @Override
+        public void deleted(Reservation reservation) {
+            columns.remove(reservation.getId());
+        }
+    };
+
+    /**
+     * Sums of a range of rows: the sold room-nights and the revenue per hotel slot.
+     */
+    private static final class Partial {
+        private final long[] soldRoomNights;
+        private final long[] revenues; // In cents
+
+        private Partial(int slots) {
+            this.soldRoomNights = new long[slots];
+            this.revenues = new long[slots];
+        }
+
+        private Partial add(Partial other) {
+            for (int i = 0; i < this.soldRoomNights.length; i++) {
+                this.soldRoomNights[i] += other.soldRoomNights[i];
+                this.revenues[i] += other.revenues[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Scans a range of rows, splitting it in halves while it is larger than the task size.
+     */
+    private static final class ScanTask extends RecursiveTask<Partial> {
+        private final ReservationColumns.Snapshot snapshot;
+        private final int start;
+        private final int end;
+        private final int rowsPerTask;
+        private final int hotelId; // The only hotel summed into slot 0, or -1 for all hotels by ID
+        private final int typeMask; // Bit of every requested room type ordinal
+        private final int fromDay;
+        private final int toDay;
+
+        private ScanTask(ReservationColumns.Snapshot snapshot, int start, int end, int rowsPerTask, int hotelId,
+                         int typeMask, int fromDay, int toDay) {
+            this.snapshot = snapshot;
+            this.start = start;
+            this.end = end;
+            this.rowsPerTask = rowsPerTask;
+            this.hotelId = hotelId;
+            this.typeMask = typeMask;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (this.end - this.start > this.rowsPerTask) {
+                int middle = (this.start + this.end) >>> 1;
+                ScanTask left = new ScanTask(this.snapshot, this.start, middle, this.rowsPerTask, this.hotelId,
+                        this.typeMask, this.fromDay, this.toDay);
+                ScanTask right = new ScanTask(this.snapshot, middle, this.end, this.rowsPerTask, this.hotelId,
+                        this.typeMask, this.fromDay, this.toDay);
+                left.fork();
+                Partial partial = right.compute();
+                return partial.add(left.join());
+            }
+
+            Partial partial = new Partial(this.hotelId < 0 ? this.snapshot.maxHotelId + 1 : 1);
+            int[] hotelIds = this.snapshot.hotelIds, fromDays = this.snapshot.fromDays, toDays = this.snapshot.toDays;
+            byte[] types = this.snapshot.types, alive = this.snapshot.alive;
+            long[] nightlyRates = this.snapshot.nightlyRates;
+            for (int row = this.start; row < this.end; row++) {
+                int hotel = hotelIds[row];
+                if (alive[row] == 0 || (this.hotelId >= 0 && hotel != this.hotelId)
+                        || (this.typeMask & (1 << types[row])) == 0) {
+                    continue;
+                }
+                int nights = Math.min(toDays[row], this.toDay) - Math.max(fromDays[row], this.fromDay);
+                if (0 < nights && 0 <= hotel) {
+                    int slot = this.hotelId < 0 ? hotel : 0;
+                    partial.soldRoomNights[slot] += nights;
+                    partial.revenues[slot] += nights * nightlyRates[row];
+                }
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Constructor that creates an empty engine.
+     *
+     * @param pool      The pool running the scans, e.g. ForkJoinPool.commonPool().
+     * @param roomsById Finds a booked room by its ID, null if it does not exist.
+     */
+    public AnalyticsEngine(ForkJoinPool pool, IntFunction<Room> roomsById) {
+        this.pool = pool;
+        this.roomsById = roomsById;
+    }
+
+    public IRepositoryListener<Room> getRoomsListener() {
+        return roomsListener;
+    }
+
+    public IRepositoryListener<Reservation> getReservationsListener() {
+        return reservationsListener;
+    }
+
+    public ReservationColumns getColumns() {
+        return columns;
+    }
+
+    private static RoomType typeOf(RoomType type) {
+        return type == null ? RoomType.UNKNOWN : type;
+    }
+
+    private static int maskOf(EnumSet<RoomType> types) {
+        int mask = 0;
+        for (RoomType type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Adds a room to the available rooms of its hotel, or moves it if it is already added.
+     *
+     * @param roomId  the ID of the room
+     * @param hotelId the ID of the room's hotel
+     * @param type    the type of the room
+     */
+    public synchronized void addRoom(int roomId, int hotelId, RoomType type) {
+        this.removeRoom(roomId);
+        RoomSlot slot = new RoomSlot(hotelId, typeOf(type));
+        this.indexedRooms.put(roomId, slot);
+        this.roomCountsByHotel.computeIfAbsent(hotelId, id -> new int[RoomType.values().length])[slot.type.ordinal()]++;
+    }
+
+    /**
+     * Removes a room from the available rooms of its hotel.
+     *
+     * @param roomId the ID of the room
+     */
+    public synchronized void removeRoom(int roomId) {
+        RoomSlot slot = this.indexedRooms.remove(roomId);
+        if (slot != null) {
+            this.roomCountsByHotel.get(slot.hotelId)[slot.type.ordinal()]--;
+        }
+    }
+
+    private synchronized long availableRoomNights(int hotelId, int typeMask, long nights) {
+        int[] roomCounts = this.roomCountsByHotel.get(hotelId);
+        long rooms = 0;
+        if (roomCounts != null) {
+            for (int type = 0; type < roomCounts.length; type++) {
+                if ((typeMask & (1 << type)) != 0) {
+                    rooms += roomCounts[type];
+                }
+            }
+        }
+        return rooms * nights;
+    }
+
+    private Partial scan(int hotelId, int typeMask, LocalDate from, LocalDate to) {
+        ReservationColumns.Snapshot snapshot = this.columns.snapshot();
+        // A few tasks per worker balance the load without allocating sums for many small tasks
+        int rowsPerTask = Math.max(minRowsPerTask, snapshot.size / (this.pool.getParallelism() * 4) + 1);
+        return this.pool.invoke(new ScanTask(snapshot, 0, snapshot.size, rowsPerTask, hotelId, typeMask,
+                (int) from.toEpochDay(), (int) to.toEpochDay()));
+    }
+
+    /**
+     * Measures a hotel's rooms of the given types for the nights in [from, to).
+     *
+     * @param hotelId the ID of the hotel
+     * @param from    the first night
+     * @param to      the day after the last night
+     * @param types   the room types to include
+     * @return the hotel's metrics
+     */
+    public RevenueMetrics metricsOf(int hotelId, LocalDate from, LocalDate to, EnumSet<RoomType> types) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("The start date must be before the end date!");
+        }
+        int typeMask = maskOf(types);
+        Partial partial = this.scan(hotelId, typeMask, from, to);
+        return new RevenueMetrics(hotelId, from, to,
+                this.availableRoomNights(hotelId, typeMask, to.toEpochDay() - from.toEpochDay()),
+                partial.soldRoomNights[0], partial.revenues[0]);
+    }
+
+    /**
+     * Measures every hotel's rooms of the given types for the nights in [from, to) in a single scan.
+     *
+     * @param from  the first night
+     * @param to    the day after the last night
+     * @param types the room types to include
+     * @return the metrics of every hotel with rooms or bookings, by hotel ID
+     */
+    public TreeMap<Integer, RevenueMetrics> metricsByHotel(LocalDate from, LocalDate to, EnumSet<RoomType> types) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("The start date must be before the end date!");
+        }
+        int typeMask = maskOf(types);
+        long nights = to.toEpochDay() - from.toEpochDay();
+        Partial partial = this.scan(-1, typeMask, from, to);
+
+        TreeMap<Integer, RevenueMetrics> metrics = new TreeMap<>();
+        for (int hotelId = 0; hotelId < partial.soldRoomNights.length; hotelId++) {
+            if (partial.soldRoomNights[hotelId] != 0) {
+                metrics.put(hotelId, new RevenueMetrics(hotelId, from, to, this.availableRoomNights(hotelId, typeMask, nights),
+                        partial.soldRoomNights[hotelId], partial.revenues[hotelId]));
+            }
+        }
+        synchronized (this) {
+            for (Integer hotelId : this.roomCountsByHotel.keySet()) {
+                metrics.computeIfAbsent(hotelId, id -> new RevenueMetrics(id, from, to,
+                        this.availableRoomNights(id, typeMask, nights), 0, 0));
+            }
+        }
+        return metrics;
+    }
+}
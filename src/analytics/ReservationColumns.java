@@ -0,0 +1,169 @@
+package analytics;
+
+import java.util.Arrays;
+
+/**
+ * The ReservationColumns class stores every booked room of the active reservations as a row of primitive
+ * columns: reservation, hotel, room type, first and last night (as epoch days) and nightly rate. Scans over
+ * the columns touch only the few arrays they need, sequentially and without objects, so a query over
+ * millions of reservations costs a few passes over memory instead of walking the reservation objects.
+ * <p>
+ * The rows of a reservation are appended together; a changed or cancelled reservation marks its rows
+ * dead and appends new ones. Readers scan a snapshot of the columns taken under the lock, appends and
+ * growth never change the rows of an existing snapshot.
+ */
+public class ReservationColumns {
+    private static final int initialCapacity = 1024;
+
+    private int size; // Count of rows, dead ones included
+    private int deadCount; // Count of dead rows
+    private int maxHotelId = -1; // Greatest hotel ID of any row
+    private int[] reservationIds = new int[initialCapacity];
+    private int[] hotelIds = new int[initialCapacity];
+    private byte[] types = new byte[initialCapacity]; // Room type ordinals
+    private int[] fromDays = new int[initialCapacity]; // Epoch day of the first night
+    private int[] toDays = new int[initialCapacity]; // Epoch day after the last night
+    private long[] nightlyRates = new long[initialCapacity]; // Nightly rates in cents
+    private byte[] alive = new byte[initialCapacity]; // 1 if the row is alive, 0 if it is dead
+    private int[] firstRowsByReservation = new int[initialCapacity]; // First row + 1 by reservation ID, 0 if none
+
+    /**
+     * A consistent view of the first rows of the columns.
+     */
+    public static final class Snapshot {
+        final int size;
+        final int[] hotelIds;
+        final byte[] types;
+        final int[] fromDays;
+        final int[] toDays;
+        final long[] nightlyRates;
+        final byte[] alive;
+        final int maxHotelId;
+
+        private Snapshot(int size, int maxHotelId, int[] hotelIds, byte[] types, int[] fromDays, int[] toDays,
+                         long[] nightlyRates, byte[] alive) {
+            this.size = size;
+            this.hotelIds = hotelIds;
+            this.types = types;
+            this.fromDays = fromDays;
+            this.toDays = toDays;
+            this.nightlyRates = nightlyRates;
+            this.alive = alive;
+            this.maxHotelId = maxHotelId;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= this.reservationIds.length) {
+            return;
+        }
+        int capacity = Math.max(rows, this.reservationIds.length * 2);
+        this.reservationIds = Arrays.copyOf(this.reservationIds, capacity);
+        this.hotelIds = Arrays.copyOf(this.hotelIds, capacity);
+        this.types = Arrays.copyOf(this.types, capacity);
+        this.fromDays = Arrays.copyOf(this.fromDays, capacity);
+        this.toDays = Arrays.copyOf(this.toDays, capacity);
+        this.nightlyRates = Arrays.copyOf(this.nightlyRates, capacity);
+        this.alive = Arrays.copyOf(this.alive, capacity);
+    }
+
+    private int firstRowOf(int reservationId) {
+        return reservationId < this.firstRowsByReservation.length ? this.firstRowsByReservation[reservationId] - 1 : -1;
+    }
+
+    private boolean rowsMatch(int firstRow, int reservationId, int[] hotelIds, byte[] types, int fromDay, int toDay,
+                              long[] nightlyRates) {
+        for (int i = 0; i < hotelIds.length; i++) {
+            int row = firstRow + i;
+            if (row >= this.size || this.reservationIds[row] != reservationId || this.alive[row] == 0
+                    || this.hotelIds[row] != hotelIds[i] || this.types[row] != types[i]
+                    || this.fromDays[row] != fromDay || this.toDays[row] != toDay
+                    || this.nightlyRates[row] != nightlyRates[i]) {
+                return false;
+            }
+        }
+        int next = firstRow + hotelIds.length;
+        return next >= this.size || this.reservationIds[next] != reservationId;
+    }
+
+    /**
+     * Replaces the rows of a reservation, one row per booked room. Rows equal to the existing ones are kept.
+     *
+     * @param reservationId the ID of the reservation
+     * @param hotelIds      the hotel of every booked room
+     * @param types         the room type ordinal of every booked room
+     * @param fromDay       the epoch day of the first night
+     * @param toDay         the epoch day after the last night
+     * @param nightlyRates  the nightly rate of every booked room in cents
+     */
+    public synchronized void replace(int reservationId, int[] hotelIds, byte[] types, int fromDay, int toDay,
+                                     long[] nightlyRates) {
+        int firstRow = this.firstRowOf(reservationId);
+        if (firstRow >= 0 && this.rowsMatch(firstRow, reservationId, hotelIds, types, fromDay, toDay, nightlyRates)) {
+            return;
+        }
+        this.remove(reservationId);
+        if (hotelIds.length == 0) {
+            return;
+        }
+
+        this.ensureCapacity(this.size + hotelIds.length);
+        if (reservationId >= this.firstRowsByReservation.length) {
+            this.firstRowsByReservation = Arrays.copyOf(this.firstRowsByReservation,
+                    Math.max(reservationId + 1, this.firstRowsByReservation.length * 2));
+        }
+        this.firstRowsByReservation[reservationId] = this.size + 1;
+        for (int i = 0; i < hotelIds.length; i++) {
+            int row = this.size++;
+            this.reservationIds[row] = reservationId;
+            this.hotelIds[row] = hotelIds[i];
+            this.types[row] = types[i];
+            this.fromDays[row] = fromDay;
+            this.toDays[row] = toDay;
+            this.nightlyRates[row] = nightlyRates[i];
+            this.alive[row] = 1;
+            this.maxHotelId = Math.max(this.maxHotelId, hotelIds[i]);
+        }
+    }
+
+    /**
+     * Marks the rows of a reservation dead, e.g. after it is cancelled or deleted.
+     *
+     * @param reservationId the ID of the reservation
+     */
+    public synchronized void remove(int reservationId) {
+        int firstRow = this.firstRowOf(reservationId);
+        if (firstRow < 0) {
+            return;
+        }
+        for (int row = firstRow; row < this.size && this.reservationIds[row] == reservationId; row++) {
+            if (this.alive[row] == 1) {
+                this.alive[row] = 0;
+                this.deadCount++;
+            }
+        }
+        this.firstRowsByReservation[reservationId] = 0;
+    }
+
+    /**
+     * Takes a snapshot of the columns for a scan.
+     *
+     * @return the snapshot
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(this.size, this.maxHotelId, this.hotelIds, this.types, this.fromDays, this.toDays, this.nightlyRates,
+                this.alive);
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized int getDeadCount() {
+        return deadCount;
+    }
+}
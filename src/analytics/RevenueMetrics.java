@@ -0,0 +1,98 @@
+package analytics;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import utils.Money;
+
+import java.time.LocalDate;
+
+/**
+ * The RevenueMetrics class holds the room-nights and the room revenue of a hotel in a period, and derives
+ * the occupancy rate, the average daily rate (ADR) and the revenue per available room (RevPAR) from them.
+ */
+public class RevenueMetrics {
+    private final int hotelId; // ID of the hotel
+    private final LocalDate from; // First night of the period
+    private final LocalDate to; // Day after the last night of the period
+    private final long availableRoomNights; // Rooms of the hotel times the nights of the period
+    private final long soldRoomNights; // Nights of the period booked by active reservations
+    private final long revenue; // Nightly rates of the sold room-nights in cents
+
+    /**
+     * Constructor that initializes the metrics with the measured values.
+     *
+     * @param hotelId             The ID of the hotel.
+     * @param from                The first night of the period.
+     * @param to                  The day after the last night of the period.
+     * @param availableRoomNights The rooms of the hotel times the nights of the period.
+     * @param soldRoomNights      The nights of the period booked by active reservations.
+     * @param revenue             The nightly rates of the sold room-nights in cents.
+     */
+    public RevenueMetrics(int hotelId, LocalDate from, LocalDate to, long availableRoomNights, long soldRoomNights,
+                          long revenue) {
+        this.hotelId = hotelId;
+        this.from = from;
+        this.to = to;
+        this.availableRoomNights = availableRoomNights;
+        this.soldRoomNights = soldRoomNights;
+        this.revenue = revenue;
+    }
+
+    public int getHotelId() {
+        return hotelId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public long getAvailableRoomNights() {
+        return availableRoomNights;
+    }
+
+    public long getSoldRoomNights() {
+        return soldRoomNights;
+    }
+
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Gets the share of the available room-nights which are sold.
+     *
+     * @return The occupancy rate between 0 and 1, 0 if no room is available.
+     */
+    public double getOccupancyRate() {
+        return this.availableRoomNights == 0 ? 0.0 : (double) this.soldRoomNights / this.availableRoomNights;
+    }
+
+    /**
+     * Gets the average daily rate, i.e. the revenue per sold room-night.
+     *
+     * @return The ADR, 0 if no room-night is sold.
+     */
+    public double getAverageDailyRate() {
+        return this.soldRoomNights == 0 ? 0.0 : Money.toDouble(this.revenue) / this.soldRoomNights;
+    }
+
+    /**
+     * Gets the revenue per available room-night, i.e. the occupancy rate times the ADR.
+     *
+     * @return The RevPAR, 0 if no room is available.
+     */
+    public double getRevenuePerAvailableRoom() {
+        return this.availableRoomNights == 0 ? 0.0 : Money.toDouble(this.revenue) / this.availableRoomNights;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hotel %d, %s - %s: occupancy %.1f%% | ADR %.2f | RevPAR %.2f | %d/%d room-nights | %s revenue",
+                this.hotelId, this.from, this.to, this.getOccupancyRate() * 100, this.getAverageDailyRate(),
+                this.getRevenuePerAvailableRoom(), this.soldRoomNights, this.availableRoomNights, Money.format(this.revenue));
+    }
+}
@@ -0,0 +1,286 @@
+package booking;
+
+import controllers.TransactionController;
+import indexes.Indexes;
+import indexes.RoomAvailabilityIndex;
+import models.*;
+import payments.DebitCardLedger;
+import payments.Payments;
+import repositories.Repositories;
+import transactions.Transaction;
+import transactions.Transactions;
+import types.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The BookingEngine class books and cancels reservations concurrently. Operations on the same room are
+ * serialized by a lock striped by room ID, so a room can never be booked twice for overlapping periods,
+ * while operations on rooms of different stripes run fully in parallel.
+ * <p>
+ * The rooms, hotels and debit cards are changed under their monitors, as other rooms' bookings and the
+ * administration change them too; a reservation is changed only under the stripes of its rooms and a
+ * user's reservations under the lock the caller serializes the user's bookings with. The stripes and
+ * the user's lock are held until the transaction is committed.
+ */
+public class BookingEngine {
+    public static final int defaultStripesCount = 64;
+
+    private final ReentrantLock[] stripes; // Locks striped by room ID
+
+    /**
+     * Constructor that creates an engine with the default count of lock stripes.
+     */
+    public BookingEngine() {
+        this(defaultStripesCount);
+    }
+
+    /**
+     * Constructor that creates an engine with the given count of lock stripes.
+     *
+     * @param stripesCount The count of lock stripes.
+     */
+    public BookingEngine(int stripesCount) {
+        this.stripes = new ReentrantLock[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private int stripeOf(int roomId) {
+        int hash = roomId * 0x9E3779B9; // spreads consecutive IDs over the stripes
+        return Math.floorMod(hash ^ (hash >>> 16), this.stripes.length);
+    }
+
+    /**
+     * Locks the stripes of the given rooms in ascending order, so two operations never deadlock.
+     *
+     * @param roomIds The IDs of the rooms.
+     * @return The locked stripes to be unlocked after the operation.
+     */
+    private ArrayList<ReentrantLock> lockRooms(int... roomIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (int roomId : roomIds) {
+            stripeIndexes.add(this.stripeOf(roomId));
+        }
+        ArrayList<ReentrantLock> locked = new ArrayList<>();
+        for (Integer index : stripeIndexes) {
+            this.stripes[index].lock();
+            locked.add(this.stripes[index]);
+        }
+        return locked;
+    }
+
+    private static void unlock(ArrayList<ReentrantLock> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).unlock();
+        }
+    }
+
+    /**
+     * Books a room for the period [fromDate, toDate) and charges the user's debit card.
+     *
+     * @param roomId           the ID of the room to be booked
+     * @param currentHotel     the hotel where the room is being booked
+     * @param fromDate         the start date of the booking
+     * @param toDate           the end date of the booking
+     * @param bookedBy         the user who is booking the room
+     * @param cancellationFees the cancellation fees applicable in cents
+     * @return the outcome of the booking and the new reservation if the room was booked
+     */
+    public BookingResult book(int roomId, Hotel currentHotel, LocalDateTime fromDate, LocalDateTime toDate,
+                              User bookedBy, long cancellationFees) {
+        Room room = Repositories.rooms().findById(roomId);
+        if (room == null || !currentHotel.getAllRoomsIds().contains(roomId)) {
+            return new BookingResult(BookingStatus.NOT_FOUND);
+        }
+
+        RoomAvailabilityIndex availability = Indexes.availability();
+        ArrayList<ReentrantLock> locked = this.lockRooms(roomId);
+        try {
+            if (!availability.isFree(roomId, fromDate, toDate)) {
+                return new BookingResult(BookingStatus.UNAVAILABLE);
+            }
+
+            Reservation reservation = new Reservation(fromDate, toDate, cancellationFees, false);
+            reservation.getRoomsIds().put(room.getId(), room.getTotalPrice());
+            reservation.setTotalPrice(reservation.calculateTotalPrice(Reservation.nightsBetween(fromDate, toDate)));
+            reservation.setBookedById(bookedBy.getId());
+            if (bookedBy.getDebitCard().getValue() < reservation.getTotalPrice()) {
+                return new BookingResult(BookingStatus.INSUFFICIENT_FUNDS, reservation);
+            }
+
+            // Hold the period, so it cannot be taken while the payment is processed
+            if (!availability.occupy(roomId, fromDate, toDate, reservation.getId())) {
+                return new BookingResult(BookingStatus.UNAVAILABLE);
+            }
+            Transaction transaction = null;
+            try {
+                TransactionController tc = new TransactionController(currentHotel);
+                int debitCardId = bookedBy.getDebitCard().getKey();
+                long totalPrice = reservation.getTotalPrice();
+                transaction = Transactions.journal().begin(); // before the payment, which it must be able to revert
+                if (!tc.makeTransaction(debitCardId, totalPrice)) {
+                    availability.release(roomId, fromDate, reservation.getId());
+                    return new BookingResult(paymentFailureOf(debitCardId, totalPrice), reservation);
+                }
+                transaction.onRollback(() -> {
+                    tc.revertTransaction(debitCardId, totalPrice);
+                    availability.release(roomId, fromDate, reservation.getId());
+                });
+
+                boolean wasBooked;
+                synchronized (room) {
+                    wasBooked = room.isBooked();
+                }
+                boolean isNewBookedRoom;
+                synchronized (currentHotel) {
+                    isNewBookedRoom = currentHotel.getBookedRoomsIds().add(roomId);
+                }
+                transaction.onRollback(() -> {
+                    synchronized (room) {
+                        room.setBooked(wasBooked);
+                        room.getInReservationsIds().remove(reservation.getId());
+                    }
+                    if (isNewBookedRoom) {
+                        synchronized (currentHotel) {
+                            currentHotel.getBookedRoomsIds().remove(roomId);
+                        }
+                    }
+                    bookedBy.getReservations().remove(reservation.getId());
+                });
+                synchronized (room) {
+                    room.setBooked(true);
+                    room.getInReservationsIds().add(reservation.getId());
+                }
+                bookedBy.getReservations().put(reservation.getId(), totalPrice);
+                if (!this.persist(transaction, List.of(room), reservation, currentHotel, bookedBy)) {
+                    return new BookingResult(BookingStatus.NOT_SAVED, reservation);
+                }
+                return new BookingResult(BookingStatus.BOOKED, reservation);
+            } catch (RuntimeException | Error ex) {
+                // A failed step must not leave the period held or the card charged
+                if (transaction != null && !transaction.isFinished()) {
+                    transaction.rollback();
+                }
+                availability.release(roomId, fromDate, reservation.getId());
+                throw ex;
+            }
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Cancels a reservation of the user and charges the fixed cancellation fee.
+     *
+     * @param reservationId   the ID of the reservation to be canceled
+     * @param currentUser     the user who made the reservation
+     * @param currentHotel    the hotel where the reservation was made
+     * @param cancellationFee the fee charged for the cancellation in cents
+     * @return the outcome of the cancellation and the cancelled reservation if it was cancelled
+     */
+    public BookingResult cancel(int reservationId, User currentUser, Hotel currentHotel, long cancellationFee) {
+        Reservation reservation = Repositories.reservations().findById(reservationId);
+        if (reservation == null || reservation.getBookedById() != currentUser.getId()) {
+            return new BookingResult(BookingStatus.NOT_FOUND);
+        }
+
+        ArrayList<ReentrantLock> locked = this.lockRooms(reservation.getRoomsIds().keys());
+        try {
+            if (reservation.isCancelled()) {
+                return new BookingResult(BookingStatus.NOT_FOUND, reservation);
+            }
+            if (currentUser.getDebitCard().getValue() < cancellationFee) {
+                return new BookingResult(BookingStatus.INSUFFICIENT_FUNDS, reservation);
+            }
+            Transaction transaction = null;
+            try {
+                TransactionController tc = new TransactionController(currentHotel);
+                int debitCardId = currentUser.getDebitCard().getKey();
+                transaction = Transactions.journal().begin(); // before the payment, which it must be able to revert
+                if (!tc.makeTransaction(debitCardId, cancellationFee)) {
+                    return new BookingResult(paymentFailureOf(debitCardId, cancellationFee), reservation);
+                }
+                transaction.onRollback(() -> tc.revertTransaction(debitCardId, cancellationFee));
+
+                transaction.onRollback(() -> reservation.setCancelled(false));
+                reservation.setCancelled(true);
+                RoomAvailabilityIndex availability = Indexes.availability();
+                ArrayList<Room> rooms = new ArrayList<>();
+                for (int roomId : reservation.getRoomsIds().keys()) {
+                    Room room = Repositories.rooms().findById(roomId);
+                    if (room != null) {
+                        // The room stays booked while its other reservations hold it, the stripe keeps them as they are
+                        boolean isBooked = availability.isOccupiedByOthers(roomId, reservationId);
+                        boolean wasBooked;
+                        synchronized (room) {
+                            wasBooked = room.isBooked();
+                            room.setBooked(isBooked);
+                        }
+                        rooms.add(room);
+                        transaction.onRollback(() -> {
+                            synchronized (room) {
+                                room.setBooked(wasBooked);
+                            }
+                        });
+                    }
+                }
+                if (!this.persist(transaction, rooms, reservation, currentHotel, currentUser)) {
+                    return new BookingResult(BookingStatus.NOT_SAVED, reservation);
+                }
+                return new BookingResult(BookingStatus.CANCELLED, reservation);
+            } catch (RuntimeException | Error ex) {
+                // A failed step must not leave the fee charged or the reservation cancelled
+                if (transaction != null && !transaction.isFinished()) {
+                    transaction.rollback();
+                }
+                throw ex;
+            }
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    // A payment fails for insufficient funds if a concurrent payment took the balance after the check
+    private static BookingStatus paymentFailureOf(int debitCardId, long amount) {
+        DebitCardLedger ledger = Payments.ledger();
+        return ledger.hasCard(debitCardId) && ledger.balanceOf(debitCardId) < amount
+                ? BookingStatus.INSUFFICIENT_FUNDS : BookingStatus.PAYMENT_FAILED;
+    }
+
+    /**
+     * Writes the changed rooms, hotel, reservation, debit card and user through to their repositories as
+     * one transaction. The user's debit card entry is refreshed from the charged card and the hotel's
+     * incomes from the debit card ledger.
+     *
+     * @return true if the transaction is committed, false if it was rolled back.
+     */
+    private boolean persist(Transaction transaction, List<Room> rooms, Reservation reservation, Hotel currentHotel,
+                            User currentUser) {
+        Map.Entry<Integer, Long> userCard = currentUser.getDebitCard();
+        DebitCard card = Repositories.debitCards().findById(userCard.getKey());
+        if (card != null) {
+            synchronized (card) {
+                currentUser.setDebitCard(Map.entry(card.getId(), card.getBalance()));
+            }
+            transaction.onRollback(() -> currentUser.setDebitCard(userCard));
+        }
+
+        Payments.ledger().copyIncomesTo(currentHotel); // The payment's revert copies them back on a rollback
+
+        transaction.saveAll(Room.class, rooms)
+                .save(Hotel.class, currentHotel)
+                .save(Reservation.class, reservation);
+        if (card != null) {
+            transaction.save(DebitCard.class, card);
+        }
+        transaction.save(User.class, currentUser);
+        return transaction.commit();
+    }
+}
@@ -0,0 +1,49 @@
+package booking;
+
+import models.Reservation;
+import types.BookingStatus;
+
+/**
+ * The BookingResult class holds the outcome of a booking or a cancellation and the affected reservation.
+ */
+public class BookingResult {
+    private final BookingStatus status; // Outcome of the operation
+    private final Reservation reservation; // Affected reservation, null if there is none
+
+    /**
+     * Constructor that initializes a result with a status and the affected reservation.
+     *
+     * @param status      Outcome of the operation.
+     * @param reservation Affected reservation, null if there is none.
+     */
+    public BookingResult(BookingStatus status, Reservation reservation) {
+        this.status = status;
+        this.reservation = reservation;
+    }
+
+    /**
+     * Constructor that initializes a result without a reservation.
+     *
+     * @param status Outcome of the operation.
+     */
+    public BookingResult(BookingStatus status) {
+        this(status, null);
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Checks if the operation was successful.
+     *
+     * @return true if the room was booked or the reservation was cancelled, false otherwise.
+     */
+    public boolean isSuccessful() {
+        return this.status == BookingStatus.BOOKED || this.status == BookingStatus.CANCELLED;
+    }
+}
@@ -1,278 +1,224 @@
 package controllers;
 
+import analytics.RevenueMetrics;
+import indexes.AggregateCounters;
+import indexes.BookingAggregates;
+import indexes.Indexes;
 import interfaces.IAdminManageable;
 import models.Hotel;
 import models.Reservation;
 import models.Room;
-import readersWriters.HotelReaderWriter;
-import readersWriters.ReservationReaderWriter;
-import readersWriters.RoomReaderWriter;
+import payments.Payments;
+import repositories.Repositories;
+import repositories.Repository;
 import types.RoomType;
+import utils.IntSet;
+import utils.Money;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The AdminController class implements the IAdminManageable interface and provides methods for managing hotels, reservations, and rooms.
- * This class handles reading and writing operations for hotels, reservations, and rooms from/to text files.
+ * Hotels, reservations, and rooms are read from and written through the in-memory repositories.
  */
 public class AdminController implements IAdminManageable {
-    private static final String hotelsFilename = "hotels.txt";
-    private static final String reservationsFilename = "reservations.txt";
-    private static final String roomsFilename = "rooms.txt";
-
-    private static ArrayList<Room> readAllRooms() {
-        File roomsFile = new File(AdminController.roomsFilename);
-        RoomReaderWriter roomRW = new RoomReaderWriter();
-        ArrayList<Room> readRooms = new ArrayList<>();
-        try (FileReader fr = new FileReader(roomsFile)) {
-            readRooms = roomRW.read(fr, roomsFile);
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from file with name %s!%n", roomsFile.getName());
-        }
-        return readRooms;
-    }
-
-    private static ArrayList<Reservation> readAllReservations() {
-        File reservationFile = new File(AdminController.reservationsFilename);
-        ReservationReaderWriter reservationRW = new ReservationReaderWriter();
-        ArrayList<Reservation> readReservations = new ArrayList<>();
-        try (FileReader fr = new FileReader(reservationFile)) {
-            readReservations = reservationRW.read(fr, reservationFile);
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from file with name %s!%n", reservationFile.getName());
-        }
-        return readReservations;
-    }
-
     /**
-     * Displays all hotels by reading from the hotels text file.
+     * Finds all hotels from the hotels repository.
+     *
+     * @return all hotels in the order of their IDs
      */
     @Override
-    public void showAllHotels() {
-        ArrayList<Hotel> readHotels = readAllHotels();
-
-        System.out.println("All Hotels Listed:");
-        System.out.println("------------------");
-        for (Hotel currHotel : readHotels) {
-            System.out.printf("ID: %d | Name: %s | Address: %s | All Rooms: %d | Booked Rooms: %d | Incomes: %.2f%n",
-                    currHotel.getId(), currHotel.getName(), currHotel.getAddress(), currHotel.getAllRoomsIds().size(),
-                    currHotel.getBookedRoomsIds().size(), currHotel.getIncomes());
-        }
+    public ArrayList<Hotel> showAllHotels() {
+        return Repositories.hotels().findAll();
     }
 
     /**
-     * Displays all bookings for a given hotel by reading from the reservations and rooms text files.
+     * Finds all bookings for a given hotel from the hotel's reservations index.
      *
      * @param hotelId the ID of the hotel
+     * @return the reservations of the hotel's rooms, once per booked room
      */
     @Override
-    public void viewAllBookings(int hotelId) {
-        ArrayList<Reservation> readReservations = readAllReservations();
-        ArrayList<Room> readRooms = readAllRooms();
-
-        for (Reservation currReservation : readReservations) {
-            for (Integer currReservationRoomId : currReservation.getRoomsIds().keySet()) {
-                for (Room currRoom : readRooms) {
-                    if (currRoom.getId() == currReservationRoomId && currRoom.getHotelId() == hotelId) {
-                        System.out.printf("ID: %d | From: %s | To: %s | Rooms: %d | Total Price: %.2f$ | Cancellation Fees: %.2f$ | Status: %s%n",
-                                currReservation.getId(), currReservation.getFromDate(), currReservation.getToDate(),
-                                currRoom.getInReservationsIds().size(), currReservation.getTotalPrice(), currReservation.getCancellationFees(),
-                                currReservation.isCancelled() ? "cancelled" : "active");
-                    }
+    public ArrayList<Reservation> viewAllBookings(int hotelId) {
+        ArrayList<Reservation> bookings = new ArrayList<>();
+        // The index holds only the hotel's reservations, with the count of the hotel's rooms they book
+        Repository<Reservation> reservations = Repositories.reservations();
+        for (Map.Entry<Integer, Integer> bookedRooms : Indexes.hotelReservations().reservationsOf(hotelId).entrySet()) {
+            Reservation currReservation = reservations.findById(bookedRooms.getKey());
+            if (currReservation != null) {
+                for (int i = 0; i < bookedRooms.getValue(); i++) {
+                    bookings.add(currReservation);
                 }
             }
         }
+        return bookings;
     }
 
     /**
-     * Retrieves the total income for a given hotel by reading from the hotels text file.
+     * Retrieves the total income for a given hotel from the debit card ledger.
      *
      * @param hotelId the ID of the hotel
-     * @return the total income of the hotel
+     * @return the total income of the hotel in cents
      * @throws RuntimeException if the hotel is not found
      */
     @Override
-    public double getTotalIncome(int hotelId) throws RuntimeException {
-        ArrayList<Hotel> readHotels = readAllHotels();
-
-        for (Hotel currentHotel : readHotels) {
-            if (currentHotel.getId() == hotelId) {
-                return currentHotel.getIncomes();
-            }
+    public long getTotalIncome(int hotelId) throws RuntimeException {
+        if (Repositories.hotels().findById(hotelId) == null) {
+            throw new RuntimeException("Hotel not found!");
         }
-
-        throw new RuntimeException("Hotel not found!");
+        return Payments.ledger().incomesOf(hotelId);
     }
 
-    private ArrayList<Hotel> readAllHotels() {
-        File file = new File(AdminController.hotelsFilename);
-        HotelReaderWriter hrw = new HotelReaderWriter();
-        ArrayList<Hotel> readHotels = new ArrayList<>();
-        try (FileReader fr = new FileReader(file)) {
-            readHotels = hrw.read(fr, file);
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from file with name %s!%n", AdminController.hotelsFilename);
-        }
+    /**
+     * Retrieves the total cancellation fees for a given hotel from the booking aggregates.
+     *
+     * @param hotelId the ID of the hotel
+     * @return the total cancellation fees for the hotel in cents
+     */
+    @Override
+    public long getCancellationFees(int hotelId) {
+        return Indexes.aggregates().totalOf(hotelId).getCancellationFees();
+    }
 
-        return readHotels;
+    /**
+     * Retrieves the bookings, revenue, cancellations and cancellation fees of a given hotel per room type
+     * for the arrivals in a period, from the booking aggregates.
+     *
+     * @param hotelId the ID of the hotel
+     * @param from    the first day of the period
+     * @param to      the day after the last day of the period
+     * @return the counters of every room type
+     */
+    @Override
+    public EnumMap<RoomType, AggregateCounters> getBookingStatistics(int hotelId, LocalDate from, LocalDate to) {
+        return Indexes.aggregates().periodOf(hotelId, from, to);
     }
 
     /**
-     * Retrieves the total cancellation fees for a given hotel by reading from the reservations and rooms text files.
+     * Retrieves the occupancy rate, average daily rate and RevPAR of a given hotel's rooms of the given
+     * types for the nights in a period, from the analytics engine.
      *
      * @param hotelId the ID of the hotel
-     * @return the total cancellation fees for the hotel
+     * @param from    the first night of the period
+     * @param to      the day after the last night of the period
+     * @param types   the room types to include
+     * @return the metrics of the hotel
      */
     @Override
-    public double getCancellationFees(int hotelId) {
-        ArrayList<Reservation> readReservations = readAllReservations();
-        ArrayList<Room> readRooms = readAllRooms();
+    public RevenueMetrics getRevenueMetrics(int hotelId, LocalDate from, LocalDate to, EnumSet<RoomType> types) {
+        return Indexes.analytics().metricsOf(hotelId, from, to, types);
+    }
 
-        int cancelledReservationsCount = 0;
-        for (Reservation currReservation : readReservations) {
-            for (Integer currReservationRoomId : currReservation.getRoomsIds().keySet()) {
-                for (Room currRoom : readRooms) {
-                    if (currRoom.getId() == currReservationRoomId && currRoom.getHotelId() == hotelId && currReservation.isCancelled()) {
-                        cancelledReservationsCount++;
-                    }
-                }
-            }
-        }
+    /**
+     * Retrieves the occupancy rate, average daily rate and RevPAR of every hotel's rooms of the given
+     * types for the nights in a period, from the analytics engine.
+     *
+     * @param from  the first night of the period
+     * @param to    the day after the last night of the period
+     * @param types the room types to include
+     * @return the metrics of every hotel in the order of their IDs
+     */
+    @Override
+    public ArrayList<RevenueMetrics> getRevenueMetrics(LocalDate from, LocalDate to, EnumSet<RoomType> types) {
+        return new ArrayList<>(Indexes.analytics().metricsByHotel(from, to, types).values());
+    }
 
-        return cancelledReservationsCount * HotelController.fixedCancellationFee;
+    /**
+     * Rebuilds the booking aggregates from the reservations repository and compares them with the
+     * maintained ones.
+     *
+     * @return the IDs of the hotels whose aggregates differ, empty if all match
+     */
+    @Override
+    public ArrayList<Integer> verifyBookingStatistics() {
+        BookingAggregates rebuilt = BookingAggregates.rebuild(Repositories.reservations().stream(),
+                HotelController.fixedCancellationFee, roomId -> Repositories.rooms().findById(roomId));
+        return Indexes.aggregates().mismatchedHotels(rebuilt);
     }
 
     /**
-     * Adds a new room to a given hotel by writing to the rooms text file.
+     * Adds a new room to a given hotel in the rooms repository.
      *
      * @param roomId           the ID of the room
      * @param hotelId          the ID of the hotel
      * @param type             the type of the room
      * @param amenities        the amenities provided in the room
      * @param maximumOccupancy the maximum occupancy of the room
-     * @param pricePerNight    the price per night for the room
+     * @param pricePerNight    the price per night for the room in cents
      * @return true if the room is successfully added
      */
     @Override
-    public boolean addRoom(int roomId, int hotelId, RoomType type, ArrayList<String> amenities, int maximumOccupancy, double pricePerNight) {
+    public boolean addRoom(int roomId, int hotelId, RoomType type, ArrayList<String> amenities, int maximumOccupancy, long pricePerNight) {
         HashMap<Boolean, ArrayList<LocalDateTime>> bookingAvailability = new HashMap<>();
-        Room room = new Room(roomId, hotelId, type, amenities, maximumOccupancy, false, bookingAvailability, pricePerNight, new ArrayList<>());
-        File roomsFile = new File(AdminController.roomsFilename);
-        RoomReaderWriter roomRW = new RoomReaderWriter();
-        roomRW.write(room, roomsFile.getName());
+        Room room = new Room(roomId, hotelId, type, amenities, maximumOccupancy, false, bookingAvailability, pricePerNight, new IntSet());
+        Repositories.rooms().save(room);
         return true;
     }
 
     /**
-     * Displays all rooms for a given hotel by reading from the rooms text file.
+     * Finds all rooms for a given hotel from the rooms repository.
      *
      * @param hotelId the ID of the hotel
+     * @return the rooms of the hotel in the order of their IDs
      */
     @Override
-    public void showAllHotelRooms(int hotelId) {
-        ArrayList<Room> readRooms = readAllRooms();
-
-        for (Room currRoom : readRooms) {
+    public ArrayList<Room> showAllHotelRooms(int hotelId) {
+        ArrayList<Room> rooms = new ArrayList<>();
+        Repositories.rooms().stream().forEach(currRoom -> {
             if (currRoom.getHotelId() == hotelId) {
-                System.out.printf("ID: %d | Hotel ID: %d | Type: %s | Amenities: %s | Max Occupancy: %d | Price Per Night (per person): %.2f$ | Total Price: %.2f$ | Status: %s%n",
-                        currRoom.getId(), currRoom.getHotelId(), currRoom.getType(), Arrays.toString(currRoom.getAmenities().toArray()),
-                        currRoom.getMaximumOccupancy(), currRoom.getPricePerNight(), currRoom.getTotalPrice(), currRoom.isBooked() ? "booked" : "free");
+                rooms.add(currRoom);
             }
-        }
+        });
+        return rooms;
     }
 
     /**
-     * Removes a room by its ID by modifying the rooms text file.
+     * Removes a room by its ID in the rooms repository.
      *
      * @param roomId the ID of the room
      * @return true if the room is found and removed, false otherwise
      */
     @Override
     public boolean removeRoom(int roomId) {
-        boolean found = false;
-        File roomsFile = new File(AdminController.roomsFilename);
-        RoomReaderWriter roomRW = new RoomReaderWriter();
-        ArrayList<Room> readRooms = new ArrayList<>();
-        try (FileReader fr = new FileReader(roomsFile)) {
-            readRooms = roomRW.read(fr, roomsFile);
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from file with name %s!%n", roomsFile.getName());
-        }
-
-        ArrayList<Room> toBeWritten = new ArrayList<>();
-        for (Room currRoom : readRooms) {
-            if (currRoom.getId() == roomId) {
-                found = true;
-                continue;
-            }
-            toBeWritten.add(currRoom);
-        }
-
-        if (found && roomsFile.delete()) {
-            roomsFile = new File(AdminController.roomsFilename);
-            for (Room currRoom : toBeWritten) {
-                roomRW.write(currRoom, roomsFile.getName());
-            }
-        }
-
-        return found;
+        return Repositories.rooms().delete(roomId);
     }
 
     /**
-     * Updates the details of a room by its ID by modifying the rooms text file.
+     * Updates the details of a room by its ID in the rooms repository.
      *
      * @param roomId           the ID of the room
      * @param hotelId          the ID of the hotel
      * @param type             the type of the room
      * @param amenities        the amenities provided in the room
      * @param maximumOccupancy the maximum occupancy of the room
-     * @param pricePerNight    the price per night for the room
+     * @param pricePerNight    the price per night for the room in cents
      * @return true if the room is found and updated, false otherwise
      */
     @Override
     public boolean updateRoom(int roomId, int hotelId, RoomType type, ArrayList<String> amenities, int maximumOccupancy,
-                              double pricePerNight) {
-        boolean found = false;
-        File roomsFile = new File(AdminController.roomsFilename);
-        RoomReaderWriter roomRW = new RoomReaderWriter();
-        ArrayList<Room> readRooms = new ArrayList<>();
-        try (FileReader fr = new FileReader(roomsFile)) {
-            readRooms = roomRW.read(fr, roomsFile);
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from file with name %s!%n", roomsFile.getName());
-        }
-
-        for (Room currRoom : readRooms) {
-            if (currRoom.getId() == roomId) {
-                found = true;
-                currRoom.setHotelId(hotelId);
-                currRoom.setType(type);
-                currRoom.setAmenities(amenities);
-                currRoom.setMaximumOccupancy(maximumOccupancy);
-                currRoom.setPricePerNight(pricePerNight);
-                double total = currRoom.getPricePerNight() * currRoom.getMaximumOccupancy();
-                currRoom.setTotalPrice(total);
-            }
+                              long pricePerNight) {
+        Room currRoom = Repositories.rooms().findById(roomId);
+        if (currRoom == null) {
+            return false;
         }
 
-        if (found && roomsFile.delete()) {
-            roomsFile = new File(AdminController.roomsFilename);
-            for (Room currRoom : readRooms) {
-                roomRW.write(currRoom, roomsFile.getName());
-            }
+        synchronized (currRoom) { // a booking's transaction may be taking the room's JSON meanwhile
+            currRoom.setHotelId(hotelId);
+            currRoom.setType(type);
+            currRoom.setAmenities(amenities);
+            currRoom.setMaximumOccupancy(maximumOccupancy);
+            currRoom.setPricePerNight(pricePerNight);
+            long total = Money.times(currRoom.getPricePerNight(), currRoom.getMaximumOccupancy());
+            currRoom.setTotalPrice(total);
         }
+        Repositories.rooms().save(currRoom);
 
-        return found;
+        return true;
     }
-}
\ No newline at end of file
+}
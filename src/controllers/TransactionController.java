@@ -3,19 +3,16 @@ package controllers;
 import interfaces.ITransactionManageable;
 import models.DebitCard;
 import models.Hotel;
-import readersWriters.DebitCardReaderWriter;
-
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
+import payments.DebitCardLedger;
+import payments.Payments;
+import repositories.Repositories;
 
 /**
  * The TransactionController class implements the ITransactionManageable interface
  * and provides functionality for handling transactions related to debit cards and hotel incomes.
+ * The balances and incomes are kept by the debit card ledger of {@link Payments}.
  */
 public class TransactionController implements ITransactionManageable {
-    private static final String debitCardsFilename = "debitCards.txt";
     private Hotel hotel;
 
     /**
@@ -47,39 +44,50 @@ public class TransactionController implements ITransactionManageable {
 
     /**
      * Processes a transaction by deducting the specified amount from the debit card balance
-     * and adding it to the hotel's incomes.
+     * and adding it to the hotel's incomes in the debit card ledger. The ledger rejects the
+     * transaction if the balance is lower than the amount.
      *
      * @param debitCardId the ID of the debit card to be charged
-     * @param moneyToBePayed the amount of money to be deducted
+     * @param moneyToBePayed the amount of money to be deducted in cents
      * @return true if the transaction is successful, false otherwise
      */
     @Override
-    public boolean makeTransaction(int debitCardId, double moneyToBePayed) {
-        DebitCardReaderWriter drw = new DebitCardReaderWriter();
-        ArrayList<DebitCard> readDebitCards;
-        File file = new File(TransactionController.debitCardsFilename);
-        try (FileReader fr = new FileReader(file)) {
-            readDebitCards = drw.read(fr, file);
+    public boolean makeTransaction(int debitCardId, long moneyToBePayed) {
+        DebitCard card = Repositories.debitCards().findById(debitCardId);
+        if (card == null) {
+            return false; // Transaction failed if card not found
+        }
 
-            // Iterate through the list of debit cards to find the matching card by ID
-            for (DebitCard card : readDebitCards) {
-                if (card.getId() == debitCardId) {
-                    // Deduct the specified amount from the card's balance
-                    double newBalance = card.getBalance() - moneyToBePayed;
-                    card.setBalance(newBalance);
-                    System.out.printf("You successfully have paid %.2f$!%n", card.getBalance());
+        DebitCardLedger ledger = Payments.ledger();
+        if (!ledger.debit(debitCardId, this.hotel.getId(), moneyToBePayed)) {
+            return false; // Transaction failed if the balance is insufficient
+        }
+        ledger.copyBalanceTo(card);
+        return true; // Transaction successful
+    }
 
-                    // Update the hotel's total incomes
-                    double newHotelIncomes = this.hotel.getIncomes() + moneyToBePayed;
-                    this.hotel.setIncomes(newHotelIncomes);
-                    return true; // Transaction successful
-                }
-            }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            return false; // Transaction failed due to an I/O error
+    /**
+     * Reverts a transaction by returning the specified amount to the debit card balance
+     * and removing it from the hotel's incomes, e.g. when the booking it paid for cannot be saved.
+     * The card and the hotel get the ledger's values back.
+     *
+     * @param debitCardId the ID of the charged debit card
+     * @param moneyPayed  the amount of money which was deducted in cents
+     * @return true if the transaction is reverted, false if the card is not found
+     */
+    @Override
+    public boolean revertTransaction(int debitCardId, long moneyPayed) {
+        DebitCard card = Repositories.debitCards().findById(debitCardId);
+        if (card == null) {
+            return false;
         }
 
-        return false; // Transaction failed if card not found or insufficient balance
+        DebitCardLedger ledger = Payments.ledger();
+        if (!ledger.refund(debitCardId, this.hotel.getId(), moneyPayed)) {
+            return false;
+        }
+        ledger.copyBalanceTo(card);
+        ledger.copyIncomesTo(this.hotel);
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,22 @@
 package controllers;
 
+import indexes.Indexes;
 import interfaces.IUserManageable;
 import models.DebitCard;
 import models.Reservation;
 import models.User;
-import readersWriters.DebitCardReaderWriter;
-import readersWriters.ReservationReaderWriter;
-import readersWriters.UserReaderWriter;
+import repositories.Repositories;
+import repositories.Repository;
+import security.PasswordHasher;
+import security.Passwords;
+import utils.Money;
 import validators.UserCredentialsValidator;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * UserController class implements IUserManageable interface and provides
@@ -23,10 +24,6 @@ import java.util.Map;
  * showing all bookings, and loading user profile.
  */
 public class UserController implements IUserManageable {
-    private final static String usersFilename = "users.txt";
-    private final static String reservationsFilename = "reservations.txt";
-    private final static String debitCardsFilename = "debitCards.txt";
-
     /**
      * Registers a new user with the provided credentials.
      *
@@ -36,32 +33,58 @@ public class UserController implements IUserManageable {
      */
     @Override
     public boolean register(String[] credentials) {
+        return this.registerAsync(credentials).join();
+    }
+
+    /**
+     * Registers a new user with the provided credentials, hashing the password on the password hashing pool.
+     *
+     * @param credentials An array of strings containing username, email,
+     *                    password, re-entered password, and balance.
+     * @return The future result, true if the registration is successful, false otherwise.
+     */
+    public CompletableFuture<Boolean> registerAsync(String[] credentials) {
         String username = credentials[0], email = credentials[1],
                 password = credentials[2], reEnteredPassword = credentials[3], balanceString = credentials[4];
-        double balance = Double.parseDouble(balanceString);
+        long balance = Money.parse(balanceString);
 
         // Validate credentials
         if(username.matches("^[a-zA-Z0-9]{6,20}$")
                 && UserCredentialsValidator.isValidEmail(email)
                 && UserCredentialsValidator.isValidPassword(password)
                 && UserCredentialsValidator.isValidPassword(reEnteredPassword)
-                && 0.0 < balance) {
+                && Money.zero < balance) {
 
-            // Create a new user and debit card
-            User registeredUser = new User(username, email, password, new ArrayList<>(), null);
-            DebitCard debitCard = new DebitCard(balance, registeredUser.getId());
-            registeredUser.setDebitCard(Map.entry(debitCard.getId(), debitCard.getBalance()));
+            // The repositories are loaded before the new IDs are taken, so they follow the stored ones
+            Repository<User> users = Repositories.users();
+            Repository<DebitCard> debitCards = Repositories.debitCards();
 
-            // Write user and debit card to their respective files
-            UserReaderWriter uw = new UserReaderWriter();
-            uw.write(registeredUser, UserController.usersFilename);
-
-            DebitCardReaderWriter dw = new DebitCardReaderWriter();
-            dw.write(debitCard, UserController.debitCardsFilename);
-
-            return true;
+            // Create a new user, the username and email are claimed before the costly hashing
+            User registeredUser = new User(username, email, null, new ArrayList<>(), null);
+            if (!Indexes.users().claim(username, email, registeredUser.getId())) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return Passwords.hasher().hash(password).handle((hash, ex) -> {
+                if (ex != null) {
+                    ex.fillInStackTrace();
+                    Indexes.users().release(username, email, registeredUser.getId());
+                    return false;
+                }
+                try {
+                    registeredUser.setPassword(hash, false);
+                } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
+                    e.fillInStackTrace();
+                }
+                DebitCard debitCard = new DebitCard(balance, registeredUser.getId());
+                registeredUser.setDebitCard(Map.entry(debitCard.getId(), debitCard.getBalance()));
+
+                // Save user and debit card to their respective repositories
+                users.save(registeredUser);
+                debitCards.save(debitCard);
+                return true;
+            });
         }
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
 
     /**
@@ -73,40 +96,70 @@ public class UserController implements IUserManageable {
      */
     @Override
     public boolean login(String[] credentials, User loggedIn) {
+        return this.loginAsync(credentials, loggedIn).join();
+    }
+
+    /**
+     * Logs in a user with the provided credentials, verifying the password on the password hashing pool.
+     * A plaintext password or a hash with outdated parameters is hashed again with the current ones.
+     *
+     * @param credentials An array of strings containing username and password.
+     * @param loggedIn The user object to store logged-in user's details.
+     * @return The future result, true if the login is successful, false otherwise.
+     */
+    public CompletableFuture<Boolean> loginAsync(String[] credentials, User loggedIn) {
         String username = credentials[0], password = credentials[1];
 
         // Validate credentials
         if(username.matches("^[a-zA-Z0-9]{6,20}$")
                 && UserCredentialsValidator.isValidPassword(password)) {
 
-            UserReaderWriter urw = new UserReaderWriter();
-            ArrayList<User> readUsers;
-            File file = new File(UserController.usersFilename);
-
-            try (FileReader fr = new FileReader(file)) {
-                readUsers = urw.read(fr, file);
-                if (readUsers.isEmpty()) {
-                    System.out.println("There is no read users.");
-                } else {
-                    // Check each user for matching username and password
-                    for (User usr : readUsers) {
-                        if (usr.getUsername().equals(username) && usr.getPassword().equals(password)) {
-                            // Set the logged in user's details
-                            loggedIn.setId(usr.getId());
-                            loggedIn.setUsername(usr.getUsername());
-                            loggedIn.setEmail(usr.getEmail());
-                            loggedIn.setPassword(usr.getPassword(), false);
-                            loggedIn.setReservations(usr.getReservations());
-                            loggedIn.setDebitCard(usr.getDebitCard());
-                            return true;
+            // The credentials index finds the user by username without scanning all users
+            Integer userId = Indexes.users().findIdByUsername(username);
+            User usr = userId == null ? null : Repositories.users().findById(userId);
+            if (usr != null) {
+                PasswordHasher hasher = Passwords.hasher();
+                return hasher.verify(password, usr.getPassword()).thenCompose(matches -> {
+                    if (!matches || !hasher.needsRehash(usr.getPassword())) {
+                        return CompletableFuture.completedFuture(matches);
+                    }
+                    // A failed upgrade keeps the old password, it is tried again on the next login
+                    return hasher.hash(password).handle((hash, ex) -> {
+                        try {
+                            if (ex == null) {
+                                usr.setPassword(hash, false);
+                                Repositories.users().save(usr);
+                            }
+                        } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
+                            e.fillInStackTrace();
                         }
+                        return true;
+                    });
+                }).handle((matches, ex) -> {
+                    if (ex != null) {
+                        ex.fillInStackTrace();
+                        return false;
                     }
-                }
-            } catch (IOException | InvalidKeySpecException | NoSuchAlgorithmException ex) {
-                ex.fillInStackTrace();
+                    if (!matches) {
+                        return false;
+                    }
+                    try {
+                        // Set the logged in user's details
+                        loggedIn.setId(usr.getId());
+                        loggedIn.setUsername(usr.getUsername());
+                        loggedIn.setEmail(usr.getEmail());
+                        loggedIn.setPassword(usr.getPassword(), false);
+                        loggedIn.setReservations(usr.getReservations());
+                        loggedIn.setDebitCard(usr.getDebitCard());
+                        return true;
+                    } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
+                        e.fillInStackTrace();
+                    }
+                    return false;
+                });
             }
         }
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
 
     /**
@@ -119,47 +172,33 @@ public class UserController implements IUserManageable {
     }
 
     /**
-     * Shows all bookings of the current user.
+     * Finds all bookings of the current user.
      *
-     * @param currentUser The current user whose bookings are to be displayed.
+     * @param currentUser The current user whose bookings are to be listed.
+     * @return The reservations booked by the user, active and cancelled.
      */
     @Override
-    public void showAllBookings(User currentUser) {
-        System.out.println("All reservations:");
-        System.out.println("------------------");
-        System.out.println();
-
-        ReservationReaderWriter rrw = new ReservationReaderWriter();
-        File file = new File(UserController.reservationsFilename);
-        ArrayList<Reservation> readReservations;
-
-        try (FileReader fr = new FileReader(file)) {
-            readReservations = rrw.read(fr, file);
-            if (readReservations.isEmpty()) {
-                System.out.println("There is no read reservations.");
-            } else {
-                // Display each reservation of the current user
-                for (Reservation reservation : readReservations) {
-                    if (reservation.getBookedById() == currentUser.getId()) {
-                        System.out.printf("ID: %d | From: %s | To: %s | Total price: %.2f$ | Status: %s%n",
-                                reservation.getId(), reservation.getFromDate(), reservation.getToDate(),
-                                reservation.getTotalPrice(), reservation.isCancelled() ? "cancelled" : "active");
-                    }
-                }
+    public ArrayList<Reservation> showAllBookings(User currentUser) {
+        // The user's reservations index finds the bookings without scanning all reservations
+        Repository<Reservation> reservations = Repositories.reservations();
+        ArrayList<Reservation> bookings = new ArrayList<>();
+        for (Integer reservationId : Indexes.userReservations().reservationIdsOf(currentUser.getId())) {
+            Reservation reservation = reservations.findById(reservationId);
+            if (reservation != null) {
+                bookings.add(reservation);
             }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
         }
+        return bookings;
     }
 
     /**
-     * Loads the profile of the current user and displays all bookings.
+     * Loads the profile of the current user with all bookings.
      *
      * @param currentUser The current user whose profile is to be loaded.
+     * @return The reservations booked by the user.
      */
     @Override
-    public void loadProfile(User currentUser) {
-        System.out.printf("%s | %s%n", currentUser.getUsername(), currentUser.getEmail());
-        showAllBookings(currentUser);
+    public ArrayList<Reservation> loadProfile(User currentUser) {
+        return showAllBookings(currentUser);
     }
 }
\ No newline at end of file
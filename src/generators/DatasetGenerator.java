@@ -0,0 +1,392 @@
+package generators;
+
+import controllers.HotelController;
+import models.*;
+import repositories.Repositories;
+import types.RoomType;
+import utils.IntLongMap;
+import utils.IntSet;
+import utils.Money;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * DatasetGenerator writes a synthetic dataset of hotels, rooms, reservations, users and debit cards
+ * into the entity files read by the repositories. The records are consistent with each other as if
+ * they were made through the BookingEngine: every room belongs to its hotel, the stays of a room never
+ * overlap, every reservation is in its room's and its user's reservations, the hotel's incomes are the
+ * paid prices and cancellation fees, and every debit card's balance is what its owner has left.
+ * <p>
+ * Records are streamed to disk hotel by hotel, so only the counters of the current hotel and the money
+ * spent by every user are kept in memory. The reservations of the users are spooled into a temporary
+ * file and gathered back for a block of users at a time. The same settings and seed always produce the
+ * same files.
+ */
+public class DatasetGenerator {
+    public static final int maxNights = 7;
+    public static final int defaultHorizonDays = 300;
+    public static final long defaultBalance = Money.of(1_000_000_000); // In cents
+    private static final int maxSpooledEntriesInMemory = 1_000_000; // Entries gathered per block of users
+    private static final String spoolFilename = "userReservations.tmp";
+
+    private final long seed; // Seed of the random generator
+    private final int hotelsCount; // Count of hotels
+    private final int roomsPerHotel; // Count of rooms in every hotel
+    private final Map<RoomType, Integer> roomTypeWeights; // Relative weight of every generated room type
+    private final int usersCount; // Count of users, every one with a debit card
+    private final double bookingDensity; // Share of the booked nights in the horizon, in (0, 1]
+    private final LocalDateTime firstDay; // Check-in time of the first day of the horizon
+    private final int horizonDays; // Count of days in which stays are generated
+    private final int totalWeight;
+
+    /**
+     * Constructor that creates a generator with the given settings.
+     *
+     * @param seed            Seed of the random generator.
+     * @param hotelsCount     Count of hotels.
+     * @param roomsPerHotel   Count of rooms in every hotel.
+     * @param roomTypeWeights Relative weight of every generated room type.
+     * @param usersCount      Count of users.
+     * @param bookingDensity  Share of the booked nights of every room in the horizon, in (0, 1].
+     * @param firstDay        Check-in time of the first day of the horizon.
+     * @param horizonDays     Count of days in which stays are generated.
+     * @throws IllegalArgumentException If a setting is out of its range.
+     */
+    public DatasetGenerator(long seed, int hotelsCount, int roomsPerHotel, Map<RoomType, Integer> roomTypeWeights,
+                            int usersCount, double bookingDensity, LocalDateTime firstDay, int horizonDays) {
+        if (hotelsCount < 1 || roomsPerHotel < 1 || usersCount < 1 || horizonDays < 1) {
+            throw new IllegalArgumentException("The counts of hotels, rooms, users and days must be positive!");
+        }
+        if (!(bookingDensity > 0.0 && bookingDensity <= 1.0)) {
+            throw new IllegalArgumentException("The booking density must be in (0, 1]!");
+        }
+        int total = 0;
+        for (int weight : roomTypeWeights.values()) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("The room type weights must not be negative!");
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one room type must have a positive weight!");
+        }
+        this.seed = seed;
+        this.hotelsCount = hotelsCount;
+        this.roomsPerHotel = roomsPerHotel;
+        this.roomTypeWeights = new EnumMap<>(roomTypeWeights);
+        this.usersCount = usersCount;
+        this.bookingDensity = bookingDensity;
+        this.firstDay = firstDay;
+        this.horizonDays = horizonDays;
+        this.totalWeight = total;
+    }
+
+    /**
+     * Gets the default room type distribution.
+     *
+     * @return Weights of 40 single, 35 double, 15 deluxe and 10 suite rooms.
+     */
+    public static Map<RoomType, Integer> defaultRoomTypeWeights() {
+        Map<RoomType, Integer> weights = new EnumMap<>(RoomType.class);
+        weights.put(RoomType.SINGLE, 40);
+        weights.put(RoomType.DOUBLE, 35);
+        weights.put(RoomType.DELUXE, 15);
+        weights.put(RoomType.SUITE, 10);
+        return weights;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getHotelsCount() {
+        return hotelsCount;
+    }
+
+    public int getRoomsPerHotel() {
+        return roomsPerHotel;
+    }
+
+    public int getUsersCount() {
+        return usersCount;
+    }
+
+    public double getBookingDensity() {
+        return bookingDensity;
+    }
+
+    public LocalDateTime getFirstDay() {
+        return firstDay;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Writes the dataset into a directory, replacing its entity files.
+     *
+     * @param dir The directory of the entity files.
+     * @return The count of written reservations.
+     * @throws IOException If a file cannot be written.
+     */
+    public long generate(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        SplittableRandom random = new SplittableRandom(this.seed);
+        long[] spent = new long[this.usersCount + 1]; // Cents charged from every user's card
+        Path spool = dir.resolve(spoolFilename);
+        long reservationsCount;
+        try {
+            try (BufferedWriter hotels = writer(dir, Repositories.hotelsFilename);
+                 BufferedWriter rooms = writer(dir, Repositories.roomsFilename);
+                 BufferedWriter reservations = writer(dir, Repositories.reservationsFilename);
+                 DataOutputStream userReservations = new DataOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(spool), 64 * 1024))) {
+                reservationsCount = this.writeHotels(random, spent, hotels, rooms, reservations, userReservations);
+            }
+            this.writeUsers(spent, spool, reservationsCount, dir);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+        return reservationsCount;
+    }
+
+    // Writes every hotel after its rooms and their reservations, which are spooled for their users
+    private long writeHotels(SplittableRandom random, long[] spent, BufferedWriter hotels, BufferedWriter rooms,
+                             BufferedWriter reservations, DataOutputStream userReservations) throws IOException {
+        long fee = HotelController.fixedCancellationFee;
+        double meanGap = (1 + maxNights) / 2.0 * (1.0 - this.bookingDensity) / this.bookingDensity;
+        int maxGap = (int) Math.min(Integer.MAX_VALUE - maxNights, Math.round(2 * meanGap));
+        int reservationId = 0;
+        int roomId = 0;
+        for (int hotelId = 1; hotelId <= this.hotelsCount; hotelId++) {
+            IntSet allRoomsIds = new IntSet(this.roomsPerHotel);
+            IntSet bookedRoomsIds = new IntSet();
+            long incomes = 0;
+            for (int i = 0; i < this.roomsPerHotel; i++) {
+                roomId++;
+                RoomType type = this.nextRoomType(random);
+                int occupancy = occupancyOf(type);
+                long pricePerNight = basePriceOf(type) + Money.of(5L * random.nextInt(11));
+                long totalPrice = Money.times(pricePerNight, occupancy);
+
+                // Stays follow each other with random gaps, so they never overlap
+                IntSet inReservationsIds = new IntSet();
+                boolean isBooked = false;
+                int day = random.nextInt(maxGap + maxNights + 1);
+                while (true) {
+                    int nights = 1 + random.nextInt(maxNights);
+                    if (day + nights > this.horizonDays) {
+                        break;
+                    }
+                    reservationId++;
+                    int userId = 1 + random.nextInt(this.usersCount);
+                    boolean isCancelled = random.nextInt(10) == 0;
+                    long price = Money.times(totalPrice, nights);
+                    IntLongMap roomsIds = IntLongMap.of(roomId, totalPrice);
+                    LocalDateTime from = this.firstDay.plusDays(day);
+                    line(reservations, new Reservation(reservationId, from, from.plusDays(nights), roomsIds,
+                            userId, fee, price, isCancelled));
+
+                    long charged = isCancelled ? price + fee : price;
+                    spent[userId] += charged;
+                    incomes += charged;
+                    inReservationsIds.add(reservationId);
+                    isBooked |= !isCancelled;
+                    userReservations.writeInt(userId);
+                    userReservations.writeInt(reservationId);
+                    userReservations.writeLong(price);
+
+                    day += nights + random.nextInt(maxGap + 1);
+                }
+
+                Map<Boolean, ArrayList<LocalDateTime>> availability = new LinkedHashMap<>();
+                availability.put(false, new ArrayList<>());
+                line(rooms, new Room(roomId, hotelId, type, this.nextAmenities(random, type), occupancy,
+                        pricePerNight, totalPrice, isBooked, availability, inReservationsIds));
+                allRoomsIds.add(roomId);
+                if (isBooked) {
+                    bookedRoomsIds.add(roomId);
+                }
+            }
+            line(hotels, new Hotel(hotelId, "Hotel " + hotelId, hotelId + " Synthetic Street",
+                    allRoomsIds, bookedRoomsIds, incomes));
+        }
+        return reservationId;
+    }
+
+    // Writes the users and their cards, gathering the spooled reservations of a block of users per pass
+    private void writeUsers(long[] spent, Path spool, long reservationsCount, Path dir) throws IOException {
+        int blockSize = (int) Math.max(1, Math.min(this.usersCount,
+                (long) this.usersCount * maxSpooledEntriesInMemory / Math.max(1, reservationsCount)));
+        LocalDateTime created = this.firstDay.minusYears(1);
+        try (BufferedWriter users = writer(dir, Repositories.usersFilename);
+             BufferedWriter cards = writer(dir, Repositories.debitCardsFilename)) {
+            for (int first = 1; first <= this.usersCount; first += blockSize) {
+                int last = (int) Math.min(this.usersCount, (long) first + blockSize - 1);
+                ArrayList<IntLongMap> reservations = new ArrayList<>(last - first + 1);
+                for (int id = first; id <= last; id++) {
+                    reservations.add(new IntLongMap());
+                }
+                readSpool(spool, first, last, reservations);
+
+                for (int id = first; id <= last; id++) {
+                    long balance = defaultBalance - spent[id];
+                    line(cards, new DebitCard(id, String.format("BGN%010d", id), created, created.plusYears(4),
+                            balance, id));
+                    line(users, new User(id, String.format("user%06d", id), String.format("u%07d@gmail.com", id),
+                            String.format("pass%06d", id), reservations.get(id - first), Map.entry(id, balance)));
+                }
+            }
+        }
+    }
+
+    private static void readSpool(Path spool, int first, int last, List<IntLongMap> reservations)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(spool), 64 * 1024))) {
+            while (true) {
+                int userId;
+                try {
+                    userId = in.readInt();
+                } catch (EOFException ex) {
+                    return;
+                }
+                int reservationId = in.readInt();
+                long price = in.readLong();
+                if (userId >= first && userId <= last) {
+                    reservations.get(userId - first).put(reservationId, price);
+                }
+            }
+        }
+    }
+
+    private RoomType nextRoomType(SplittableRandom random) {
+        int pick = random.nextInt(this.totalWeight);
+        for (Map.Entry<RoomType, Integer> entry : this.roomTypeWeights.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("The room type weights changed!");
+    }
+
+    private ArrayList<String> nextAmenities(SplittableRandom random, RoomType type) {
+        ArrayList<String> amenities = new ArrayList<>(List.of("tv", "wifi"));
+        if (type == RoomType.DELUXE || type == RoomType.SUITE || random.nextInt(2) == 0) {
+            amenities.add("minibar");
+        }
+        if (type == RoomType.SUITE) {
+            amenities.add("jacuzzi");
+        }
+        return amenities;
+    }
+
+    private static int occupancyOf(RoomType type) {
+        return switch (type) {
+            case SINGLE -> 1;
+            case DOUBLE, DELUXE -> 2;
+            case SUITE -> 4;
+            default -> 3;
+        };
+    }
+
+    private static long basePriceOf(RoomType type) {
+        return Money.of(switch (type) {
+            case SINGLE -> 40;
+            case DOUBLE -> 60;
+            case DELUXE -> 120;
+            case SUITE -> 200;
+            default -> 80;
+        });
+    }
+
+    private static BufferedWriter writer(Path dir, String filename) throws IOException {
+        return Files.newBufferedWriter(dir.resolve(filename), StandardCharsets.UTF_8);
+    }
+
+    private static void line(BufferedWriter writer, Object obj) throws IOException {
+        writer.write(obj.toString());
+        writer.newLine();
+    }
+
+    /**
+     * Parses a room type distribution, e.g. "SINGLE:40,DOUBLE:35,DELUXE:15,SUITE:10".
+     *
+     * @param distribution Comma-separated room types and their weights.
+     * @return The weight of every listed room type.
+     */
+    public static Map<RoomType, Integer> parseRoomTypeWeights(String distribution) {
+        Map<RoomType, Integer> weights = new EnumMap<>(RoomType.class);
+        for (String pair : distribution.split(",")) {
+            String[] typeAndWeight = pair.trim().split(":");
+            if (typeAndWeight.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid room type weight %s!", pair));
+            }
+            weights.put(RoomType.valueOf(typeAndWeight[0].trim().toUpperCase()),
+                    Integer.parseInt(typeAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Generates a dataset from the command line. Settings are given as key=value pairs:
+     * dir (required), seed, hotels, roomsPerHotel, users, density, roomTypes, from (a date) and days.
+     *
+     * @param args The settings.
+     * @throws IOException If a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyAndValue = arg.split("=", 2);
+            if (keyAndValue.length != 2) {
+                System.out.println("Usage: DatasetGenerator dir=<directory> [seed=42] [hotels=10] [roomsPerHotel=100]"
+                        + " [users=1000] [density=0.6] [roomTypes=SINGLE:40,DOUBLE:35,DELUXE:15,SUITE:10]"
+                        + " [from=<yyyy-MM-dd>] [days=300]");
+                return;
+            }
+            settings.put(keyAndValue[0], keyAndValue[1]);
+        }
+        if (!settings.containsKey("dir")) {
+            System.out.println("The output directory is required, e.g. dir=data");
+            return;
+        }
+
+        LocalDate from = settings.containsKey("from") ? LocalDate.parse(settings.get("from"))
+                : LocalDate.now().withDayOfMonth(1).plusMonths(1);
+        DatasetGenerator generator = new DatasetGenerator(
+                Long.parseLong(settings.getOrDefault("seed", "42")),
+                Integer.parseInt(settings.getOrDefault("hotels", "10")),
+                Integer.parseInt(settings.getOrDefault("roomsPerHotel", "100")),
+                settings.containsKey("roomTypes") ? parseRoomTypeWeights(settings.get("roomTypes"))
+                        : defaultRoomTypeWeights(),
+                Integer.parseInt(settings.getOrDefault("users", "1000")),
+                Double.parseDouble(settings.getOrDefault("density", "0.6")),
+                from.atTime(14, 0),
+                Integer.parseInt(settings.getOrDefault("days", String.valueOf(defaultHorizonDays))));
+        long started = System.nanoTime();
+        long reservations = generator.generate(Path.of(settings.get("dir")));
+        System.out.printf("Generated %d hotels, %d rooms, %d users and %d reservations in %d ms.%n",
+                generator.getHotelsCount(), (long) generator.getHotelsCount() * generator.getRoomsPerHotel(),
+                generator.getUsersCount(), reservations, (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,106 @@
+package indexes;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import utils.Money;
+
+/**
+ * The AggregateCounters class holds the counts and sums of a group of booked rooms: the bookings and
+ * their revenue, the cancellations and their fees, the money in cents. The counters are updated and
+ * read atomically.
+ */
+public class AggregateCounters {
+    private long bookings; // Booked rooms, active and cancelled
+    private long revenue; // Price of the booked rooms in cents
+    private long cancellations; // Cancelled booked rooms
+    private long cancellationFees; // Fees charged for the cancelled rooms in cents
+
+    /**
+     * Default constructor that initializes zero counters.
+     */
+    public AggregateCounters() {
+    }
+
+    private AggregateCounters(long bookings, long revenue, long cancellations, long cancellationFees) {
+        this.bookings = bookings;
+        this.revenue = revenue;
+        this.cancellations = cancellations;
+        this.cancellationFees = cancellationFees;
+    }
+
+    public synchronized long getBookings() {
+        return bookings;
+    }
+
+    @JsonSerialize(using = Money.Serializer.class)
+    public synchronized long getRevenue() {
+        return revenue;
+    }
+
+    public synchronized long getCancellations() {
+        return cancellations;
+    }
+
+    @JsonSerialize(using = Money.Serializer.class)
+    public synchronized long getCancellationFees() {
+        return cancellationFees;
+    }
+
+    /**
+     * Adds to the counters, negative values subtract.
+     *
+     * @param bookings         The booked rooms to add.
+     * @param revenue          The revenue to add in cents.
+     * @param cancellations    The cancelled rooms to add.
+     * @param cancellationFees The cancellation fees to add in cents.
+     */
+    public synchronized void add(long bookings, long revenue, long cancellations, long cancellationFees) {
+        this.bookings += bookings;
+        this.revenue += revenue;
+        this.cancellations += cancellations;
+        this.cancellationFees += cancellationFees;
+    }
+
+    /**
+     * Adds the values of other counters.
+     *
+     * @param other The counters to add.
+     */
+    public void add(AggregateCounters other) {
+        AggregateCounters values = other.copy();
+        this.add(values.bookings, values.revenue, values.cancellations, values.cancellationFees);
+    }
+
+    /**
+     * Copies the counters consistently.
+     *
+     * @return The copy.
+     */
+    public synchronized AggregateCounters copy() {
+        return new AggregateCounters(this.bookings, this.revenue, this.cancellations, this.cancellationFees);
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.bookings == 0 && this.cancellations == 0;
+    }
+
+    /**
+     * Compares the counters with other ones. The sums are exact cents, so they do not depend on the
+     * order the money was summed in.
+     *
+     * @param other The counters to compare with.
+     * @return true if the counts and sums are equal, false otherwise.
+     */
+    public boolean matches(AggregateCounters other) {
+        AggregateCounters mine = this.copy(), theirs = other.copy();
+        return mine.bookings == theirs.bookings && mine.cancellations == theirs.cancellations
+                && mine.revenue == theirs.revenue && mine.cancellationFees == theirs.cancellationFees;
+    }
+
+    @Override
+    public String toString() {
+        AggregateCounters values = this.copy();
+        return String.format("%d bookings | %s revenue | %d cancellations | %s cancellation fees",
+                values.bookings, Money.format(values.revenue), values.cancellations,
+                Money.format(values.cancellationFees));
+    }
+}
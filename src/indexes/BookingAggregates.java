@@ -0,0 +1,289 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+import models.Room;
+import types.RoomType;
+import utils.IntLongMap;
+import utils.Money;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * The BookingAggregates class keeps the bookings, revenue, cancellations and cancellation fees of every
+ * hotel per day of arrival and per room type, so the admin reports are answered in constant time for a
+ * hotel's totals and in time proportional to the days of a period otherwise. Every booked room counts
+ * once, with its share of the reservation's price in cents; a cancelled room also counts as a cancellation with
+ * the fixed cancellation fee. The revenue of a cancelled reservation stays, as it is not refunded.
+ * <p>
+ * The aggregates are maintained from the saved and deleted reservations. The contribution of every
+ * reservation is kept, so a changed reservation replaces its old contribution; a room is attributed to
+ * the hotel and type it had when the reservation was indexed. The same aggregates can be rebuilt from
+ * the reservations to verify the maintained ones.
+ */
+public class BookingAggregates implements IRepositoryListener<Reservation> {
+    private static final RoomType[] roomTypes = RoomType.values();
+
+    private final long cancellationFee; // Fee charged for every cancelled room in cents
+    private final IntFunction<Room> roomsById; // Finds the booked rooms
+    private final Map<Integer, HotelAggregates> hotels = new ConcurrentHashMap<>();
+    private final Map<Integer, Contribution> contributions = new HashMap<>(); // Contribution by reservation ID
+
+    /**
+     * The aggregates of a hotel: its totals, its totals per room type and its counters per day and room type.
+     */
+    private static final class HotelAggregates {
+        private final AggregateCounters total = new AggregateCounters();
+        private final EnumMap<RoomType, AggregateCounters> totalsByType = new EnumMap<>(RoomType.class);
+        private final NavigableMap<LocalDate, AggregateCounters[]> days = new ConcurrentSkipListMap<>();
+
+        private HotelAggregates() {
+            for (RoomType type : roomTypes) {
+                this.totalsByType.put(type, new AggregateCounters());
+            }
+        }
+
+        private AggregateCounters[] dayOf(LocalDate day) {
+            return this.days.computeIfAbsent(day, d -> {
+                AggregateCounters[] byType = new AggregateCounters[roomTypes.length];
+                for (int i = 0; i < byType.length; i++) {
+                    byType[i] = new AggregateCounters();
+                }
+                return byType;
+            });
+        }
+
+        private AggregateCounters countersOf(LocalDate day, RoomType type) {
+            AggregateCounters[] byType = this.days.get(day);
+            return byType == null ? new AggregateCounters() : byType[type.ordinal()];
+        }
+    }
+
+    /**
+     * What a reservation added to the aggregates, one entry per booked room.
+     */
+    private static final class Contribution {
+        private final LocalDate day;
+        private final boolean isCancelled;
+        private final int[] hotelIds;
+        private final RoomType[] types;
+        private final long[] revenues;
+
+        private Contribution(LocalDate day, boolean isCancelled, int[] hotelIds, RoomType[] types, long[] revenues) {
+            this.day = day;
+            this.isCancelled = isCancelled;
+            this.hotelIds = hotelIds;
+            this.types = types;
+            this.revenues = revenues;
+        }
+    }
+
+    /**
+     * Constructor that creates empty aggregates.
+     *
+     * @param cancellationFee The fee charged for every cancelled room in cents.
+     * @param roomsById       Finds a booked room by its ID, null if it does not exist.
+     */
+    public BookingAggregates(long cancellationFee, IntFunction<Room> roomsById) {
+        this.cancellationFee = cancellationFee;
+        this.roomsById = roomsById;
+    }
+
+    /**
+     * Builds the aggregates of the given reservations from scratch, e.g. to verify the maintained ones.
+     *
+     * @param reservations    The reservations.
+     * @param cancellationFee The fee charged for every cancelled room in cents.
+     * @param roomsById       Finds a booked room by its ID, null if it does not exist.
+     * @return The new aggregates.
+     */
+    public static BookingAggregates rebuild(Stream<Reservation> reservations, long cancellationFee,
+                                            IntFunction<Room> roomsById) {
+        BookingAggregates aggregates = new BookingAggregates(cancellationFee, roomsById);
+        reservations.forEach(aggregates::saved);
+        return aggregates;
+    }
+
+    private Contribution contributionOf(Reservation reservation) {
+        IntLongMap bookedRooms = reservation.getRoomsIds();
+        long pricesSum = bookedRooms.sumOfValues();
+
+        int[] hotelIds = new int[bookedRooms.size()];
+        RoomType[] types = new RoomType[bookedRooms.size()];
+        long[] revenues = new long[bookedRooms.size()];
+        long totalPrice = reservation.getTotalPrice();
+        long pricesBefore = Money.zero, sharesBefore = Money.zero;
+        int roomsBefore = 0, count = 0;
+        for (int i = 0; i < bookedRooms.size(); i++) {
+            // The room's share of the price, split evenly if the rooms have no prices; the shares are
+            // taken from the running sums, so their cents add up to the total price exactly
+            pricesBefore = Money.add(pricesBefore, bookedRooms.valueAt(i));
+            roomsBefore++;
+            long sharesUpTo = 0 < pricesSum ? Math.floorDiv(Money.times(totalPrice, pricesBefore), pricesSum)
+                    : Math.floorDiv(Money.times(totalPrice, roomsBefore), bookedRooms.size());
+            long share = sharesUpTo - sharesBefore;
+            sharesBefore = sharesUpTo;
+
+            Room room = this.roomsById.apply(bookedRooms.keyAt(i));
+            if (room == null || room.getHotelId() == null) {
+                continue;
+            }
+            hotelIds[count] = room.getHotelId();
+            types[count] = room.getType() == null ? RoomType.UNKNOWN : room.getType();
+            revenues[count] = share;
+            count++;
+        }
+        if (count < hotelIds.length) {
+            hotelIds = Arrays.copyOf(hotelIds, count);
+            types = Arrays.copyOf(types, count);
+            revenues = Arrays.copyOf(revenues, count);
+        }
+        return new Contribution(reservation.getFromDate().toLocalDate(), reservation.isCancelled(),
+                hotelIds, types, revenues);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        long cancellations = contribution.isCancelled ? sign : 0;
+        long fees = contribution.isCancelled ? sign * this.cancellationFee : Money.zero;
+        for (int i = 0; i < contribution.hotelIds.length; i++) {
+            HotelAggregates hotel = this.hotels.computeIfAbsent(contribution.hotelIds[i], id -> new HotelAggregates());
+            long revenue = sign * contribution.revenues[i];
+            hotel.dayOf(contribution.day)[contribution.types[i].ordinal()].add(sign, revenue, cancellations, fees);
+            hotel.totalsByType.get(contribution.types[i]).add(sign, revenue, cancellations, fees);
+            hotel.total.add(sign, revenue, cancellations, fees);
+        }
+    }
+
+    @Override
+    public synchronized void saved(Reservation reservation) {
+        Contribution contribution = this.contributionOf(reservation);
+        Contribution previous = this.contributions.put(reservation.getId(), contribution);
+        if (previous != null) {
+            this.apply(previous, -1);
+        }
+        this.apply(contribution, 1);
+    }
+
+    @Override
+    public synchronized void deleted(Reservation reservation) {
+        Contribution previous = this.contributions.remove(reservation.getId());
+        if (previous != null) {
+            this.apply(previous, -1);
+        }
+    }
+
+    /**
+     * Gets the totals of a hotel.
+     *
+     * @param hotelId the ID of the hotel
+     * @return a copy of the hotel's counters
+     */
+    public AggregateCounters totalOf(int hotelId) {
+        HotelAggregates hotel = this.hotels.get(hotelId);
+        return hotel == null ? new AggregateCounters() : hotel.total.copy();
+    }
+
+    /**
+     * Gets the totals of a hotel's rooms of a type.
+     *
+     * @param hotelId the ID of the hotel
+     * @param type    the room type
+     * @return a copy of the counters
+     */
+    public AggregateCounters totalOf(int hotelId, RoomType type) {
+        HotelAggregates hotel = this.hotels.get(hotelId);
+        return hotel == null ? new AggregateCounters() : hotel.totalsByType.get(type).copy();
+    }
+
+    /**
+     * Sums the counters of a hotel per room type for the arrivals in [from, to).
+     *
+     * @param hotelId the ID of the hotel
+     * @param from    the first day
+     * @param to      the day after the last one
+     * @return the sums of every room type
+     */
+    public EnumMap<RoomType, AggregateCounters> periodOf(int hotelId, LocalDate from, LocalDate to) {
+        EnumMap<RoomType, AggregateCounters> byType = new EnumMap<>(RoomType.class);
+        for (RoomType type : roomTypes) {
+            byType.put(type, new AggregateCounters());
+        }
+        HotelAggregates hotel = this.hotels.get(hotelId);
+        if (hotel != null && from.isBefore(to)) {
+            for (AggregateCounters[] day : hotel.days.subMap(from, to).values()) {
+                for (RoomType type : roomTypes) {
+                    byType.get(type).add(day[type.ordinal()]);
+                }
+            }
+        }
+        return byType;
+    }
+
+    /**
+     * Gets the counters of a hotel per day of arrival in [from, to), all room types together.
+     *
+     * @param hotelId the ID of the hotel
+     * @param from    the first day
+     * @param to      the day after the last one
+     * @return the counters of the days with arrivals, in the order of the days
+     */
+    public NavigableMap<LocalDate, AggregateCounters> dailyOf(int hotelId, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, AggregateCounters> daily = new TreeMap<>();
+        HotelAggregates hotel = this.hotels.get(hotelId);
+        if (hotel != null && from.isBefore(to)) {
+            for (Map.Entry<LocalDate, AggregateCounters[]> day : hotel.days.subMap(from, to).entrySet()) {
+                AggregateCounters sum = new AggregateCounters();
+                for (AggregateCounters counters : day.getValue()) {
+                    sum.add(counters);
+                }
+                if (!sum.isEmpty()) {
+                    daily.put(day.getKey(), sum);
+                }
+            }
+        }
+        return daily;
+    }
+
+    /**
+     * Compares the aggregates with other ones, e.g. rebuilt from the reservations.
+     *
+     * @param other the aggregates to compare with
+     * @return the IDs of the hotels whose totals, room type totals or daily counters differ
+     */
+    public ArrayList<Integer> mismatchedHotels(BookingAggregates other) {
+        TreeSet<Integer> hotelIds = new TreeSet<>(this.hotels.keySet());
+        hotelIds.addAll(other.hotels.keySet());
+        ArrayList<Integer> mismatched = new ArrayList<>();
+        for (Integer hotelId : hotelIds) {
+            HotelAggregates mine = this.hotels.getOrDefault(hotelId, new HotelAggregates());
+            HotelAggregates theirs = other.hotels.getOrDefault(hotelId, new HotelAggregates());
+            boolean matches = mine.total.matches(theirs.total);
+            for (RoomType type : roomTypes) {
+                matches &= mine.totalsByType.get(type).matches(theirs.totalsByType.get(type));
+            }
+            TreeSet<LocalDate> days = new TreeSet<>(mine.days.keySet());
+            days.addAll(theirs.days.keySet());
+            for (LocalDate day : days) {
+                for (RoomType type : roomTypes) {
+                    matches &= mine.countersOf(day, type).matches(theirs.countersOf(day, type));
+                }
+            }
+            if (!matches) {
+                mismatched.add(hotelId);
+            }
+        }
+        return mismatched;
+    }
+}
@@ -0,0 +1,132 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+import models.Room;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The HotelReservationsIndex class maps every room ID to the ID of its hotel and every hotel ID to the
+ * IDs of the reservations of its rooms, so the admin reports of a hotel take time proportional to the
+ * hotel's own reservations instead of scanning all reservations and rooms. A reservation is kept with
+ * the count of the hotel's rooms it books, as the reports list it once per booked room. The index is
+ * maintained from the saved and deleted rooms and reservations; a room moved to another hotel moves
+ * its reservations along.
+ */
+public class HotelReservationsIndex {
+    private final Map<Integer, Integer> hotelIdsByRoom = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Integer>> reservationIdsByRoom = new HashMap<>();
+    private final Map<Integer, int[]> indexedRooms = new HashMap<>(); // Indexed room IDs by reservation ID
+    private final Map<Integer, NavigableMap<Integer, Integer>> bookedRoomsByHotel = new ConcurrentHashMap<>();
+
+    /**
+     * Listener maintaining the hotels of the rooms.
+     */
+    private final IRepositoryListener<Room> roomsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Room room) {
+            moveRoom(room.getId(), room.getHotelId());
+        }
+
+        @Override
+        public void deleted(Room room) {
+            moveRoom(room.getId(), null);
+        }
+    };
+
+    /**
+     * Listener maintaining the reservations of the hotels.
+     */
+    private final IRepositoryListener<Reservation> reservationsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Reservation reservation) {
+            updateReservation(reservation.getId(), reservation.getRoomsIds().keys());
+        }
+
+        @Override
+        public void deleted(Reservation reservation) {
+            updateReservation(reservation.getId(), new int[0]);
+        }
+    };
+
+    public IRepositoryListener<Room> getRoomsListener() {
+        return roomsListener;
+    }
+
+    public IRepositoryListener<Reservation> getReservationsListener() {
+        return reservationsListener;
+    }
+
+    /**
+     * Finds the hotel of a room.
+     *
+     * @param roomId the ID of the room
+     * @return the ID of the room's hotel or null if the room is unknown or has no hotel
+     */
+    public Integer hotelIdOf(int roomId) {
+        return this.hotelIdsByRoom.get(roomId);
+    }
+
+    /**
+     * Finds the reservations of a hotel's rooms, active and cancelled.
+     *
+     * @param hotelId the ID of the hotel
+     * @return the IDs of the reservations in ascending order, mapped to the count of the hotel's rooms they book
+     */
+    public NavigableMap<Integer, Integer> reservationsOf(int hotelId) {
+        NavigableMap<Integer, Integer> bookedRooms = this.bookedRoomsByHotel.get(hotelId);
+        return bookedRooms == null ? new TreeMap<>() : new TreeMap<>(bookedRooms);
+    }
+
+    private void count(Integer hotelId, int reservationId, int delta) {
+        if (hotelId == null) {
+            return;
+        }
+        this.bookedRoomsByHotel.compute(hotelId, (id, bookedRooms) -> {
+            NavigableMap<Integer, Integer> counts = bookedRooms == null ? new ConcurrentSkipListMap<>() : bookedRooms;
+            counts.merge(reservationId, delta, (count, change) -> count + change == 0 ? null : count + change);
+            return counts.isEmpty() ? null : counts;
+        });
+    }
+
+    private synchronized void moveRoom(int roomId, Integer hotelId) {
+        Integer previous = hotelId == null ? this.hotelIdsByRoom.remove(roomId) : this.hotelIdsByRoom.put(roomId, hotelId);
+        if (previous == null ? hotelId == null : previous.equals(hotelId)) {
+            return;
+        }
+        for (Integer reservationId : this.reservationIdsByRoom.getOrDefault(roomId, Set.of())) {
+            this.count(previous, reservationId, -1);
+            this.count(hotelId, reservationId, 1);
+        }
+    }
+
+    private synchronized void updateReservation(int reservationId, int[] roomIds) {
+        int[] previous = roomIds.length == 0 ? this.indexedRooms.remove(reservationId)
+                : this.indexedRooms.put(reservationId, roomIds);
+        if (previous != null && Arrays.equals(previous, roomIds)) {
+            return;
+        }
+        if (previous != null) {
+            for (int roomId : previous) {
+                Set<Integer> reservationIds = this.reservationIdsByRoom.get(roomId);
+                if (reservationIds != null && reservationIds.remove(reservationId) && reservationIds.isEmpty()) {
+                    this.reservationIdsByRoom.remove(roomId);
+                }
+                this.count(this.hotelIdsByRoom.get(roomId), reservationId, -1);
+            }
+        }
+        for (int roomId : roomIds) {
+            this.reservationIdsByRoom.computeIfAbsent(roomId, id -> new HashSet<>()).add(reservationId);
+            this.count(this.hotelIdsByRoom.get(roomId), reservationId, 1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package indexes;
+
+import analytics.AnalyticsEngine;
+import controllers.HotelController;
+import repositories.Repositories;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Registry of the application's indexes. Every index is built lazily on first use from its
+ * repository and is kept up to date with the repository's changes afterwards.
+ */
+public final class Indexes {
+
+    private Indexes() {
+    }
+
+    private static final class AvailabilityHolder {
+        static final RoomAvailabilityIndex INSTANCE = new RoomAvailabilityIndex();
+
+        static {
+            Repositories.reservations().subscribe(INSTANCE);
+        }
+    }
+
+    private static final class CalendarsHolder {
+        static final OccupancyCalendars INSTANCE = new OccupancyCalendars(LocalDate.now());
+
+        static {
+            Repositories.rooms().subscribe(INSTANCE.getRoomsListener());
+            Repositories.reservations().subscribe(INSTANCE.getReservationsListener());
+        }
+    }
+
+    private static final class UsersHolder {
+        static final UserCredentialsIndex INSTANCE = new UserCredentialsIndex();
+
+        static {
+            Repositories.users().subscribe(INSTANCE);
+        }
+    }
+
+    private static final class UserReservationsHolder {
+        static final UserReservationsIndex INSTANCE = new UserReservationsIndex();
+
+        static {
+            Repositories.reservations().subscribe(INSTANCE);
+        }
+    }
+
+    private static final class HotelReservationsHolder {
+        static final HotelReservationsIndex INSTANCE = new HotelReservationsIndex();
+
+        static {
+            Repositories.rooms().subscribe(INSTANCE.getRoomsListener());
+            Repositories.reservations().subscribe(INSTANCE.getReservationsListener());
+        }
+    }
+
+    private static final class AggregatesHolder {
+        static final BookingAggregates INSTANCE = new BookingAggregates(HotelController.fixedCancellationFee,
+                roomId -> Repositories.rooms().findById(roomId));
+
+        static {
+            Repositories.reservations().subscribe(INSTANCE);
+        }
+    }
+
+    private static final class AnalyticsHolder {
+        static final AnalyticsEngine INSTANCE = new AnalyticsEngine(ForkJoinPool.commonPool(),
+                roomId -> Repositories.rooms().findById(roomId));
+
+        static {
+            Repositories.rooms().subscribe(INSTANCE.getRoomsListener());
+            Repositories.reservations().subscribe(INSTANCE.getReservationsListener());
+        }
+    }
+
+    public static RoomAvailabilityIndex availability() {
+        return AvailabilityHolder.INSTANCE;
+    }
+
+    public static OccupancyCalendars calendars() {
+        return CalendarsHolder.INSTANCE;
+    }
+
+    public static UserCredentialsIndex users() {
+        return UsersHolder.INSTANCE;
+    }
+
+    public static UserReservationsIndex userReservations() {
+        return UserReservationsHolder.INSTANCE;
+    }
+
+    public static HotelReservationsIndex hotelReservations() {
+        return HotelReservationsHolder.INSTANCE;
+    }
+
+    public static BookingAggregates aggregates() {
+        return AggregatesHolder.INSTANCE;
+    }
+
+    public static AnalyticsEngine analytics() {
+        return AnalyticsHolder.INSTANCE;
+    }
+}
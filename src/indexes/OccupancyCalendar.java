@@ -0,0 +1,164 @@
+package indexes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The OccupancyCalendar class keeps the occupied nights of all rooms of one hotel as bitmaps, one
+ * long[] per room with one bit per night. The calendar covers a fixed horizon of nights starting at
+ * a given epoch day, so "which rooms are free for nights N..M" is answered by OR-ing a few masked
+ * words per room.
+ */
+public class OccupancyCalendar {
+    public static final int horizonWords = 12; // 768 nights, a bit over two years
+    public static final int horizonNights = horizonWords * Long.SIZE;
+
+    private final int hotelId; // ID of the hotel owning the rooms
+    private final long startDay; // Epoch day of the first covered night
+    private final Map<Integer, long[]> nightsByRoom = new LinkedHashMap<>(); // Occupied nights by room ID
+
+    /**
+     * Constructor that creates an empty calendar.
+     *
+     * @param hotelId  ID of the hotel owning the rooms.
+     * @param startDay Epoch day of the first covered night.
+     */
+    public OccupancyCalendar(int hotelId, long startDay) {
+        this.hotelId = hotelId;
+        this.startDay = startDay;
+    }
+
+    public int getHotelId() {
+        return hotelId;
+    }
+
+    public long getStartDay() {
+        return startDay;
+    }
+
+    /**
+     * Checks if the nights [fromDay, toDay) are inside the covered horizon.
+     *
+     * @param fromDay Epoch day of the first night.
+     * @param toDay   Epoch day after the last night.
+     * @return true if all nights are covered, false otherwise.
+     */
+    public boolean covers(long fromDay, long toDay) {
+        return fromDay >= this.startDay && toDay <= this.startDay + horizonNights && fromDay < toDay;
+    }
+
+    /**
+     * Adds a room with no occupied nights, if it is not in the calendar yet.
+     *
+     * @param roomId ID of the room.
+     */
+    public synchronized void addRoom(int roomId) {
+        this.nightsByRoom.putIfAbsent(roomId, new long[horizonWords]);
+    }
+
+    /**
+     * Removes a room from the calendar.
+     *
+     * @param roomId ID of the room.
+     */
+    public synchronized void removeRoom(int roomId) {
+        this.nightsByRoom.remove(roomId);
+    }
+
+    /**
+     * Marks the nights [fromDay, toDay) of a room as occupied. Nights outside the horizon are ignored.
+     *
+     * @param roomId  ID of the room.
+     * @param fromDay Epoch day of the first night.
+     * @param toDay   Epoch day after the last night.
+     */
+    public synchronized void occupy(int roomId, long fromDay, long toDay) {
+        long[] nights = this.nightsByRoom.computeIfAbsent(roomId, id -> new long[horizonWords]);
+        this.apply(nights, fromDay, toDay, true);
+    }
+
+    /**
+     * Marks the nights [fromDay, toDay) of a room as free. Nights outside the horizon are ignored.
+     *
+     * @param roomId  ID of the room.
+     * @param fromDay Epoch day of the first night.
+     * @param toDay   Epoch day after the last night.
+     */
+    public synchronized void release(int roomId, long fromDay, long toDay) {
+        long[] nights = this.nightsByRoom.get(roomId);
+        if (nights != null) {
+            this.apply(nights, fromDay, toDay, false);
+        }
+    }
+
+    private void apply(long[] nights, long fromDay, long toDay, boolean occupied) {
+        int from = (int) Math.max(0, fromDay - this.startDay);
+        int to = (int) Math.min(horizonNights, toDay - this.startDay);
+        for (int word = from >>> 6; from < to; word++) {
+            int end = Math.min(to, (word + 1) << 6);
+            long mask = mask(from, end);
+            nights[word] = occupied ? nights[word] | mask : nights[word] & ~mask;
+            from = end;
+        }
+    }
+
+    // Mask of the bits [from, to) of the word containing "from", "to" must be in the same word or its end
+    private static long mask(int from, int to) {
+        long upper = (to & 63) == 0 ? -1L : (1L << (to & 63)) - 1;
+        return upper & (-1L << (from & 63));
+    }
+
+    /**
+     * Finds the rooms with no occupied night in [fromDay, toDay).
+     *
+     * @param fromDay Epoch day of the first night, must be covered.
+     * @param toDay   Epoch day after the last night, must be covered.
+     * @return IDs of the free rooms.
+     */
+    public synchronized ArrayList<Integer> freeRooms(long fromDay, long toDay) {
+        int from = (int) (fromDay - this.startDay);
+        int to = (int) (toDay - this.startDay);
+        int firstWord = from >>> 6, lastWord = (to - 1) >>> 6;
+        long firstMask = mask(from, Math.min(to, (firstWord + 1) << 6));
+        long lastMask = mask(lastWord << 6, to);
+
+        ArrayList<Integer> free = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> room : this.nightsByRoom.entrySet()) {
+            long[] nights = room.getValue();
+            long occupied;
+            if (firstWord == lastWord) {
+                occupied = nights[firstWord] & firstMask;
+            } else {
+                occupied = (nights[firstWord] & firstMask) | (nights[lastWord] & lastMask);
+                for (int word = firstWord + 1; word < lastWord && occupied == 0; word++) {
+                    occupied |= nights[word];
+                }
+            }
+            if (occupied == 0) {
+                free.add(room.getKey());
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Gets the count of rooms in the calendar.
+     *
+     * @return The count of rooms.
+     */
+    public synchronized int roomsCount() {
+        return this.nightsByRoom.size();
+    }
+
+    /**
+     * Estimates the heap memory used by the calendar: the bitmaps, their map entries and boxed keys.
+     *
+     * @return The estimated footprint in bytes.
+     */
+    public synchronized long memoryFootprintBytes() {
+        long bitmapBytes = 16L + horizonWords * Long.BYTES; // array header and words
+        long entryBytes = 40L + 16L; // LinkedHashMap entry and boxed Integer key
+        return 64L + this.nightsByRoom.size() * (bitmapBytes + entryBytes);
+    }
+}
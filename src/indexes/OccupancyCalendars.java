@@ -0,0 +1,195 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+import models.Room;
+import repositories.Repositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The OccupancyCalendars class holds the occupancy calendar of every hotel. The calendars are built
+ * from the rooms and the active reservations and updated on every booking and cancellation. Their
+ * horizon rolls forward in steps of 64 nights, every step rebuilds the calendars from the reservations.
+ * The bookings and cancellations saved during a rebuild wait until the rebuilt calendars are published,
+ * so none of them is applied to the calendars being replaced.
+ */
+public class OccupancyCalendars {
+    private volatile Map<Integer, OccupancyCalendar> calendarsByHotel = new ConcurrentHashMap<>();
+    private volatile long startDay; // Epoch day of the first night covered by all calendars
+    private volatile long rollDay; // Epoch day which rolls the horizon forward, set once the calendars are rebuilt
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock(); // Listeners share, a rebuild owns
+
+    /**
+     * Listener maintaining the calendars' rooms.
+     */
+    private final IRepositoryListener<Room> roomsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Room room) {
+            rebuildLock.readLock().lock();
+            try {
+                for (OccupancyCalendar calendar : calendarsByHotel.values()) {
+                    if (calendar.getHotelId() != room.getHotelId()) {
+                        calendar.removeRoom(room.getId()); // the room was moved to another hotel
+                    }
+                }
+                calendarOf(room.getHotelId()).addRoom(room.getId());
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void deleted(Room room) {
+            rebuildLock.readLock().lock();
+            try {
+                calendarOf(room.getHotelId()).removeRoom(room.getId());
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    };
+
+    /**
+     * Listener maintaining the calendars' occupied nights.
+     */
+    private final IRepositoryListener<Reservation> reservationsListener = new IRepositoryListener<>() {
+        @Override
+        public void saved(Reservation reservation) {
+            rebuildLock.readLock().lock();
+            try {
+                apply(calendarsByHotel, startDay, reservation, !reservation.isCancelled());
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void deleted(Reservation reservation) {
+            rebuildLock.readLock().lock();
+            try {
+                apply(calendarsByHotel, startDay, reservation, false);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    };
+
+    /**
+     * Constructor that creates calendars starting at the given day.
+     *
+     * @param startDay The first night covered by the calendars.
+     */
+    public OccupancyCalendars(LocalDate startDay) {
+        this.startDay = startDay.toEpochDay();
+        this.rollDay = this.startDay + Long.SIZE;
+    }
+
+    public IRepositoryListener<Room> getRoomsListener() {
+        return roomsListener;
+    }
+
+    public IRepositoryListener<Reservation> getReservationsListener() {
+        return reservationsListener;
+    }
+
+    private OccupancyCalendar calendarOf(int hotelId) {
+        return calendarOf(this.calendarsByHotel, this.startDay, hotelId);
+    }
+
+    private static OccupancyCalendar calendarOf(Map<Integer, OccupancyCalendar> calendars, long startDay, int hotelId) {
+        return calendars.computeIfAbsent(hotelId, id -> new OccupancyCalendar(id, startDay));
+    }
+
+    // The nights of a stay are the days it starts on, a stay within a single day still takes its night
+    private static long firstNight(LocalDateTime from) {
+        return from.toLocalDate().toEpochDay();
+    }
+
+    private static long endNight(LocalDateTime from, LocalDateTime to) {
+        return Math.max(to.toLocalDate().toEpochDay(), firstNight(from) + 1);
+    }
+
+    private static void apply(Map<Integer, OccupancyCalendar> calendars, long startDay, Reservation reservation,
+                              boolean occupied) {
+        long fromDay = firstNight(reservation.getFromDate());
+        long toDay = endNight(reservation.getFromDate(), reservation.getToDate());
+        for (int roomId : reservation.getRoomsIds().keys()) {
+            Room room = Repositories.rooms().findById(roomId);
+            if (room == null) {
+                continue;
+            }
+            if (occupied) {
+                calendarOf(calendars, startDay, room.getHotelId()).occupy(roomId, fromDay, toDay);
+            } else {
+                calendarOf(calendars, startDay, room.getHotelId()).release(roomId, fromDay, toDay);
+            }
+        }
+    }
+
+    /**
+     * Rolls the horizon forward once the given day has left the first 64 nights, then rebuilds the
+     * calendars from the rooms and the active reservations and publishes them. Bookings and
+     * cancellations saved meanwhile wait for the rebuild, searches keep using the previous calendars.
+     *
+     * @param today The current day.
+     */
+    public void advanceTo(LocalDate today) {
+        this.rebuildLock.writeLock().lock();
+        try {
+            long steps = (today.toEpochDay() - this.startDay) / Long.SIZE;
+            if (steps <= 0) {
+                return;
+            }
+            long rolledStartDay = this.startDay + steps * Long.SIZE;
+            Map<Integer, OccupancyCalendar> rebuilt = new ConcurrentHashMap<>();
+            for (Room room : Repositories.rooms().findAll()) {
+                calendarOf(rebuilt, rolledStartDay, room.getHotelId()).addRoom(room.getId());
+            }
+            for (Reservation reservation : Repositories.reservations().findAll()) {
+                if (!reservation.isCancelled()) {
+                    apply(rebuilt, rolledStartDay, reservation, true);
+                }
+            }
+            this.startDay = rolledStartDay;
+            this.calendarsByHotel = rebuilt;
+            this.rollDay = rolledStartDay + Long.SIZE;
+        } finally {
+            this.rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the hotel's rooms with no occupied night during the stay [from, to).
+     *
+     * @param hotelId The ID of the hotel.
+     * @param from    The start of the stay.
+     * @param to      The end of the stay.
+     * @return IDs of the free rooms or null if the stay is outside the calendars' horizon.
+     */
+    public ArrayList<Integer> freeRooms(int hotelId, LocalDateTime from, LocalDateTime to) {
+        LocalDate today = LocalDate.now();
+        if (today.toEpochDay() >= this.rollDay) { // Searches take the lock only to roll the horizon
+            this.advanceTo(today);
+        }
+        OccupancyCalendar calendar = this.calendarOf(hotelId);
+        long fromDay = firstNight(from), toDay = endNight(from, to);
+        return calendar.covers(fromDay, toDay) ? calendar.freeRooms(fromDay, toDay) : null;
+    }
+
+    /**
+     * Gets the estimated memory footprint of a hotel's calendar.
+     *
+     * @param hotelId The ID of the hotel.
+     * @return The estimated footprint in bytes.
+     */
+    public long memoryFootprintBytes(int hotelId) {
+        OccupancyCalendar calendar = this.calendarsByHotel.get(hotelId);
+        return calendar == null ? 0 : calendar.memoryFootprintBytes();
+    }
+}
@@ -0,0 +1,212 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The RoomAvailabilityIndex class keeps the occupied periods of every room in a TreeMap sorted by
+ * start date. The periods of a room never overlap, so whether [from, to) is free is decided by the
+ * single period starting right before "to", which makes every check logarithmic in the count of
+ * the room's reservations. The index is maintained from the saved and deleted reservations.
+ */
+public class RoomAvailabilityIndex implements IRepositoryListener<Reservation> {
+    private final Map<Integer, TreeMap<LocalDateTime, Period>> occupiedByRoom = new ConcurrentHashMap<>();
+    private final Map<Integer, Indexed> indexedReservations = new ConcurrentHashMap<>(); // Indexed version by ID
+
+    /**
+     * An occupied period [from, to) of a room.
+     */
+    private static final class Period {
+        private final LocalDateTime to;
+        private final int reservationId;
+
+        private Period(LocalDateTime to, int reservationId) {
+            this.to = to;
+            this.reservationId = reservationId;
+        }
+    }
+
+    /**
+     * The indexed version of a reservation, kept to release its periods after it is changed.
+     */
+    private static final class Indexed {
+        private final LocalDateTime from;
+        private final int[] roomIds;
+
+        private Indexed(LocalDateTime from, int[] roomIds) {
+            this.from = from;
+            this.roomIds = roomIds;
+        }
+    }
+
+    private TreeMap<LocalDateTime, Period> periodsOf(int roomId) {
+        return this.occupiedByRoom.computeIfAbsent(roomId, id -> new TreeMap<>());
+    }
+
+    private static boolean isFree(TreeMap<LocalDateTime, Period> periods, LocalDateTime from, LocalDateTime to) {
+        Map.Entry<LocalDateTime, Period> previous = periods.lowerEntry(to);
+        return previous == null || !previous.getValue().to.isAfter(from);
+    }
+
+    /**
+     * Checks if a room is free for the whole period [from, to).
+     *
+     * @param roomId the ID of the room
+     * @param from   the start of the period
+     * @param to     the end of the period
+     * @return true if no reservation of the room overlaps the period, false otherwise
+     */
+    public boolean isFree(int roomId, LocalDateTime from, LocalDateTime to) {
+        TreeMap<LocalDateTime, Period> periods = this.occupiedByRoom.get(roomId);
+        if (periods == null) {
+            return true;
+        }
+        synchronized (periods) {
+            return isFree(periods, from, to);
+        }
+    }
+
+    /**
+     * Finds the rooms which are free for the whole period [from, to).
+     *
+     * @param roomIds the IDs of the candidate rooms
+     * @param from    the start of the period
+     * @param to      the end of the period
+     * @return the IDs of the free rooms in the order of the candidates
+     */
+    public ArrayList<Integer> freeRooms(Collection<Integer> roomIds, LocalDateTime from, LocalDateTime to) {
+        ArrayList<Integer> free = new ArrayList<>();
+        for (Integer roomId : new LinkedHashSet<>(roomIds)) {
+            if (this.isFree(roomId, from, to)) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Occupies [from, to) of a room if the period is still free.
+     *
+     * @param roomId        the ID of the room
+     * @param from          the start of the period
+     * @param to            the end of the period
+     * @param reservationId the ID of the reservation occupying the room
+     * @return true if the period was free and is now occupied, false otherwise
+     */
+    public boolean occupy(int roomId, LocalDateTime from, LocalDateTime to, int reservationId) {
+        TreeMap<LocalDateTime, Period> periods = this.periodsOf(roomId);
+        synchronized (periods) {
+            if (!isFree(periods, from, to)) {
+                return false;
+            }
+            periods.put(from, new Period(to, reservationId));
+            return true;
+        }
+    }
+
+    /**
+     * Frees the period of a room that starts at "from" if it belongs to the given reservation.
+     *
+     * @param roomId        the ID of the room
+     * @param from          the start of the period
+     * @param reservationId the ID of the reservation occupying the room
+     */
+    public void release(int roomId, LocalDateTime from, int reservationId) {
+        TreeMap<LocalDateTime, Period> periods = this.occupiedByRoom.get(roomId);
+        if (periods == null) {
+            return;
+        }
+        synchronized (periods) {
+            Period period = periods.get(from);
+            if (period != null && period.reservationId == reservationId) {
+                periods.remove(from);
+            }
+        }
+    }
+
+    /**
+     * Gets the count of occupied periods of a room.
+     *
+     * @param roomId the ID of the room
+     * @return the count of occupied periods
+     */
+    public int occupiedCount(int roomId) {
+        TreeMap<LocalDateTime, Period> periods = this.occupiedByRoom.get(roomId);
+        if (periods == null) {
+            return 0;
+        }
+        synchronized (periods) {
+            return periods.size();
+        }
+    }
+
+    /**
+     * Checks if a room is occupied by any reservation other than the given one, e.g. before the room is
+     * marked as free when the reservation is cancelled.
+     *
+     * @param roomId        the ID of the room
+     * @param reservationId the ID of the reservation to leave out
+     * @return true if another reservation occupies a period of the room, false otherwise
+     */
+    public boolean isOccupiedByOthers(int roomId, int reservationId) {
+        TreeMap<LocalDateTime, Period> periods = this.occupiedByRoom.get(roomId);
+        if (periods == null) {
+            return false;
+        }
+        synchronized (periods) {
+            for (Period period : periods.values()) {
+                if (period.reservationId != reservationId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private void releaseAll(int reservationId, Indexed indexed) {
+        for (int roomId : indexed.roomIds) {
+            this.release(roomId, indexed.from, reservationId);
+        }
+    }
+
+    @Override
+    public void saved(Reservation reservation) {
+        Indexed indexed = new Indexed(reservation.getFromDate(), reservation.getRoomsIds().keys());
+        Indexed previous = this.indexedReservations.remove(reservation.getId());
+        // Release the old periods only if they changed, so they cannot be taken in the meantime
+        if (previous != null && (reservation.isCancelled() || !previous.from.equals(indexed.from)
+                || !Arrays.equals(previous.roomIds, indexed.roomIds))) {
+            this.releaseAll(reservation.getId(), previous);
+        }
+        if (reservation.isCancelled()) {
+            return;
+        }
+        for (int roomId : indexed.roomIds) {
+            TreeMap<LocalDateTime, Period> periods = this.periodsOf(roomId);
+            synchronized (periods) {
+                Period period = periods.get(indexed.from);
+                if (period == null || period.reservationId == reservation.getId()) {
+                    periods.put(indexed.from, new Period(reservation.getToDate(), reservation.getId()));
+                }
+            }
+        }
+        this.indexedReservations.put(reservation.getId(), indexed);
+    }
+
+    @Override
+    public void deleted(Reservation reservation) {
+        Indexed previous = this.indexedReservations.remove(reservation.getId());
+        if (previous != null) {
+            this.releaseAll(reservation.getId(), previous);
+        }
+    }
+}
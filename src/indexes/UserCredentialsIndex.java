@@ -0,0 +1,113 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.User;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The UserCredentialsIndex class maps every username and email to the ID of its user in hash maps, so a
+ * login finds its user and a registration detects a taken username or email in constant time instead
+ * of scanning all users. The index is rebuilt from the users repository at startup and maintained from
+ * the saved and deleted users; a registration claims its username and email before the user is saved,
+ * so two concurrent registrations cannot take the same ones.
+ */
+public class UserCredentialsIndex implements IRepositoryListener<User> {
+    private final Map<String, Integer> idsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+    private final Map<Integer, Indexed> indexedUsers = new ConcurrentHashMap<>(); // Indexed version by ID
+
+    /**
+     * The indexed version of a user, kept to remove its old keys after it is changed.
+     */
+    private static final class Indexed {
+        private final String username;
+        private final String email;
+
+        private Indexed(String username, String email) {
+            this.username = username;
+            this.email = email;
+        }
+    }
+
+    /**
+     * Finds the ID of the user with the given username.
+     *
+     * @param username the username
+     * @return the ID of the user or null if there is no user with this username
+     */
+    public Integer findIdByUsername(String username) {
+        return username == null ? null : this.idsByUsername.get(username);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return username != null && this.idsByUsername.containsKey(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return email != null && this.idsByEmail.containsKey(email);
+    }
+
+    /**
+     * Claims a username and an email for a new user before it is saved.
+     *
+     * @param username the username of the new user
+     * @param email    the email of the new user
+     * @param userId   the ID of the new user
+     * @return true if both were free and are claimed now, false if any of them is taken
+     */
+    public boolean claim(String username, String email, int userId) {
+        if (this.idsByUsername.putIfAbsent(username, userId) != null) {
+            return false;
+        }
+        if (this.idsByEmail.putIfAbsent(email, userId) != null) {
+            this.idsByUsername.remove(username, userId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the claim of a new user which was not saved.
+     *
+     * @param username the claimed username
+     * @param email    the claimed email
+     * @param userId   the ID of the new user
+     */
+    public void release(String username, String email, int userId) {
+        this.idsByUsername.remove(username, userId);
+        this.idsByEmail.remove(email, userId);
+    }
+
+    private void remove(int userId, Indexed indexed) {
+        if (indexed.username != null) {
+            this.idsByUsername.remove(indexed.username, userId);
+        }
+        if (indexed.email != null) {
+            this.idsByEmail.remove(indexed.email, userId);
+        }
+    }
+
+    @Override
+    public void saved(User user) {
+        Indexed previous = this.indexedUsers.put(user.getId(), new Indexed(user.getUsername(), user.getEmail()));
+        if (previous != null) {
+            this.remove(user.getId(), previous);
+        }
+        if (user.getUsername() != null) {
+            this.idsByUsername.put(user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            this.idsByEmail.put(user.getEmail(), user.getId());
+        }
+    }
+
+    @Override
+    public void deleted(User user) {
+        Indexed previous = this.indexedUsers.remove(user.getId());
+        if (previous != null) {
+            this.remove(user.getId(), previous);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package indexes;
+
+import interfaces.IRepositoryListener;
+import models.Reservation;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The UserReservationsIndex class maps every user ID to the IDs of the reservations booked by the user,
+ * so a user's bookings are found in time proportional to their count instead of scanning all reservations.
+ * The IDs of a user are kept sorted, in the same order as the reservations repository. The index is
+ * maintained from the saved and deleted reservations.
+ */
+public class UserReservationsIndex implements IRepositoryListener<Reservation> {
+    private final Map<Integer, NavigableSet<Integer>> reservationIdsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> indexedUsers = new ConcurrentHashMap<>(); // Indexed user ID by reservation ID
+
+    /**
+     * Finds the IDs of the reservations booked by a user, active and cancelled.
+     *
+     * @param userId the ID of the user
+     * @return the IDs of the user's reservations in ascending order
+     */
+    public ArrayList<Integer> reservationIdsOf(int userId) {
+        NavigableSet<Integer> reservationIds = this.reservationIdsByUser.get(userId);
+        return reservationIds == null ? new ArrayList<>() : new ArrayList<>(reservationIds);
+    }
+
+    /**
+     * Gets the count of reservations booked by a user.
+     *
+     * @param userId the ID of the user
+     * @return the count of the user's reservations
+     */
+    public int countOf(int userId) {
+        NavigableSet<Integer> reservationIds = this.reservationIdsByUser.get(userId);
+        return reservationIds == null ? 0 : reservationIds.size();
+    }
+
+    private void remove(int reservationId, int userId) {
+        this.reservationIdsByUser.computeIfPresent(userId, (id, reservationIds) -> {
+            reservationIds.remove(reservationId);
+            return reservationIds.isEmpty() ? null : reservationIds;
+        });
+    }
+
+    @Override
+    public void saved(Reservation reservation) {
+        int userId = reservation.getBookedById();
+        Integer previous = this.indexedUsers.put(reservation.getId(), userId);
+        if (previous != null && previous != userId) {
+            this.remove(reservation.getId(), previous);
+        }
+        this.reservationIdsByUser.compute(userId, (id, reservationIds) -> {
+            NavigableSet<Integer> ids = reservationIds == null ? new ConcurrentSkipListSet<>() : reservationIds;
+            ids.add(reservation.getId());
+            return ids;
+        });
+    }
+
+    @Override
+    public void deleted(Reservation reservation) {
+        Integer previous = this.indexedUsers.remove(reservation.getId());
+        if (previous != null) {
+            this.remove(reservation.getId(), previous);
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package interfaces;
 
+import analytics.RevenueMetrics;
+import indexes.AggregateCounters;
+import models.Hotel;
+import models.Reservation;
+import models.Room;
 import types.RoomType;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.EnumMap;
+import java.util.EnumSet;
 
 public interface IAdminManageable {
-    void showAllHotels();
-    void viewAllBookings(int hotelId);
-    double getTotalIncome(int hotelId) throws RuntimeException;
-    double getCancellationFees(int hotelId);
+    ArrayList<Hotel> showAllHotels();
+    ArrayList<Reservation> viewAllBookings(int hotelId);
+    long getTotalIncome(int hotelId) throws RuntimeException;
+    long getCancellationFees(int hotelId);
+    EnumMap<RoomType, AggregateCounters> getBookingStatistics(int hotelId, LocalDate from, LocalDate to);
+    ArrayList<Integer> verifyBookingStatistics();
+    RevenueMetrics getRevenueMetrics(int hotelId, LocalDate from, LocalDate to, EnumSet<RoomType> types);
+    ArrayList<RevenueMetrics> getRevenueMetrics(LocalDate from, LocalDate to, EnumSet<RoomType> types);
     boolean addRoom(int roomId, int hotelId, RoomType type, ArrayList<String> amenities, int maximumOccupancy,
-                    double pricePerNight);
-    void showAllHotelRooms(int hotelId);
+                    long pricePerNight);
+    ArrayList<Room> showAllHotelRooms(int hotelId);
     boolean removeRoom(int roomId);
     boolean updateRoom(int roomId, int hotelId, RoomType type, ArrayList<String> amenities, int maximumOccupancy,
-                       double pricePerNight);
+                       long pricePerNight);
 }
\ No newline at end of file
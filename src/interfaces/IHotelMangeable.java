@@ -1,16 +1,18 @@
 package interfaces;
 
+import booking.BookingResult;
 import models.Hotel;
-import models.Reservation;
+import models.Room;
 import models.User;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 public interface IHotelMangeable {
-    void viewAllRooms(Hotel currentHotel);
-    void recommendRooms(LocalDateTime fromDate, LocalDateTime toDate, int guestsCount, Hotel currentHotel);
-    void bookRoom(int id, Hotel currentHotel, LocalDateTime fromDate, LocalDateTime toDate, User bookedBy, double cancellationFees) throws IOException;
+    ArrayList<Room> viewAllRooms(Hotel currentHotel);
+    ArrayList<Room> recommendRooms(LocalDateTime fromDate, LocalDateTime toDate, int guestsCount, Hotel currentHotel);
+    BookingResult bookRoom(int id, Hotel currentHotel, LocalDateTime fromDate, LocalDateTime toDate, User bookedBy, long cancellationFees) throws IOException;
     void freeRooms(Hotel currentHotel) throws IOException;
-    void cancelReservation(int reservationId, User currentUser, Hotel currentHotel) throws RuntimeException;
+    BookingResult cancelReservation(int reservationId, User currentUser, Hotel currentHotel) throws RuntimeException;
 }
\ No newline at end of file
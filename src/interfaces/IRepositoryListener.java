@@ -0,0 +1,6 @@
+package interfaces;
+
+public interface IRepositoryListener<T> {
+    void saved(T obj);
+    void deleted(T obj);
+}
@@ -0,0 +1,10 @@
+package interfaces;
+
+import server.ApiRequest;
+import server.ApiResponse;
+
+import java.io.IOException;
+
+public interface IRouteHandler {
+    ApiResponse handle(ApiRequest request) throws IOException;
+}
@@ -1,5 +1,6 @@
 package interfaces;
 
 public interface ITransactionManageable {
-    boolean makeTransaction(int debitCardId, double moneyToBePayed);
+    boolean makeTransaction(int debitCardId, long moneyToBePayed);
+    boolean revertTransaction(int debitCardId, long moneyPayed);
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package interfaces;
 
+import models.Reservation;
 import models.User;
 
+import java.util.ArrayList;
+
 public interface IUserManageable {
     boolean register(String[] credentials);
     boolean login(String[] credentials, User loggedIn);
     void logout();
-    void showAllBookings(User currentUser);
-    void loadProfile(User currentUser);
+    ArrayList<Reservation> showAllBookings(User currentUser);
+    ArrayList<Reservation> loadProfile(User currentUser);
 }
\ No newline at end of file
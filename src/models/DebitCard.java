@@ -2,15 +2,15 @@ package models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.databind.util.StdDateFormat;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import utils.LocalDateTimeMapDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import utils.JsonMappers;
+import utils.Money;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The DebitCard class represents a debit card with fields for ID, IBAN, creation and expiration dates, balance, and owner ID.
@@ -19,12 +19,12 @@ import java.util.Random;
 @JsonPropertyOrder({"id", "iban", "creationDate", "expirationDate", "balance", "ownerId"})
 @JsonRootName("DebitCard")
 public class DebitCard implements Comparable<DebitCard> {
-    private static int debitCardNo = 0; // Static counter for generating unique IDs
+    private static final AtomicInteger debitCardNo = new AtomicInteger(); // Static counter for generating unique IDs
     private int id; // Unique identifier for the debit card
     private String iban; // International Bank Account Number
     private LocalDateTime creationDate; // Date and time when the card was created
     private LocalDateTime expirationDate; // Date and time when the card will expire
-    private double balance; // Current balance of the card
+    private long balance; // Current balance of the card in cents
     private Integer ownerId; // Identifier of the card owner
 
     /*
@@ -32,7 +32,16 @@ public class DebitCard implements Comparable<DebitCard> {
      Note: This method is for learning purposes and may not ensure unique IDs in a real-world scenario.
      */
     private int generateId() {
-        return ++DebitCard.debitCardNo;
+        return DebitCard.debitCardNo.incrementAndGet();
+    }
+
+    /**
+     * Makes sure generated IDs continue after the given one, e.g. after the stored debit cards were loaded.
+     *
+     * @param id The greatest ID already in use.
+     */
+    public static void reserveIdsUpTo(int id) {
+        DebitCard.debitCardNo.accumulateAndGet(id, Math::max);
     }
 
     /**
@@ -54,7 +63,7 @@ public class DebitCard implements Comparable<DebitCard> {
      */
     public DebitCard() {
         this.setIban(this.generateIBAN());
-        this.setBalance(0.0);
+        this.setBalance(Money.zero);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime afterFourYears = now.plusYears(4);
         this.setCreationDate(now);
@@ -66,10 +75,10 @@ public class DebitCard implements Comparable<DebitCard> {
     /**
      * Constructor that initializes a new debit card with the specified balance and owner ID.
      *
-     * @param balance The initial balance of the debit card.
+     * @param balance The initial balance of the debit card in cents.
      * @param owner The ID of the card owner.
      */
-    public DebitCard(double balance, Integer owner) {
+    public DebitCard(long balance, Integer owner) {
         this.setIban(this.generateIBAN());
         this.setBalance(balance);
         LocalDateTime now = LocalDateTime.now();
@@ -84,10 +93,10 @@ public class DebitCard implements Comparable<DebitCard> {
      * Constructor that initializes a new debit card with the specified IBAN, balance, and owner ID.
      *
      * @param iban The IBAN of the debit card.
-     * @param balance The initial balance of the debit card.
+     * @param balance The initial balance of the debit card in cents.
      * @param owner The ID of the card owner.
      */
-    public DebitCard(String iban, double balance, Integer owner) {
+    public DebitCard(String iban, long balance, Integer owner) {
         this.setIban(iban);
         this.setBalance(balance);
         LocalDateTime now = LocalDateTime.now();
@@ -105,7 +114,7 @@ public class DebitCard implements Comparable<DebitCard> {
      * @param iban The IBAN of the debit card.
      * @param creationDate The creation date of the debit card.
      * @param expirationDate The expiration date of the debit card.
-     * @param balance The current balance of the debit card.
+     * @param balance The current balance of the debit card in cents.
      * @param owner The ID of the card owner.
      */
     @JsonCreator
@@ -113,7 +122,7 @@ public class DebitCard implements Comparable<DebitCard> {
                      @JsonProperty("iban") String iban,
                      @JsonProperty("creationDate") LocalDateTime creationDate,
                      @JsonProperty("expirationDate") LocalDateTime expirationDate,
-                     @JsonProperty("balance") double balance,
+                     @JsonProperty("balance") @JsonDeserialize(using = Money.Deserializer.class) long balance,
                      @JsonProperty("ownerId") Integer owner) {
         this.setId(id);
         this.setIban(iban);
@@ -202,19 +211,20 @@ public class DebitCard implements Comparable<DebitCard> {
     /**
      * Gets the current balance of the debit card.
      *
-     * @return The balance of the debit card.
+     * @return The balance of the debit card in cents.
      */
-    public double getBalance() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getBalance() {
         return balance;
     }
 
     /**
      * Sets the balance of the debit card.
      *
-     * @param balance The balance to set.
+     * @param balance The balance to set in cents.
      */
     @JsonSetter("balance")
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
@@ -244,15 +254,8 @@ public class DebitCard implements Comparable<DebitCard> {
      */
     @Override
     public String toString() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(Map.class, new LocalDateTimeMapDeserializer());
-        mapper.registerModule(module);
-
         try {
-            return mapper.writeValueAsString(this);
+            return JsonMappers.writerFor(DebitCard.class).writeValueAsString(this);
         } catch (JsonProcessingException ex) {
             ex.fillInStackTrace();
             return "{}";
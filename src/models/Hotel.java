@@ -2,9 +2,14 @@ package models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import utils.IntSet;
+import utils.JsonMappers;
+import utils.Money;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Hotel class represents a hotel with fields for ID, name, address, all room IDs, booked room IDs, and incomes.
@@ -13,13 +18,13 @@ import java.util.ArrayList;
 @JsonPropertyOrder({"id", "name", "address", "allRoomsIds", "bookedRoomsIds", "incomes"})
 @JsonRootName("Hotel")
 public class Hotel implements Comparable<Hotel> {
-    private static int hotelNo; // Static counter for generating unique IDs
+    private static final AtomicInteger hotelNo = new AtomicInteger(); // Static counter for generating unique IDs
     private int id; // Unique identifier for the hotel
     private String name; // Name of the hotel
     private String address; // Address of the hotel
-    private ArrayList<Integer> allRoomsIds; // List of all room IDs in the hotel
-    private ArrayList<Integer> bookedRoomsIds; // List of booked room IDs in the hotel
-    private double incomes; // Total incomes of the hotel
+    private IntSet allRoomsIds; // IDs of all rooms in the hotel
+    private IntSet bookedRoomsIds; // IDs of the booked rooms in the hotel
+    private long incomes; // Total incomes of the hotel in cents
 
     /**
      * Generates a unique ID for the hotel.
@@ -28,7 +33,16 @@ public class Hotel implements Comparable<Hotel> {
      * @return A unique ID.
      */
     private int generateId() {
-        return ++Hotel.hotelNo;
+        return Hotel.hotelNo.incrementAndGet();
+    }
+
+    /**
+     * Makes sure generated IDs continue after the given one, e.g. after the stored hotels were loaded.
+     *
+     * @param id The greatest ID already in use.
+     */
+    public static void reserveIdsUpTo(int id) {
+        Hotel.hotelNo.accumulateAndGet(id, Math::max);
     }
 
     /**
@@ -38,9 +52,9 @@ public class Hotel implements Comparable<Hotel> {
         this.setId(this.generateId());
         this.setName("");
         this.setAddress("");
-        this.setIncomes(0.0);
-        this.setAllRoomsIds(new ArrayList<>());
-        this.setBookedRoomsIds(new ArrayList<>());
+        this.setIncomes(Money.zero);
+        this.setAllRoomsIds(new IntSet());
+        this.setBookedRoomsIds(new IntSet());
     }
 
     /**
@@ -54,13 +68,13 @@ public class Hotel implements Comparable<Hotel> {
         this.setId(this.generateId());
         this.setName(name);
         this.setAddress(address);
-        ArrayList<Integer> rids = new ArrayList<>();
+        IntSet rids = new IntSet(allRooms.size());
         for (Room room : allRooms) {
             rids.add(room.getId());
         }
         this.setAllRoomsIds(rids);
-        this.setBookedRoomsIds(new ArrayList<>());
-        this.setIncomes(0.0);
+        this.setBookedRoomsIds(new IntSet());
+        this.setIncomes(Money.zero);
     }
 
     /**
@@ -69,17 +83,17 @@ public class Hotel implements Comparable<Hotel> {
      * @param id            The unique ID of the hotel.
      * @param name          The name of the hotel.
      * @param address       The address of the hotel.
-     * @param allRooms      The list of all room IDs in the hotel.
-     * @param bookedRooms   The list of booked room IDs in the hotel.
-     * @param incomes       The total incomes of the hotel.
+     * @param allRooms      The IDs of all rooms in the hotel.
+     * @param bookedRooms   The IDs of the booked rooms in the hotel.
+     * @param incomes       The total incomes of the hotel in cents.
      */
     @JsonCreator
     public Hotel(@JsonProperty("id") int id,
                  @JsonProperty("name") String name,
                  @JsonProperty("address") String address,
-                 @JsonProperty("allRoomsIds") ArrayList<Integer> allRooms,
-                 @JsonProperty("bookedRoomsIds") ArrayList<Integer> bookedRooms,
-                 @JsonProperty("incomes") double incomes) {
+                 @JsonProperty("allRoomsIds") IntSet allRooms,
+                 @JsonProperty("bookedRoomsIds") IntSet bookedRooms,
+                 @JsonProperty("incomes") @JsonDeserialize(using = Money.Deserializer.class) long incomes) {
         this.setId(id);
         this.setName(name);
         this.setAddress(address);
@@ -146,59 +160,60 @@ public class Hotel implements Comparable<Hotel> {
     }
 
     /**
-     * Gets the list of all room IDs in the hotel.
+     * Gets the IDs of all rooms in the hotel.
      *
-     * @return The list of all room IDs.
+     * @return The set of all room IDs.
      */
-    public ArrayList<Integer> getAllRoomsIds() {
+    public IntSet getAllRoomsIds() {
         return allRoomsIds;
     }
 
     /**
-     * Sets the list of all room IDs in the hotel.
+     * Sets the IDs of all rooms in the hotel.
      *
-     * @param allRoomsIds The list of all room IDs to set.
+     * @param allRoomsIds The set of all room IDs to set.
      */
     @JsonSetter("allRoomsIds")
-    public void setAllRoomsIds(ArrayList<Integer> allRoomsIds) {
+    public void setAllRoomsIds(IntSet allRoomsIds) {
         this.allRoomsIds = allRoomsIds;
     }
 
     /**
-     * Gets the list of booked room IDs in the hotel.
+     * Gets the IDs of the booked rooms in the hotel.
      *
-     * @return The list of booked room IDs.
+     * @return The set of booked room IDs.
      */
-    public ArrayList<Integer> getBookedRoomsIds() {
+    public IntSet getBookedRoomsIds() {
         return bookedRoomsIds;
     }
 
     /**
-     * Sets the list of booked room IDs in the hotel.
+     * Sets the IDs of the booked rooms in the hotel.
      *
-     * @param bookedRoomsIds The list of booked room IDs to set.
+     * @param bookedRoomsIds The set of booked room IDs to set.
      */
     @JsonSetter("bookedRoomsIds")
-    public void setBookedRoomsIds(ArrayList<Integer> bookedRoomsIds) {
+    public void setBookedRoomsIds(IntSet bookedRoomsIds) {
         this.bookedRoomsIds = bookedRoomsIds;
     }
 
     /**
      * Gets the total incomes of the hotel.
      *
-     * @return The incomes of the hotel.
+     * @return The incomes of the hotel in cents.
      */
-    public double getIncomes() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getIncomes() {
         return incomes;
     }
 
     /**
      * Sets the total incomes of the hotel.
      *
-     * @param incomes The incomes to set.
+     * @param incomes The incomes to set in cents.
      */
     @JsonSetter("incomes")
-    public void setIncomes(double incomes) {
+    public void setIncomes(long incomes) {
         this.incomes = incomes;
     }
 
@@ -210,7 +225,7 @@ public class Hotel implements Comparable<Hotel> {
     @Override
     public String toString() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return JsonMappers.writerFor(Hotel.class).writeValueAsString(this);
         } catch (JsonProcessingException ex) {
             ex.fillInStackTrace();
             return "{}";
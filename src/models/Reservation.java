@@ -2,15 +2,15 @@ package models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.databind.util.StdDateFormat;
-import utils.LocalDateTimeMapDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import utils.IntLongMap;
+import utils.JsonMappers;
+import utils.Money;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Reservation class represents a hotel reservation with fields for ID, dates, booked rooms,
@@ -20,14 +20,14 @@ import java.util.Map;
 @JsonPropertyOrder({"id", "fromDate", "toDate", "roomsIds", "bookedById", "cancellationFees", "totalPrice", "isCancelled"})
 @JsonRootName("Reservation")
 public class Reservation implements Comparable<Reservation> {
-    private static int reservationNo = 0; // Static counter for generating unique reservation IDs
+    private static final AtomicInteger reservationNo = new AtomicInteger(); // Static counter for generating unique reservation IDs
     private int id; // Unique identifier for the reservation
     private LocalDateTime fromDate; // Start date of the reservation
     private LocalDateTime toDate; // End date of the reservation
-    private Map<Integer, Double> roomsIds; // Map of room IDs to booking prices
+    private IntLongMap roomsIds; // Map of room IDs to booking prices in cents
     private int bookedById; // ID of the user who booked the reservation
-    private double cancellationFees; // Fees charged if the reservation is cancelled
-    private double totalPrice; // Total price of the reservation
+    private long cancellationFees; // Fees charged if the reservation is cancelled in cents
+    private long totalPrice; // Total price of the reservation in cents
     private boolean isCancelled; // Flag indicating if the reservation is cancelled
 
     /**
@@ -37,7 +37,16 @@ public class Reservation implements Comparable<Reservation> {
      * @return A unique ID.
      */
     private int generateId() {
-        return ++Reservation.reservationNo;
+        return Reservation.reservationNo.incrementAndGet();
+    }
+
+    /**
+     * Makes sure generated IDs continue after the given one, e.g. after the stored reservations were loaded.
+     *
+     * @param id The greatest ID already in use.
+     */
+    public static void reserveIdsUpTo(int id) {
+        Reservation.reservationNo.accumulateAndGet(id, Math::max);
     }
 
     /**
@@ -46,10 +55,10 @@ public class Reservation implements Comparable<Reservation> {
     public Reservation() {
         this.setFromDate(LocalDateTime.now());
         this.setToDate(LocalDateTime.now());
-        this.setRoomsIds(new HashMap<>());
+        this.setRoomsIds(new IntLongMap());
         this.setBookedById(0);
-        this.setCancellationFees(0.0);
-        this.setTotalPrice(0.0);
+        this.setCancellationFees(Money.zero);
+        this.setTotalPrice(Money.zero);
         this.setCancelled(false);
         this.setId(this.generateId());
     }
@@ -60,24 +69,23 @@ public class Reservation implements Comparable<Reservation> {
      *
      * @param fromDate         The start date of the reservation.
      * @param toDate           The end date of the reservation.
-     * @param rooms            The map of room IDs to booking prices.
+     * @param rooms            The map of room IDs to booking prices in cents.
      * @param bookedBy         The user who booked the reservation.
-     * @param cancellationFees The fees charged if the reservation is cancelled.
+     * @param cancellationFees The fees charged if the reservation is cancelled in cents.
      * @param isCancelled      The cancellation status of the reservation.
      */
     public Reservation(LocalDateTime fromDate,
                        LocalDateTime toDate,
-                       Map<Integer, Double> rooms,
+                       IntLongMap rooms,
                        User bookedBy,
-                       double cancellationFees,
+                       long cancellationFees,
                        boolean isCancelled) {
         this.setFromDate(fromDate);
         this.setToDate(toDate);
         this.setRoomsIds(rooms);
         this.setBookedById(bookedBy.getId());
         this.setCancellationFees(cancellationFees);
-        int days = toDate.getDayOfYear() - fromDate.getDayOfYear();
-        this.setTotalPrice(this.calculateTotalPrice(days));
+        this.setTotalPrice(this.calculateTotalPrice(nightsBetween(fromDate, toDate)));
         this.setCancelled(isCancelled);
         this.setId(this.generateId());
     }
@@ -87,21 +95,20 @@ public class Reservation implements Comparable<Reservation> {
      *
      * @param fromDate         The start date of the reservation.
      * @param toDate           The end date of the reservation.
-     * @param cancellationFees The fees charged if the reservation is cancelled.
+     * @param cancellationFees The fees charged if the reservation is cancelled in cents.
      * @param isCancelled      The cancellation status of the reservation.
      */
     public Reservation(LocalDateTime fromDate,
                        LocalDateTime toDate,
-                       double cancellationFees,
+                       long cancellationFees,
                        boolean isCancelled) {
         this.setId(this.generateId());
         this.setFromDate(fromDate);
         this.setToDate(toDate);
-        this.setRoomsIds(new HashMap<>());
+        this.setRoomsIds(new IntLongMap());
         this.setBookedById(0);
         this.setCancellationFees(cancellationFees);
-        int days = toDate.getDayOfYear() - fromDate.getDayOfYear();
-        this.setTotalPrice(this.calculateTotalPrice(days));
+        this.setTotalPrice(this.calculateTotalPrice(nightsBetween(fromDate, toDate)));
         this.setCancelled(isCancelled);
     }
 
@@ -111,20 +118,22 @@ public class Reservation implements Comparable<Reservation> {
      * @param id                The unique ID of the reservation.
      * @param fromDate          The start date of the reservation.
      * @param toDate            The end date of the reservation.
-     * @param rooms             The map of room IDs to booking prices.
+     * @param rooms             The map of room IDs to booking prices in cents.
      * @param bookedBy          The ID of the user who booked the reservation.
-     * @param cancellationFees  The cancellation fees.
-     * @param totalPrice        The total price of the reservation.
+     * @param cancellationFees  The cancellation fees in cents.
+     * @param totalPrice        The total price of the reservation in cents.
      * @param isCancelled       The cancellation status of the reservation.
      */
     @JsonCreator
     public Reservation(@JsonProperty("id") int id,
                        @JsonProperty("fromDate") LocalDateTime fromDate,
                        @JsonProperty("toDate") LocalDateTime toDate,
-                       @JsonProperty("roomsIds") Map<Integer, Double> rooms,
+                       @JsonProperty("roomsIds") @JsonDeserialize(using = Money.AmountsDeserializer.class)
+                       IntLongMap rooms,
                        @JsonProperty("bookedById") int bookedBy,
-                       @JsonProperty("cancellationFees") double cancellationFees,
-                       @JsonProperty("totalPrice") double totalPrice,
+                       @JsonProperty("cancellationFees") @JsonDeserialize(using = Money.Deserializer.class)
+                       long cancellationFees,
+                       @JsonProperty("totalPrice") @JsonDeserialize(using = Money.Deserializer.class) long totalPrice,
                        @JsonProperty("isCancelled") boolean isCancelled) {
         this.setId(id);
         this.setFromDate(fromDate);
@@ -196,19 +205,20 @@ public class Reservation implements Comparable<Reservation> {
     /**
      * Gets the map of room IDs to booking prices.
      *
-     * @return The map of room IDs to booking prices.
+     * @return The map of room IDs to booking prices in cents.
      */
     @JsonSetter("roomsIds")
-    public Map<Integer, Double> getRoomsIds() {
+    @JsonSerialize(using = Money.AmountsSerializer.class)
+    public IntLongMap getRoomsIds() {
         return roomsIds;
     }
 
     /**
      * Sets the map of room IDs to booking prices.
      *
-     * @param roomsIds The map of room IDs to booking prices to set.
+     * @param roomsIds The map of room IDs to booking prices in cents to set.
      */
-    public void setRoomsIds(Map<Integer, Double> roomsIds) {
+    public void setRoomsIds(IntLongMap roomsIds) {
         this.roomsIds = roomsIds;
     }
 
@@ -234,38 +244,40 @@ public class Reservation implements Comparable<Reservation> {
     /**
      * Gets the cancellation fees of the reservation.
      *
-     * @return The cancellation fees of the reservation.
+     * @return The cancellation fees of the reservation in cents.
      */
-    public double getCancellationFees() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getCancellationFees() {
         return cancellationFees;
     }
 
     /**
      * Sets the cancellation fees of the reservation.
      *
-     * @param cancellationFees The cancellation fees to set.
+     * @param cancellationFees The cancellation fees to set in cents.
      */
     @JsonSetter("cancellationFees")
-    public void setCancellationFees(double cancellationFees) {
+    public void setCancellationFees(long cancellationFees) {
         this.cancellationFees = cancellationFees;
     }
 
     /**
      * Gets the total price of the reservation.
      *
-     * @return The total price of the reservation.
+     * @return The total price of the reservation in cents.
      */
-    public double getTotalPrice() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getTotalPrice() {
         return totalPrice;
     }
 
     /**
      * Sets the total price of the reservation.
      *
-     * @param totalPrice The total price to set.
+     * @param totalPrice The total price to set in cents.
      */
     @JsonSetter("totalPrice")
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(long totalPrice) {
         this.totalPrice = totalPrice;
     }
 
@@ -288,16 +300,27 @@ public class Reservation implements Comparable<Reservation> {
         isCancelled = cancelled;
     }
 
+    /**
+     * Counts the nights of a stay by calendar days, so a stay across New Year is counted correctly.
+     *
+     * @param fromDate The start date of the stay.
+     * @param toDate   The end date of the stay.
+     * @return The number of nights.
+     */
+    public static int nightsBetween(LocalDateTime fromDate, LocalDateTime toDate) {
+        return (int) ChronoUnit.DAYS.between(fromDate.toLocalDate(), toDate.toLocalDate());
+    }
+
     /**
      * Calculates the total price of the reservation based on the number of days.
      *
      * @param days The number of days of the reservation.
-     * @return The total price of the reservation.
+     * @return The total price of the reservation in cents.
      */
-    public double calculateTotalPrice(int days) {
-        double total = 0.0;
-        for (Map.Entry<Integer, Double> bookedRoom : this.roomsIds.entrySet()) {
-            total += (bookedRoom.getValue() * days);
+    public long calculateTotalPrice(int days) {
+        long total = Money.zero;
+        for (int i = 0; i < this.roomsIds.size(); i++) {
+            total = Money.add(total, Money.times(this.roomsIds.valueAt(i), days));
         }
         return total;
     }
@@ -309,15 +332,8 @@ public class Reservation implements Comparable<Reservation> {
      */
     @Override
     public String toString() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(Map.class, new LocalDateTimeMapDeserializer());
-        mapper.registerModule(module);
-
         try {
-            return mapper.writeValueAsString(this);
+            return JsonMappers.writerFor(Reservation.class).writeValueAsString(this);
         } catch (JsonProcessingException ex) {
             ex.fillInStackTrace();
             return "{}";
@@ -348,13 +364,12 @@ public class Reservation implements Comparable<Reservation> {
         }
 
         // Compare roomsIds map
-        for (Map.Entry<Integer, Double> currentRoomId : this.getRoomsIds().entrySet()) {
-            for (Map.Entry<Integer, Double> otherRoomId : o.getRoomsIds().entrySet()) {
-                if (currentRoomId.getKey().compareTo(otherRoomId.getKey()) < 0
-                        && Double.compare(currentRoomId.getValue(), otherRoomId.getValue()) < 0) {
+        IntLongMap thisRooms = this.getRoomsIds(), otherRooms = o.getRoomsIds();
+        for (int i = 0; i < thisRooms.size(); i++) {
+            for (int j = 0; j < otherRooms.size(); j++) {
+                if (thisRooms.keyAt(i) < otherRooms.keyAt(j) && thisRooms.valueAt(i) < otherRooms.valueAt(j)) {
                     secondCondition = -1;
-                } else if (currentRoomId.getKey().compareTo(otherRoomId.getKey()) == 0
-                        && Double.compare(currentRoomId.getValue(), otherRoomId.getValue()) == 0) {
+                } else if (thisRooms.keyAt(i) == otherRooms.keyAt(j) && thisRooms.valueAt(i) == otherRooms.valueAt(j)) {
                     secondCondition = 0;
                 } else {
                     secondCondition = 1;
@@ -2,15 +2,18 @@ package models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.util.StdDateFormat;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import types.RoomType;
+import utils.IntSet;
+import utils.JsonMappers;
+import utils.Money;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Room class represents a hotel room with attributes such as ID, type, amenities, price, occupancy,
@@ -20,21 +23,30 @@ import java.util.Map;
         "pricePerNight", "totalPrice", "isBooked", "bookingAvailability", "inReservationsIds"})
 @JsonRootName("Room")
 public class Room implements Comparable<Room> {
-    private static int roomNo = 0;
+    private static final AtomicInteger roomNo = new AtomicInteger();
     private int id; // Unique identifier for the room
     private Integer hotelId; // ID of the hotel that owns the room
     private RoomType type; // Type of the room (e.g., single, double, suite)
     private ArrayList<String> amenities; // List of amenities available in the room
     private int maximumOccupancy; // Maximum number of occupants allowed in the room
-    private double pricePerNight; // Price per night per person
-    private double totalPrice; // Total price for the room
+    private long pricePerNight; // Price per night per person in cents
+    private long totalPrice; // Total price for the room in cents
     private boolean isBooked; // Flag indicating if the room is currently booked
     private Map<Boolean, ArrayList<LocalDateTime>> bookingAvailability; // Availability of the room for booking
-    private ArrayList<Integer> inReservationsIds; // List of reservation IDs associated with the room
+    private IntSet inReservationsIds; // IDs of the reservations associated with the room
 
     // Static method to generate a unique ID for each room instance
     private int generateId() {
-        return ++Room.roomNo;
+        return Room.roomNo.incrementAndGet();
+    }
+
+    /**
+     * Makes sure generated IDs continue after the given one, e.g. after the stored rooms were loaded.
+     *
+     * @param id The greatest ID already in use.
+     */
+    public static void reserveIdsUpTo(int id) {
+        Room.roomNo.accumulateAndGet(id, Math::max);
     }
 
     /**
@@ -45,15 +57,15 @@ public class Room implements Comparable<Room> {
         this.setHotelId(0);
         this.setAmenities(new ArrayList<>());
         this.setMaximumOccupancy(0);
-        this.setPricePerNight(0.0);
-        this.setTotalPrice(0.0);
+        this.setPricePerNight(Money.zero);
+        this.setTotalPrice(Money.zero);
         this.setBooked(false);
         Map<Boolean, ArrayList<LocalDateTime>> isBooked = new HashMap<>();
         ArrayList<LocalDateTime> dates = new ArrayList<>();
         dates.add(LocalDateTime.now());
         isBooked.put(false, dates);
         this.setBookingAvailability(isBooked);
-        this.setInReservationsIds(new ArrayList<>());
+        this.setInReservationsIds(new IntSet());
         this.setId(this.generateId());
     }
 
@@ -67,19 +79,19 @@ public class Room implements Comparable<Room> {
      * @param maximumOccupancy   Maximum number of occupants allowed in the room.
      * @param isBooked           Flag indicating if the room is currently booked.
      * @param bookingAvailability Availability of the room for booking.
-     * @param pricePerNight      Price per night per person.
-     * @param inReservations     List of reservation IDs associated with the room.
+     * @param pricePerNight      Price per night per person in cents.
+     * @param inReservations     IDs of the reservations associated with the room.
      */
     public Room(int id, int hotel, RoomType type, ArrayList<String> amenities, int maximumOccupancy,
                 boolean isBooked, Map<Boolean, ArrayList<LocalDateTime>> bookingAvailability,
-                double pricePerNight, ArrayList<Integer> inReservations) {
+                long pricePerNight, IntSet inReservations) {
         this.setId(id);
         this.setHotelId(hotel);
         this.setType(type);
         this.setAmenities(amenities);
         this.setMaximumOccupancy(maximumOccupancy);
         this.setPricePerNight(pricePerNight);
-        this.setTotalPrice(pricePerNight * maximumOccupancy);
+        this.setTotalPrice(Money.times(pricePerNight, maximumOccupancy));
         this.setBooked(isBooked);
         this.setBookingAvailability(bookingAvailability);
         this.setInReservationsIds(inReservations);
@@ -94,18 +106,18 @@ public class Room implements Comparable<Room> {
      * @param maximumOccupancy   Maximum number of occupants allowed in the room.
      * @param isBooked           Flag indicating if the room is currently booked.
      * @param bookingAvailability Availability of the room for booking.
-     * @param pricePerNight      Price per night per person.
-     * @param inReservations     List of reservation IDs associated with the room.
+     * @param pricePerNight      Price per night per person in cents.
+     * @param inReservations     IDs of the reservations associated with the room.
      */
     public Room(int hotel, RoomType type, ArrayList<String> amenities, int maximumOccupancy,
                 boolean isBooked, Map<Boolean, ArrayList<LocalDateTime>> bookingAvailability,
-                double pricePerNight, ArrayList<Integer> inReservations) {
+                long pricePerNight, IntSet inReservations) {
         this.setHotelId(hotel);
         this.setType(type);
         this.setAmenities(amenities);
         this.setMaximumOccupancy(maximumOccupancy);
         this.setPricePerNight(pricePerNight);
-        this.setTotalPrice(pricePerNight * maximumOccupancy);
+        this.setTotalPrice(Money.times(pricePerNight, maximumOccupancy));
         this.setBooked(isBooked);
         this.setBookingAvailability(bookingAvailability);
         this.setInReservationsIds(inReservations);
@@ -122,8 +134,9 @@ public class Room implements Comparable<Room> {
      * @param maximumOccupancy   Maximum number of occupants allowed in the room.
      * @param isBooked           Flag indicating if the room is currently booked.
      * @param bookingAvailability Availability of the room for booking.
-     * @param pricePerNight      Price per night per person.
-     * @param inReservations     List of reservation IDs associated with the room.
+     * @param pricePerNight      Price per night per person in cents.
+     * @param totalPrice         Total price for the room in cents.
+     * @param inReservations     IDs of the reservations associated with the room.
      */
     @JsonCreator
     public Room(@JsonProperty("id") int id,
@@ -131,11 +144,11 @@ public class Room implements Comparable<Room> {
                 @JsonProperty("type") RoomType type,
                 @JsonProperty("amenities") ArrayList<String> amenities,
                 @JsonProperty("maximumOccupancy") int maximumOccupancy,
-                @JsonProperty("pricePerNight") double pricePerNight,
-                @JsonProperty("totalPrice") double totalPrice,
+                @JsonProperty("pricePerNight") @JsonDeserialize(using = Money.Deserializer.class) long pricePerNight,
+                @JsonProperty("totalPrice") @JsonDeserialize(using = Money.Deserializer.class) long totalPrice,
                 @JsonProperty("isBooked") boolean isBooked,
                 @JsonProperty("bookingAvailability") Map<Boolean, ArrayList<LocalDateTime>> bookingAvailability,
-                @JsonProperty("inReservationsIds") ArrayList<Integer> inReservations) {
+                @JsonProperty("inReservationsIds") IntSet inReservations) {
         this.setId(id);
         this.setHotelId(hotel);
         this.setType(type);
@@ -195,21 +208,23 @@ public class Room implements Comparable<Room> {
         this.maximumOccupancy = maximumOccupancy;
     }
 
-    public double getPricePerNight() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getPricePerNight() {
         return pricePerNight;
     }
 
     @JsonSetter("pricePerNight")
-    public void setPricePerNight(double pricePerNight) {
+    public void setPricePerNight(long pricePerNight) {
         this.pricePerNight = pricePerNight;
     }
 
-    public double getTotalPrice() {
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getTotalPrice() {
         return totalPrice;
     }
 
     @JsonSetter("totalPrice")
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(long totalPrice) {
         this.totalPrice = totalPrice;
     }
 
@@ -231,12 +246,12 @@ public class Room implements Comparable<Room> {
         this.bookingAvailability = bookingAvailability;
     }
 
-    public ArrayList<Integer> getInReservationsIds() {
+    public IntSet getInReservationsIds() {
         return inReservationsIds;
     }
 
     @JsonSetter("inReservationsIds")
-    public void setInReservationsIds(ArrayList<Integer> inReservationsIds) {
+    public void setInReservationsIds(IntSet inReservationsIds) {
         this.inReservationsIds = inReservationsIds;
     }
 
@@ -249,12 +264,8 @@ public class Room implements Comparable<Room> {
      */
     @Override
     public String toString() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
-
         try {
-            return mapper.writeValueAsString(this);
+            return JsonMappers.writerFor(Room.class).writeValueAsString(this);
         } catch (JsonProcessingException ex) {
             ex.printStackTrace();
             return "{}";
@@ -278,9 +289,9 @@ public class Room implements Comparable<Room> {
                 if (firstCondition == 0) {
                     firstCondition = Integer.compare(this.getHotelId(), o.getHotelId());
                     if (firstCondition == 0) {
-                        firstCondition = Double.compare(this.getPricePerNight(), o.getPricePerNight());
+                        firstCondition = Long.compare(this.getPricePerNight(), o.getPricePerNight());
                         if (firstCondition == 0) {
-                            firstCondition = Double.compare(this.getTotalPrice(), o.getTotalPrice());
+                            firstCondition = Long.compare(this.getTotalPrice(), o.getTotalPrice());
                         }
                     }
                 }
@@ -304,8 +315,8 @@ public class Room implements Comparable<Room> {
 
         // Compare inReservationsIds
         if (firstCondition == 0) {
-            ArrayList<Integer> thisReservations = this.getInReservationsIds();
-            ArrayList<Integer> otherReservations = o.getInReservationsIds();
+            IntSet thisReservations = this.getInReservationsIds();
+            IntSet otherReservations = o.getInReservationsIds();
             for (int i = 0; i < Math.min(thisReservations.size(), otherReservations.size()); i++) {
                 firstCondition = Integer.compare(thisReservations.get(i), otherReservations.get(i));
                 if (firstCondition != 0) {
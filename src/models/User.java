@@ -2,17 +2,20 @@ package models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import security.PasswordHash;
+import security.PasswordHasher;
+import security.Passwords;
+import utils.IntLongMap;
+import utils.JsonMappers;
+import utils.Money;
 
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
-import java.security.spec.KeySpec;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The User class represents a user entity with attributes such as ID, username, email, hashed password,
@@ -21,13 +24,13 @@ import java.util.Map;
 @JsonPropertyOrder({"id", "username", "email", "password", "reservations", "debitCard"})
 @JsonRootName("User")
 public class User implements Comparable<User> {
-    private static int userNo = 0; // Static counter for generating unique user IDs
+    private static final AtomicInteger userNo = new AtomicInteger(); // Static counter for generating unique user IDs
     private int id; // Unique identifier for the user
     private String username; // User's username
     private String email; // User's email address
-    private String password; // User's hashed password
-    private Map<Integer, Double> reservations; // User's reservations mapped by reservation ID and total price
-    private Map.Entry<Integer, Double> debitCard; // User's debit card information
+    private String password; // User's password hash with its salt and parameters
+    private IntLongMap reservations; // User's reservations mapped by reservation ID and total price in cents
+    private Map.Entry<Integer, Long> debitCard; // User's debit card ID and balance in cents
 
     /**
      * Generates a unique ID for each user instance.
@@ -35,32 +38,30 @@ public class User implements Comparable<User> {
      * @return The generated unique ID.
      */
     private int generateId() {
-        return ++User.userNo;
+        return User.userNo.incrementAndGet();
     }
 
     /**
-     * Static method to hash a given password using PBKDF2 algorithm with HMAC SHA-1.
+     * Makes sure generated IDs continue after the given one, e.g. after the stored users were loaded.
+     *
+     * @param id The greatest ID already in use.
+     */
+    public static void reserveIdsUpTo(int id) {
+        User.userNo.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Static method to hash a given password using PBKDF2 with a random salt and the configured algorithm
+     * and iteration count.
      *
      * @param password The password to hash.
-     * @return The hashed password as a hexadecimal string.
+     * @return The hash encoded together with its salt and parameters, see PasswordHash.
      * @throws InvalidKeySpecException If there's an issue with the provided key specification.
      * @throws NoSuchAlgorithmException If the requested cryptographic algorithm is not available.
      */
     public static String hashPassword(String password) throws InvalidKeySpecException, NoSuchAlgorithmException {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[16];
-        random.nextBytes(salt);
-
-        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, 65536, 128);
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
-
-        byte[] hash = factory.generateSecret(spec).getEncoded();
-        StringBuilder sb = new StringBuilder();
-        for (byte b : hash) {
-            sb.append(String.format("%02x", b));
-        }
-
-        return sb.toString();
+        PasswordHasher hasher = Passwords.hasher();
+        return PasswordHash.create(password, hasher.getAlgorithm(), hasher.getIterations()).encode();
     }
 
     /**
@@ -100,7 +101,7 @@ public class User implements Comparable<User> {
             this.password = null; // In case of hashing failure
         }
         // Convert reservations to a map of ID to total price
-        Map<Integer, Double> rs = new HashMap<>();
+        IntLongMap rs = new IntLongMap(reservations.size());
         for (Reservation r : reservations) {
             rs.put(r.getId(), r.getTotalPrice());
         }
@@ -109,7 +110,7 @@ public class User implements Comparable<User> {
         if (debitCard != null) {
             this.setDebitCard(Map.entry(debitCard.getId(), debitCard.getBalance()));
         } else {
-            this.setDebitCard(Map.entry(0, 0.0));
+            this.setDebitCard(Map.entry(0, Money.zero));
         }
         this.setId(this.generateId()); // Generate a unique ID
     }
@@ -129,8 +130,10 @@ public class User implements Comparable<User> {
                 @JsonProperty("username") String username,
                 @JsonProperty("email") String email,
                 @JsonProperty("password") String password,
-                @JsonProperty("reservations") Map<Integer, Double> reservations,
-                @JsonProperty("debitCard") Map.Entry<Integer, Double> debitCard) {
+                @JsonProperty("reservations") @JsonDeserialize(using = Money.AmountsDeserializer.class)
+                IntLongMap reservations,
+                @JsonProperty("debitCard") @JsonDeserialize(using = Money.EntryDeserializer.class)
+                Map.Entry<Integer, Long> debitCard) {
         this.setId(id);
         this.setUsername(username);
         this.setEmail(email);
@@ -165,9 +168,9 @@ public class User implements Comparable<User> {
             ex.fillInStackTrace();
             this.password = null; // In case of hashing failure
         }
-        this.setReservations(new HashMap<>()); // Initialize reservations
+        this.setReservations(new IntLongMap()); // Initialize reservations
         // Initialize debit card entry with default values
-        Map.Entry<Integer, Double> dce = Map.entry(0, 0.0);
+        Map.Entry<Integer, Long> dce = Map.entry(0, Money.zero);
         this.setDebitCard(dce);
     }
 
@@ -255,9 +258,10 @@ public class User implements Comparable<User> {
     /**
      * Retrieves the user's reservations.
      *
-     * @return The user's reservations.
+     * @return The user's reservations, mapped to their total prices in cents.
      */
-    public Map<Integer, Double> getReservations() {
+    @JsonSerialize(using = Money.AmountsSerializer.class)
+    public IntLongMap getReservations() {
         return reservations;
     }
 
@@ -267,16 +271,17 @@ public class User implements Comparable<User> {
      * @param reservations The user's reservations.
      */
     @JsonSetter("reservations")
-    public void setReservations(Map<Integer, Double> reservations) {
+    public void setReservations(IntLongMap reservations) {
         this.reservations = reservations;
     }
 
     /**
      * Retrieves the user's debit card information.
      *
-     * @return The user's debit card information.
+     * @return The user's debit card ID and balance in cents.
      */
-    public Map.Entry<Integer, Double> getDebitCard() {
+    @JsonSerialize(contentUsing = Money.Serializer.class)
+    public Map.Entry<Integer, Long> getDebitCard() {
         return debitCard;
     }
 
@@ -286,7 +291,7 @@ public class User implements Comparable<User> {
      * @param debitCard The user's debit card information.
      */
     @JsonSetter("debitCard")
-    public void setDebitCard(Map.Entry<Integer, Double> debitCard) {
+    public void setDebitCard(Map.Entry<Integer, Long> debitCard) {
         this.debitCard = debitCard;
     }
 
@@ -300,7 +305,7 @@ public class User implements Comparable<User> {
     @Override
     public String toString() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return JsonMappers.writerFor(User.class).writeValueAsString(this);
         } catch (JsonProcessingException ex) {
             ex.fillInStackTrace();
             return "{}"; // Return empty object if serialization fails
@@ -330,13 +335,14 @@ public class User implements Comparable<User> {
             firstCondition = 1;
         }
 
-        for(Map.Entry<Integer, Double> currReservationId : this.getReservations().entrySet()) {
-            for(Map.Entry<Integer, Double> otherReservationId : o.getReservations().entrySet()) {
-                if (currReservationId.getKey().compareTo(otherReservationId.getKey()) < 0
-                    && currReservationId.getValue().compareTo(otherReservationId.getValue()) < 0) {
+        IntLongMap thisReservations = this.getReservations(), otherReservations = o.getReservations();
+        for(int i = 0; i < thisReservations.size(); i++) {
+            for(int j = 0; j < otherReservations.size(); j++) {
+                if (thisReservations.keyAt(i) < otherReservations.keyAt(j)
+                    && thisReservations.valueAt(i) < otherReservations.valueAt(j)) {
                     secondCondition = -1;
-                } else if (currReservationId.getKey().compareTo(otherReservationId.getKey()) == 0
-                        && currReservationId.getValue().compareTo(otherReservationId.getValue()) == 0) {
+                } else if (thisReservations.keyAt(i) == otherReservations.keyAt(j)
+                        && thisReservations.valueAt(i) == otherReservations.valueAt(j)) {
                     secondCondition = 0;
                 } else {
                     secondCondition = 1;
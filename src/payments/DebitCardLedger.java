@@ -0,0 +1,230 @@
+package payments;
+
+import interfaces.IRepositoryListener;
+import models.DebitCard;
+import models.Hotel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The DebitCardLedger class keeps the balance of every debit card and the incomes of every hotel in
+ * cents. A debit takes the card's balance with a compare-and-set loop and is rejected instead of
+ * overdrawing the card; the hotel's income is a LongAdder, so payments to the same hotel do not contend
+ * either. Payments on different cards therefore never wait for each other.
+ * <p>
+ * The ledger keeps no file of its own: the balances are seeded from the debit cards and hotels
+ * repositories, and the booking's transaction persists the changed cards and hotels with the ledger's
+ * values, copied with {@link #copyBalanceTo} and {@link #copyIncomesTo}. A card or hotel saved with a
+ * value other than the one last copied to it was changed outside the ledger, e.g. a card topped up;
+ * the listeners add the difference, so the payments made since the copy are kept.
+ */
+public class DebitCardLedger {
+    private final Map<Integer, Account<AtomicLong>> balancesByCard = new ConcurrentHashMap<>(); // Balance in cents by card ID
+    private final Map<Integer, Account<LongAdder>> incomesByHotel = new ConcurrentHashMap<>(); // Incomes in cents by hotel ID
+    private final LongAdder debitCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder refundCount = new LongAdder();
+
+    // The running value of a card or hotel and the value last copied to it
+    private static final class Account<V> {
+        final V value;
+        long published; // Guarded by the monitor of the card or hotel
+
+        Account(V value, long published) {
+            this.value = value;
+            this.published = published;
+        }
+    }
+
+    public boolean hasCard(int cardId) {
+        return this.balancesByCard.containsKey(cardId);
+    }
+
+    /**
+     * Gets the balance of a debit card.
+     *
+     * @param cardId The ID of the debit card.
+     * @return The balance in cents, 0 if the card is unknown.
+     */
+    public long balanceOf(int cardId) {
+        Account<AtomicLong> account = this.balancesByCard.get(cardId);
+        return account == null ? 0 : account.value.get();
+    }
+
+    /**
+     * Gets the incomes of a hotel.
+     *
+     * @param hotelId The ID of the hotel.
+     * @return The incomes in cents, 0 if the hotel is unknown.
+     */
+    public long incomesOf(int hotelId) {
+        Account<LongAdder> account = this.incomesByHotel.get(hotelId);
+        return account == null ? 0 : account.value.sum();
+    }
+
+    /**
+     * Sets the ledger's balance on a debit card, so the card is persisted with it.
+     *
+     * @param card The debit card.
+     */
+    public void copyBalanceTo(DebitCard card) {
+        synchronized (card) {
+            Account<AtomicLong> account = this.balancesByCard.get(card.getId());
+            if (account != null) {
+                account.published = account.value.get();
+                card.setBalance(account.published);
+            }
+        }
+    }
+
+    /**
+     * Sets the ledger's incomes on a hotel, so the hotel is persisted with them.
+     *
+     * @param hotel The hotel.
+     */
+    public void copyIncomesTo(Hotel hotel) {
+        synchronized (hotel) {
+            Account<LongAdder> account = this.incomesByHotel.get(hotel.getId());
+            if (account != null) {
+                account.published = account.value.sum();
+                hotel.setIncomes(account.published);
+            }
+        }
+    }
+
+    public long getDebitCount() {
+        return debitCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getRefundCount() {
+        return refundCount.sum();
+    }
+
+    private LongAdder incomesAdderOf(int hotelId) {
+        Account<LongAdder> account = this.incomesByHotel.get(hotelId);
+        if (account == null) {
+            account = this.incomesByHotel.computeIfAbsent(hotelId, id -> new Account<>(new LongAdder(), 0));
+        }
+        return account.value;
+    }
+
+    /**
+     * Debits a card and credits a hotel, unless the card's balance is lower than the amount.
+     *
+     * @param cardId  The ID of the debit card.
+     * @param hotelId The ID of the credited hotel.
+     * @param cents   The amount in cents, not negative.
+     * @return true if the card is debited, false if it is unknown or its balance is too low.
+     */
+    public boolean debit(int cardId, int hotelId, long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("The amount of a debit cannot be negative!");
+        }
+        Account<AtomicLong> account = this.balancesByCard.get(cardId);
+        if (account == null) {
+            return false;
+        }
+        AtomicLong balance = account.value;
+        long current, updated;
+        do {
+            current = balance.get();
+            updated = current - cents;
+            if (updated < 0) {
+                this.rejectedCount.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, updated));
+
+        this.incomesAdderOf(hotelId).add(cents);
+        this.debitCount.increment();
+        return true;
+    }
+
+    /**
+     * Returns a debited amount from a hotel to the card.
+     *
+     * @param cardId  The ID of the debit card.
+     * @param hotelId The ID of the hotel which was credited.
+     * @param cents   The debited amount in cents, not negative.
+     * @return true if the amount is refunded, false if the card is unknown.
+     */
+    public boolean refund(int cardId, int hotelId, long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("The amount of a refund cannot be negative!");
+        }
+        Account<AtomicLong> account = this.balancesByCard.get(cardId);
+        if (account == null) {
+            return false;
+        }
+        account.value.addAndGet(cents);
+        this.incomesAdderOf(hotelId).add(-cents);
+        this.refundCount.increment();
+        return true;
+    }
+
+    /**
+     * Gets the listener which adds the balances of new debit cards to the ledger and the changes of the
+     * cards saved with a balance other than the one last copied to them.
+     *
+     * @return The listener to subscribe to the debit cards repository.
+     */
+    public IRepositoryListener<DebitCard> getCardsListener() {
+        return new IRepositoryListener<>() {
+            @Override
+            public void saved(DebitCard card) {
+                synchronized (card) {
+                    long balance = card.getBalance();
+                    Account<AtomicLong> account = balancesByCard.computeIfAbsent(card.getId(),
+                            id -> new Account<>(new AtomicLong(balance), balance));
+                    if (account.published != balance) {
+                        account.value.addAndGet(balance - account.published);
+                        account.published = balance;
+                    }
+                }
+            }
+
+            @Override
+            public void deleted(DebitCard card) {
+                balancesByCard.remove(card.getId());
+            }
+        };
+    }
+
+    /**
+     * Gets the listener which adds the incomes of new hotels to the ledger and the changes of the hotels
+     * saved with incomes other than the ones last copied to them.
+     *
+     * @return The listener to subscribe to the hotels repository.
+     */
+    public IRepositoryListener<Hotel> getHotelsListener() {
+        return new IRepositoryListener<>() {
+            @Override
+            public void saved(Hotel hotel) {
+                synchronized (hotel) {
+                    long incomes = hotel.getIncomes();
+                    Account<LongAdder> account = incomesByHotel.computeIfAbsent(hotel.getId(), id -> {
+                        LongAdder adder = new LongAdder();
+                        adder.add(incomes);
+                        return new Account<>(adder, incomes);
+                    });
+                    if (account.published != incomes) {
+                        account.value.add(incomes - account.published);
+                        account.published = incomes;
+                    }
+                }
+            }
+
+            @Override
+            public void deleted(Hotel hotel) {
+                incomesByHotel.remove(hotel.getId());
+            }
+        };
+    }
+}
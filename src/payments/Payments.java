@@ -0,0 +1,25 @@
+package payments;
+
+import repositories.Repositories;
+
+/**
+ * Registry of the application's debit card ledger. The ledger is created lazily on first use and seeded
+ * from the debit cards and hotels repositories, whose saves keep it up to date.
+ */
+public final class Payments {
+    private Payments() {
+    }
+
+    private static final class LedgerHolder {
+        static final DebitCardLedger INSTANCE = new DebitCardLedger();
+
+        static {
+            Repositories.debitCards().subscribe(INSTANCE.getCardsListener());
+            Repositories.hotels().subscribe(INSTANCE.getHotelsListener());
+        }
+    }
+
+    public static DebitCardLedger ledger() {
+        return LedgerHolder.INSTANCE;
+    }
+}
@@ -0,0 +1,386 @@
+package readersWriters;
+
+import interfaces.IReadableWritable;
+import utils.IntSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Abstract class defining a compact binary file format for objects of type T, an alternative to the
+ * JSON ReaderWriters. A file starts with a header of the magic number, the schema version and the
+ * type's name. Every record follows as its length and its fields: fixed-width numbers, dates as
+ * epoch seconds and nanoseconds, strings and collections prefixed by their length.
+ * @param <T> The type of objects that this class can read and write, must implement Comparable<T>.
+ */
+public abstract class BinaryReaderWriter<T extends Comparable<T>> implements IReadableWritable<T> {
+    public static final int magic = 0x48524242; // "HRBB"
+    private static final int bufferSize = 64 * 1024;
+    private static final long noDate = Long.MIN_VALUE; // Epoch second written for null dates
+
+    private final Class<T> type; // The class of the read and written objects
+    private final short schemaVersion; // Version of the written records
+
+    /**
+     * Constructor that creates a BinaryReaderWriter of the given model class.
+     * @param type The class of the read and written objects.
+     * @param schemaVersion Version of the written records.
+     */
+    protected BinaryReaderWriter(Class<T> type, short schemaVersion) {
+        this.type = type;
+        this.schemaVersion = schemaVersion;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public short getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * Writes the fields of an object.
+     * @param out Output of the record.
+     * @param obj The object to write.
+     * @throws IOException If the record cannot be written.
+     */
+    protected abstract void writeRecord(DataOutputStream out, T obj) throws IOException;
+
+    /**
+     * Reads the fields of an object written with the given schema version.
+     * @param in Input of the record.
+     * @param version Schema version of the file.
+     * @return The read object.
+     * @throws IOException If the record cannot be read.
+     */
+    protected abstract T readRecord(DataInputStream in, short version) throws IOException;
+
+    private void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(magic);
+        out.writeShort(this.schemaVersion);
+        out.writeUTF(this.type.getSimpleName());
+    }
+
+    private short readHeader(DataInputStream in, Path path) throws IOException {
+        if (in.readInt() != magic) {
+            throw new IOException(String.format("%s is not a binary entity file!", path.getFileName()));
+        }
+        short version = in.readShort();
+        String typeName = in.readUTF();
+        if (version < 1 || version > this.schemaVersion || !typeName.equals(this.type.getSimpleName())) {
+            throw new IOException(String.format("Unsupported schema %s v%d in %s!", typeName, version, path.getFileName()));
+        }
+        return version;
+    }
+
+    private void writeSized(DataOutputStream out, T obj, ByteArrayOutputStream record) throws IOException {
+        record.reset();
+        this.writeRecord(new DataOutputStream(record), obj);
+        out.writeInt(record.size());
+        record.writeTo(out);
+    }
+
+    /**
+     * Encodes a single record without a length, e.g. for a fixed-size slot.
+     * @param obj The object to encode.
+     * @return The fields of the object in the current schema version.
+     * @throws IOException If the object cannot be encoded.
+     */
+    public byte[] toBytes(T obj) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        this.writeRecord(new DataOutputStream(record), obj);
+        return record.toByteArray();
+    }
+
+    /**
+     * Decodes a single record of the current schema version straight from a buffer, e.g. a mapped file.
+     * @param buffer Buffer whose remaining bytes are the fields of the object.
+     * @return The decoded object.
+     * @throws IOException If the record is broken.
+     */
+    public T fromBuffer(ByteBuffer buffer) throws IOException {
+        return this.fromBuffer(buffer, this.schemaVersion);
+    }
+
+    /**
+     * Decodes a single record of the given schema version straight from a buffer, e.g. to migrate an older file.
+     * @param buffer Buffer whose remaining bytes are the fields of the object.
+     * @param version Schema version of the record.
+     * @return The decoded object.
+     * @throws IOException If the record is broken.
+     */
+    public T fromBuffer(ByteBuffer buffer, short version) throws IOException {
+        return this.readRecord(new DataInputStream(new ByteBufferInputStream(buffer)), version);
+    }
+
+    /**
+     * Writes a whole file of objects to a channel, the caller closes and forces the channel.
+     * @param objs The objects to write.
+     * @param channel The channel of the file.
+     * @throws IOException If the objects cannot be written.
+     */
+    public void writeAll(Iterable<T> objs, WritableByteChannel channel) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize));
+        this.writeHeader(out);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        for (T obj : objs) {
+            this.writeSized(out, obj, record);
+        }
+        out.flush();
+    }
+
+    /**
+     * Appends an object to a file, the header is written first if the file is new.
+     * @param obj Object to write.
+     * @param filename Name of the file to write to.
+     */
+    @Override
+    public void write(T obj, String filename) {
+        Path path = Path.of(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            if (channel.size() == 0) {
+                this.writeHeader(out);
+            }
+            this.writeSized(out, obj, new ByteArrayOutputStream(256));
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot write in a file with the name %s!%n", filename);
+        }
+    }
+
+    /**
+     * Streams the objects of a file lazily. The stream must be closed after use, e.g. in try-with-resources.
+     * A broken record ends the stream.
+     * @param path Path of the file to read from.
+     * @return Stream of the objects in the order of the file.
+     * @throws IOException If the file cannot be opened or has an unsupported header.
+     */
+    public Stream<T> stream(Path path) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(path), bufferSize);
+        DataInputStream in = new DataInputStream(raw);
+        short version;
+        try {
+            version = this.readHeader(in, path);
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+        Iterator<T> records = new Iterator<>() {
+            private T next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next != null || this.done) {
+                    return !this.done;
+                }
+                try {
+                    int first = in.read();
+                    if (first < 0) {
+                        this.done = true;
+                        return false;
+                    }
+                    int length = (first << 24) | (in.readUnsignedByte() << 16)
+                            | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+                    byte[] record = new byte[length];
+                    in.readFully(record);
+                    this.next = readRecord(new DataInputStream(new ByteArrayInputStream(record)), version);
+                    return true;
+                } catch (IOException ex) {
+                    ex.fillInStackTrace();
+                    System.out.printf("Cannot read from a file with the name %s!%n", path.getFileName());
+                    this.done = true;
+                    return false;
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T obj = this.next;
+                this.next = null;
+                return obj;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    /**
+     * Reads all objects from a file. The FileReader is not used for reading, binary files are
+     * streamed through their own buffered input.
+     * @param fr FileReader instance for the file to read from.
+     * @param file File instance representing the file to read from.
+     * @return ArrayList of the objects read from the file.
+     */
+    @Override
+    public ArrayList<T> read(FileReader fr, File file) {
+        ArrayList<T> objs = new ArrayList<>();
+        try (Stream<T> stream = this.stream(file.toPath())) {
+            stream.forEach(objs::add);
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot read from a file with the name %s!%n", file.getName());
+        }
+        return objs;
+    }
+
+    /**
+     * InputStream reading the remaining bytes of a buffer without copying them first.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+
+    // Field helpers shared by the record formats
+
+    protected static void writeDate(DataOutputStream out, LocalDateTime date) throws IOException {
+        if (date == null) {
+            out.writeLong(noDate);
+            out.writeInt(0);
+        } else {
+            out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(date.getNano());
+        }
+    }
+
+    protected static LocalDateTime readDate(DataInputStream in) throws IOException {
+        long epochSecond = in.readLong();
+        int nano = in.readInt();
+        return epochSecond == noDate ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    protected static void writeDates(DataOutputStream out, ArrayList<LocalDateTime> dates) throws IOException {
+        out.writeInt(dates == null ? -1 : dates.size());
+        if (dates != null) {
+            for (LocalDateTime date : dates) {
+                writeDate(out, date);
+            }
+        }
+    }
+
+    protected static ArrayList<LocalDateTime> readDates(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count < 0) {
+            return null;
+        }
+        ArrayList<LocalDateTime> dates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dates.add(readDate(in));
+        }
+        return dates;
+    }
+
+    protected static void writeStrings(DataOutputStream out, ArrayList<String> strings) throws IOException {
+        out.writeInt(strings == null ? -1 : strings.size());
+        if (strings != null) {
+            for (String string : strings) {
+                out.writeUTF(string);
+            }
+        }
+    }
+
+    protected static ArrayList<String> readStrings(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count < 0) {
+            return null;
+        }
+        ArrayList<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    protected static void writeInts(DataOutputStream out, IntSet ints) throws IOException {
+        out.writeInt(ints == null ? -1 : ints.size());
+        if (ints != null) {
+            for (int i = 0; i < ints.size(); i++) {
+                out.writeInt(ints.get(i));
+            }
+        }
+    }
+
+    protected static IntSet readInts(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        if (count < 0) {
+            return null;
+        }
+        IntSet ints = new IntSet(count);
+        for (int i = 0; i < count; i++) {
+            ints.add(in.readInt());
+        }
+        return ints;
+    }
+
+    // Reads a collection size, -1 stands for null, anything larger than the record is broken
+    protected static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < -1 || count > in.available()) {
+            throw new EOFException("Broken collection size " + count);
+        }
+        return count;
+    }
+}
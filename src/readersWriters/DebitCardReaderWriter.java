@@ -1,8 +1,7 @@
 package readersWriters;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import models.DebitCard;
+import utils.JsonMappers;
 
 import java.util.*;
 import java.io.*;
@@ -14,30 +13,37 @@ import java.io.*;
 public class DebitCardReaderWriter extends ReaderWriter<DebitCard> {
 
     /**
-     * Creates and configures an ObjectMapper instance with JavaTimeModule.
-     * @return Configured ObjectMapper instance.
+     * Constructor that creates a ReaderWriter of DebitCard objects.
      */
-    private static ObjectMapper createObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        return mapper;
+    public DebitCardReaderWriter() {
+        super(DebitCard.class);
     }
 
     /**
-     * Parses a JSON string representation of a DebitCard object using ObjectMapper.
+     * Parses a JSON string representation of a DebitCard object using the shared ObjectReader.
      * @param json JSON string representing a DebitCard object.
      * @return Parsed DebitCard object.
      * @throws IOException If there is an error during JSON parsing.
      */
     private static DebitCard parse(String json) throws IOException {
-        ObjectMapper mapper = createObjectMapper();
-        DebitCard obj = mapper.reader().readValue(json, DebitCard.class);
+        DebitCard obj = JsonMappers.readerFor(DebitCard.class).readValue(json);
         if(obj == null) {
             System.out.println("Cannot parse object!");
         }
         return obj;
     }
 
+    /**
+     * Parses a single line of the file into a DebitCard object.
+     * @param json JSON string representing a DebitCard object.
+     * @return Parsed DebitCard object.
+     * @throws IOException If there is an error during JSON parsing.
+     */
+    @Override
+    public DebitCard fromJson(String json) throws IOException {
+        return DebitCardReaderWriter.parse(json);
+    }
+
     /**
      * Writes a DebitCard object to a file.
      * @param obj DebitCard object to write.
@@ -53,27 +59,4 @@ public class DebitCardReaderWriter extends ReaderWriter<DebitCard> {
             System.out.printf("Cannot write in a file with the name %s!%n", filename);
         }
     }
-
-    /**
-     * Reads DebitCard objects from a file.
-     * @param fr FileReader instance for the file to read from.
-     * @param file File instance representing the file to read from.
-     * @return ArrayList of DebitCard objects read from the file.
-     */
-    @Override
-    public ArrayList<DebitCard> read(FileReader fr, File file) {
-        ArrayList<DebitCard> cards = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(fr)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                DebitCard debitCard = parse(line); // Parse each line into a DebitCard object
-                cards.add(debitCard); // Add parsed DebitCard object to the ArrayList
-            }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from a file with the name %s", file.getName());
-        }
-
-        return cards; // Return the ArrayList of DebitCard objects read from the file
-    }
 }
\ No newline at end of file
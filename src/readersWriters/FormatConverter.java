@@ -0,0 +1,99 @@
+package readersWriters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * FormatConverter class converts entity files between the JSON and the binary format. Both sides
+ * are streamed, so files of any size are converted in constant memory.
+ */
+public final class FormatConverter {
+    private FormatConverter() {
+    }
+
+    private static FileChannel create(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Converts a JSON entity file to the binary format.
+     * @param json ReaderWriter of the JSON file.
+     * @param binary BinaryReaderWriter of the binary file.
+     * @param from Path of the JSON file.
+     * @param to Path of the binary file, it is overwritten.
+     * @param <T> The type of the converted objects.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static <T extends Comparable<T>> void jsonToBinary(ReaderWriter<T> json, BinaryReaderWriter<T> binary,
+                                                              Path from, Path to) throws IOException {
+        try (Stream<T> objs = json.stream(from); FileChannel channel = create(to)) {
+            binary.writeAll(objs::iterator, channel);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Converts a binary entity file to the JSON format.
+     * @param binary BinaryReaderWriter of the binary file.
+     * @param from Path of the binary file.
+     * @param to Path of the JSON file, it is overwritten.
+     * @param <T> The type of the converted objects.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static <T extends Comparable<T>> void binaryToJson(BinaryReaderWriter<T> binary, Path from, Path to)
+            throws IOException {
+        try (Stream<T> objs = binary.stream(from); FileChannel channel = create(to);
+             BufferedWriter bw = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            for (T obj : (Iterable<T>) objs::iterator) {
+                bw.write(obj.toString());
+                bw.newLine();
+            }
+            bw.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Converts a file from the command line:
+     * FormatConverter (rooms|reservations) (to-binary|to-json) from to
+     * @param args The entity type, the direction, the source and the target file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Usage: FormatConverter (rooms|reservations) (to-binary|to-json) from to");
+            return;
+        }
+        Path from = Path.of(args[2]);
+        Path to = Path.of(args[3]);
+        boolean toBinary = args[1].equals("to-binary");
+        try {
+            switch (args[0]) {
+                case "rooms" -> {
+                    if (toBinary) {
+                        jsonToBinary(new RoomReaderWriter(), new RoomBinaryReaderWriter(), from, to);
+                    } else {
+                        binaryToJson(new RoomBinaryReaderWriter(), from, to);
+                    }
+                }
+                case "reservations" -> {
+                    if (toBinary) {
+                        jsonToBinary(new ReservationReaderWriter(), new ReservationBinaryReaderWriter(), from, to);
+                    } else {
+                        binaryToJson(new ReservationBinaryReaderWriter(), from, to);
+                    }
+                }
+                default -> System.out.printf("Unknown entity type %s!%n", args[0]);
+            }
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot convert %s to %s!%n", from, to);
+        }
+    }
+}
@@ -1,10 +1,160 @@
 package readersWriters;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import interfaces.IReadableWritable;
+import utils.JsonMappers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract class defining operations for reading from and writing to a file for objects of type T.
+ * Files hold one JSON object per line and are read as a stream: the objects are parsed lazily from a
+ * buffered channel, so a file of any size is scanned in constant memory.
  * @param <T> The type of objects that this class can read and write, must implement Comparable<T>.
  */
 public abstract class ReaderWriter<T extends Comparable<T>> implements IReadableWritable<T> {
-}
\ No newline at end of file
+    private static final int bufferSize = 64 * 1024;
+
+    private final Class<T> type; // The class of the read and written objects
+
+    /**
+     * Constructor that creates a ReaderWriter of the given model class.
+     * @param type The class of the read and written objects.
+     */
+    protected ReaderWriter(Class<T> type) {
+        this.type = type;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Parses a single JSON line into an object of type T.
+     * @param json JSON string representing an object of type T.
+     * @return Parsed object.
+     * @throws IOException If there is an error during JSON parsing.
+     */
+    public abstract T fromJson(String json) throws IOException;
+
+    /**
+     * Opens a lazy iterator over the objects of a file. The iterator must be closed after use.
+     * A broken line ends the iteration, as the objects after it cannot be located reliably; use
+     * {@link #stream(Path)} to skip broken lines instead.
+     * @param path Path of the file to read from.
+     * @return MappingIterator yielding the objects one by one.
+     * @throws IOException If the file cannot be opened.
+     */
+    public MappingIterator<T> iterator(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ)), bufferSize);
+        try {
+            return JsonMappers.readerFor(this.type).readValues(in);
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Streams the objects of a file lazily, line by line. A line which cannot be parsed is reported and
+     * skipped, so the objects after it are still read. The stream must be closed after use, e.g. in
+     * try-with-resources.
+     * @param path Path of the file to read from.
+     * @return Stream of the objects in the order of the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public Stream<T> stream(Path path) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ)), StandardCharsets.UTF_8),
+                bufferSize);
+        ObjectReader reader = JsonMappers.readerFor(this.type);
+        Iterator<T> safe = new Iterator<>() {
+            private T next;
+            private boolean isEnd;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == null && !this.isEnd) {
+                    String line;
+                    try {
+                        line = br.readLine();
+                    } catch (IOException ex) {
+                        ex.fillInStackTrace();
+                        System.out.printf("Cannot read from a file with the name %s!%n", path.getFileName());
+                        line = null;
+                    }
+                    if (line == null) {
+                        this.isEnd = true;
+                    } else if (!line.isBlank()) {
+                        try {
+                            this.next = reader.readValue(line);
+                        } catch (IOException | RuntimeException ex) {
+                            ex.fillInStackTrace();
+                            System.out.printf("Skipping broken record in %s!%n", path.getFileName());
+                        }
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T obj = this.next;
+                this.next = null;
+                return obj;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(safe,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        br.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    /**
+     * Reads all objects from a file. The FileReader is not used for reading, the file is streamed
+     * through its own buffered channel.
+     * @param fr FileReader instance for the file to read from.
+     * @param file File instance representing the file to read from.
+     * @return ArrayList of the objects read from the file.
+     */
+    @Override
+    public ArrayList<T> read(FileReader fr, File file) {
+        ArrayList<T> objs = new ArrayList<>();
+        try (Stream<T> stream = this.stream(file.toPath())) {
+            stream.forEach(objs::add);
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot read from a file with the name %s!%n", file.getName());
+        }
+        return objs;
+    }
+}
@@ -0,0 +1,72 @@
+package readersWriters;
+
+import models.Reservation;
+import utils.IntLongMap;
+import utils.Money;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * This class provides functionality to read from and write to a binary file of Reservation objects.
+ * Schema v2: id, fromDate, toDate, roomsIds as (room ID, price) pairs, bookedById, cancellationFees,
+ * totalPrice and isCancelled; the prices and fees are longs of cents. Schema v1 stored them as doubles
+ * and is still read.
+ */
+public class ReservationBinaryReaderWriter extends BinaryReaderWriter<Reservation> {
+    public static final short schemaVersion = 2;
+
+    /**
+     * Constructor that creates a BinaryReaderWriter of Reservation objects.
+     */
+    public ReservationBinaryReaderWriter() {
+        super(Reservation.class, schemaVersion);
+    }
+
+    @Override
+    protected void writeRecord(DataOutputStream out, Reservation obj) throws IOException {
+        out.writeInt(obj.getId());
+        writeDate(out, obj.getFromDate());
+        writeDate(out, obj.getToDate());
+        IntLongMap rooms = obj.getRoomsIds();
+        out.writeInt(rooms == null ? -1 : rooms.size());
+        if (rooms != null) {
+            for (int i = 0; i < rooms.size(); i++) {
+                out.writeInt(rooms.keyAt(i));
+                out.writeLong(rooms.valueAt(i));
+            }
+        }
+        out.writeInt(obj.getBookedById());
+        out.writeLong(obj.getCancellationFees());
+        out.writeLong(obj.getTotalPrice());
+        out.writeBoolean(obj.isCancelled());
+    }
+
+    // Reads an amount in cents, written as a double by schema v1
+    private static long readAmount(DataInputStream in, short version) throws IOException {
+        return version < 2 ? Money.fromDouble(in.readDouble()) : in.readLong();
+    }
+
+    @Override
+    protected Reservation readRecord(DataInputStream in, short version) throws IOException {
+        int id = in.readInt();
+        LocalDateTime fromDate = readDate(in);
+        LocalDateTime toDate = readDate(in);
+        IntLongMap rooms = null;
+        int count = readCount(in);
+        if (count >= 0) {
+            rooms = new IntLongMap(count);
+            for (int i = 0; i < count; i++) {
+                int roomId = in.readInt();
+                rooms.put(roomId, readAmount(in, version));
+            }
+        }
+        int bookedById = in.readInt();
+        long cancellationFees = readAmount(in, version);
+        long totalPrice = readAmount(in, version);
+        boolean isCancelled = in.readBoolean();
+        return new Reservation(id, fromDate, toDate, rooms, bookedById, cancellationFees, totalPrice, isCancelled);
+    }
+}
@@ -0,0 +1,85 @@
+package readersWriters;
+
+import models.Room;
+import types.RoomType;
+import utils.IntSet;
+import utils.Money;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class provides functionality to read from and write to a binary file of Room objects.
+ * Schema v2: id, hotelId (-1 for none), type ordinal, maximumOccupancy, pricePerNight, totalPrice,
+ * isBooked, amenities, bookingAvailability as (flag, dates) pairs and inReservationsIds; the prices are
+ * longs of cents. Schema v1 stored the prices as doubles and is still read.
+ */
+public class RoomBinaryReaderWriter extends BinaryReaderWriter<Room> {
+    public static final short schemaVersion = 2;
+
+    /**
+     * Constructor that creates a BinaryReaderWriter of Room objects.
+     */
+    public RoomBinaryReaderWriter() {
+        super(Room.class, schemaVersion);
+    }
+
+    @Override
+    protected void writeRecord(DataOutputStream out, Room obj) throws IOException {
+        out.writeInt(obj.getId());
+        out.writeInt(obj.getHotelId() == null ? -1 : obj.getHotelId());
+        out.writeByte(obj.getType() == null ? -1 : obj.getType().ordinal());
+        out.writeInt(obj.getMaximumOccupancy());
+        out.writeLong(obj.getPricePerNight());
+        out.writeLong(obj.getTotalPrice());
+        out.writeBoolean(obj.isBooked());
+        writeStrings(out, obj.getAmenities());
+
+        Map<Boolean, ArrayList<LocalDateTime>> availability = obj.getBookingAvailability();
+        out.writeInt(availability == null ? -1 : availability.size());
+        if (availability != null) {
+            for (Map.Entry<Boolean, ArrayList<LocalDateTime>> entry : availability.entrySet()) {
+                out.writeBoolean(entry.getKey());
+                writeDates(out, entry.getValue());
+            }
+        }
+        writeInts(out, obj.getInReservationsIds());
+    }
+
+    // Reads an amount in cents, written as a double by schema v1
+    private static long readAmount(DataInputStream in, short version) throws IOException {
+        return version < 2 ? Money.fromDouble(in.readDouble()) : in.readLong();
+    }
+
+    @Override
+    protected Room readRecord(DataInputStream in, short version) throws IOException {
+        int id = in.readInt();
+        int hotelId = in.readInt();
+        byte typeOrdinal = in.readByte();
+        int maximumOccupancy = in.readInt();
+        long pricePerNight = readAmount(in, version);
+        long totalPrice = readAmount(in, version);
+        boolean isBooked = in.readBoolean();
+        ArrayList<String> amenities = readStrings(in);
+
+        Map<Boolean, ArrayList<LocalDateTime>> availability = null;
+        int entries = readCount(in);
+        if (entries >= 0) {
+            availability = new LinkedHashMap<>();
+            for (int i = 0; i < entries; i++) {
+                boolean flag = in.readBoolean();
+                availability.put(flag, readDates(in));
+            }
+        }
+        IntSet inReservationsIds = readInts(in);
+
+        RoomType type = typeOrdinal < 0 ? null : RoomType.values()[typeOrdinal];
+        return new Room(id, hotelId < 0 ? null : hotelId, type, amenities, maximumOccupancy, pricePerNight,
+                totalPrice, isBooked, availability, inReservationsIds);
+    }
+}
@@ -1,11 +1,9 @@
 package readersWriters;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import models.Room;
+import utils.JsonMappers;
 
 import java.io.*;
-import java.util.ArrayList;
 
 /**
  * This class provides functionality to read from and write to a file
@@ -14,30 +12,37 @@ import java.util.ArrayList;
 public class RoomReaderWriter extends ReaderWriter<Room> {
 
     /**
-     * Creates and configures an ObjectMapper instance with JavaTimeModule.
-     * @return Configured ObjectMapper instance.
+     * Constructor that creates a ReaderWriter of Room objects.
      */
-    private static ObjectMapper createObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        return mapper;
+    public RoomReaderWriter() {
+        super(Room.class);
     }
 
     /**
-     * Parses a JSON string representation of a Room object using ObjectMapper.
+     * Parses a JSON string representation of a Room object using the shared ObjectReader.
      * @param json JSON string representing a Room object.
      * @return Parsed Room object.
      * @throws IOException If there is an error during JSON parsing.
      */
     private static Room parse(String json) throws IOException {
-        ObjectMapper mapper = createObjectMapper();
-        Room obj = mapper.readValue(json, Room.class);
+        Room obj = JsonMappers.readerFor(Room.class).readValue(json);
         if (obj == null) {
             System.out.println("Cannot parse object!");
         }
         return obj;
     }
 
+    /**
+     * Parses a single line of the file into a Room object.
+     * @param json JSON string representing a Room object.
+     * @return Parsed Room object.
+     * @throws IOException If there is an error during JSON parsing.
+     */
+    @Override
+    public Room fromJson(String json) throws IOException {
+        return RoomReaderWriter.parse(json);
+    }
+
     /**
      * Writes a Room object to a file.
      * @param obj Room object to write.
@@ -53,36 +58,4 @@ public class RoomReaderWriter extends ReaderWriter<Room> {
             System.out.printf("Cannot write in a file with the name %s!%n", filename);
         }
     }
-
-    /**
-     * Reads Room objects from a file.
-     * @param fr FileReader instance for the file to read from.
-     * @param file File instance representing the file to read from.
-     * @return ArrayList of Room objects read from the file.
-     */
-    @Override
-    public ArrayList<Room> read(FileReader fr, File file) {
-        StringBuilder sb = new StringBuilder();
-        int readByte;
-        ArrayList<Room> rooms = new ArrayList<>();
-        try {
-            readByte = fr.read();
-            sb.append((char) readByte); // Append the first character read
-            Room room;
-            while (readByte > -1) { // Continue reading until end of file
-                if ((char) readByte == '\n') { // Check for end of line
-                    room = RoomReaderWriter.parse(sb.substring(0, sb.length() - 1)); // Parse the JSON string
-                    rooms.add(room); // Add parsed Room object to the ArrayList
-                    sb = new StringBuilder(); // Reset StringBuilder for the next line
-                }
-                readByte = fr.read(); // Read the next byte
-                sb.append((char) readByte); // Append the character to StringBuilder
-            }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from a file with the name %s", file.getName());
-        }
-
-        return rooms; // Return the ArrayList of Room objects read from the file
-    }
 }
\ No newline at end of file
@@ -1,10 +1,9 @@
 package readersWriters;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import models.User;
+import utils.JsonMappers;
 
 import java.io.*;
-import java.util.ArrayList;
 
 /**
  * A class responsible for reading from and writing to a file of User objects using JSON format.
@@ -12,20 +11,37 @@ import java.util.ArrayList;
 public class UserReaderWriter extends ReaderWriter<User> {
 
     /**
-     * Parses a JSON string into a User object using Jackson ObjectMapper.
+     * Constructor that creates a ReaderWriter of User objects.
+     */
+    public UserReaderWriter() {
+        super(User.class);
+    }
+
+    /**
+     * Parses a JSON string into a User object using the shared ObjectReader.
      * @param json The JSON string to parse.
      * @return The parsed User object.
      * @throws IOException If there is an error during parsing.
      */
     private static User parse(String json) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        User obj = mapper.reader().readValue(json, User.class);
+        User obj = JsonMappers.readerFor(User.class).readValue(json);
         if(obj == null) {
             System.out.println("Cannot parse object!");
         }
         return obj;
     }
 
+    /**
+     * Parses a single line of the file into a User object.
+     * @param json JSON string representing a User object.
+     * @return Parsed User object.
+     * @throws IOException If there is an error during JSON parsing.
+     */
+    @Override
+    public User fromJson(String json) throws IOException {
+        return UserReaderWriter.parse(json);
+    }
+
     /**
      * Writes a User object to a file in JSON format.
      * @param obj The User object to write.
@@ -41,37 +57,4 @@ public class UserReaderWriter extends ReaderWriter<User> {
             System.out.printf("Cannot write in a file with the name %s!%n", filename);
         }
     }
-
-    /**
-     * Reads User objects from a file in JSON format.
-     * @param fr The FileReader object initialized with the file to read from.
-     * @param file The File object representing the file to read from.
-     * @return An ArrayList of User objects read from the file.
-     */
-    @Override
-    public ArrayList<User> read(FileReader fr, File file) {
-        StringBuilder sb = new StringBuilder();
-        int readByte;
-        ArrayList<User> users = new ArrayList<>();
-        try {
-            readByte = fr.read();
-            sb.append((char) readByte);
-            User user;
-            while (readByte > -1) {
-                if ((char) readByte == '\n') {
-                    // Parse the JSON string into a User object and add to the list
-                    user = UserReaderWriter.parse(sb.substring(0, sb.length() - 1));
-                    users.add(user);
-                    sb = new StringBuilder();
-                }
-                readByte = fr.read();
-                sb.append((char) readByte);
-            }
-        } catch (IOException ex) {
-            ex.fillInStackTrace();
-            System.out.printf("Cannot read from a file with the name %s", file.getName());
-        }
-
-        return users;
-    }
 }
\ No newline at end of file
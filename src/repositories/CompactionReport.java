@@ -0,0 +1,61 @@
+package repositories;
+
+/**
+ * The CompactionReport class describes a single compaction of an entity file and its log,
+ * so the compaction period and threshold can be tuned.
+ */
+public class CompactionReport {
+    private final String filename; // Name of the compacted entity file
+    private final int liveRecords; // Count of objects written to the new snapshot
+    private final long bytesBefore; // Size of the snapshot and the logs before the compaction
+    private final long bytesAfter; // Size of the snapshot and the logs after the compaction
+    private final long durationMillis; // Duration of the compaction
+
+    /**
+     * Constructor that initializes a report with all measured values.
+     *
+     * @param filename       Name of the compacted entity file.
+     * @param liveRecords    Count of objects written to the new snapshot.
+     * @param bytesBefore    Size of the snapshot and the logs before the compaction.
+     * @param bytesAfter     Size of the snapshot and the logs after the compaction.
+     * @param durationMillis Duration of the compaction in milliseconds.
+     */
+    public CompactionReport(String filename, int liveRecords, long bytesBefore, long bytesAfter, long durationMillis) {
+        this.filename = filename;
+        this.liveRecords = liveRecords;
+        this.bytesBefore = bytesBefore;
+        this.bytesAfter = bytesAfter;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public int getLiveRecords() {
+        return liveRecords;
+    }
+
+    public long getBytesBefore() {
+        return bytesBefore;
+    }
+
+    public long getBytesAfter() {
+        return bytesAfter;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Converts the report to a single human readable line.
+     *
+     * @return The report as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Compacted %s: %d live records | %d -> %d bytes | %d ms",
+                this.filename, this.liveRecords, this.bytesBefore, this.bytesAfter, this.durationMillis);
+    }
+}
@@ -0,0 +1,253 @@
+package repositories;
+
+import readersWriters.ReaderWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Append-only log of the mutations of one entity type. Every save is appended as a single
+ * "PUT {json}" line and every removal as a single "DEL id" line, so a change costs one
+ * append no matter how many objects are stored. The state is rebuilt by replaying the log
+ * on top of the entity's snapshot file.
+ * <p>
+ * For compaction the active log can be rolled: it is atomically renamed to a ".compacting"
+ * file and new records go to a fresh active log. The rolled log is replayed before the active
+ * one until the compaction has folded it into the snapshot and discarded it.
+ *
+ * @param <T> The type of logged objects, must implement Comparable<T>.
+ */
+public class EntityLog<T extends Comparable<T>> {
+    private static final String putPrefix = "PUT ";
+    private static final String deletePrefix = "DEL ";
+
+    private final Path path; // Path of the log file
+    private final Path rolledPath; // Path of the log rolled for compaction
+    private final ReaderWriter<T> readerWriter; // Parses the logged objects
+    private FileChannel channel; // Channel of the log file, kept open in append mode
+    private BufferedWriter writer; // Writer over the channel
+
+    /**
+     * Constructor that creates a log for the given file.
+     *
+     * @param path         Path of the log file.
+     * @param readerWriter The ReaderWriter used to parse logged objects.
+     */
+    public EntityLog(Path path, ReaderWriter<T> readerWriter) {
+        this.path = path;
+        this.rolledPath = Path.of(path + ".compacting");
+        this.readerWriter = readerWriter;
+    }
+
+    /**
+     * Gets the path of the log file.
+     *
+     * @return The path of the log file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Replays all logged mutations in order on top of the given map, the rolled log first and the active
+     * log after it. A record that cannot be parsed (e.g. the last line was torn by a crash) is skipped.
+     *
+     * @param entities The map of objects by ID to apply the mutations to.
+     * @param idOf     Function extracting the unique ID of an object.
+     * @return The count of replayed records.
+     */
+    public int replay(Map<Integer, T> entities, ToIntFunction<T> idOf) {
+        RecordVisitor visitor = new RecordVisitor() {
+            @Override
+            public void put(String json) throws IOException {
+                T obj = readerWriter.fromJson(json);
+                entities.put(idOf.applyAsInt(obj), obj);
+            }
+
+            @Override
+            public void delete(int id) {
+                entities.remove(id);
+            }
+        };
+        return this.replay(this.rolledPath, visitor) + this.replay(this.path, visitor);
+    }
+
+    /**
+     * Folds the rolled log into the given map of JSON lines by ID, as used for writing a snapshot.
+     *
+     * @param lines The map of JSON lines by ID to apply the mutations to.
+     * @param idOf  Function extracting the unique ID of an object.
+     * @return The count of folded records.
+     */
+    public int foldRolled(Map<Integer, String> lines, ToIntFunction<T> idOf) {
+        return this.replay(this.rolledPath, new RecordVisitor() {
+            @Override
+            public void put(String json) throws IOException {
+                lines.put(idOf.applyAsInt(readerWriter.fromJson(json)), json);
+            }
+
+            @Override
+            public void delete(int id) {
+                lines.remove(id);
+            }
+        });
+    }
+
+    private int replay(Path file, RecordVisitor visitor) {
+        if (Files.notExists(file)) {
+            return 0;
+        }
+        int replayed = 0;
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                try {
+                    if (line.startsWith(putPrefix)) {
+                        visitor.put(line.substring(putPrefix.length()));
+                        replayed++;
+                    } else if (line.startsWith(deletePrefix)) {
+                        visitor.delete(Integer.parseInt(line.substring(deletePrefix.length()).trim()));
+                        replayed++;
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    ex.fillInStackTrace();
+                    System.out.printf("Skipping broken record in %s!%n", file.getFileName());
+                }
+            }
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot read from file with name %s!%n", file.getFileName());
+        }
+        return replayed;
+    }
+
+    /**
+     * Rolls the active log for compaction. If a rolled log is still waiting to be folded the active
+     * log is kept as it is, so no record is ever overwritten. The log is forced before it is closed, as
+     * {@link #force()} only reaches the active log afterwards.
+     *
+     * @throws IOException If the active log cannot be forced, closed or renamed.
+     */
+    public void roll() throws IOException {
+        this.force();
+        this.close();
+        if (Files.exists(this.path) && Files.notExists(this.rolledPath)) {
+            Files.move(this.path, this.rolledPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Deletes the rolled log once it has been folded into the snapshot.
+     *
+     * @throws IOException If the rolled log cannot be deleted.
+     */
+    public void discardRolled() throws IOException {
+        Files.deleteIfExists(this.rolledPath);
+    }
+
+    /**
+     * Gets the size of the active and the rolled log together.
+     *
+     * @return The size in bytes.
+     * @throws IOException If the size cannot be read.
+     */
+    public long sizeInBytes() throws IOException {
+        long size = Files.exists(this.path) ? Files.size(this.path) : 0;
+        return size + (Files.exists(this.rolledPath) ? Files.size(this.rolledPath) : 0);
+    }
+
+    /**
+     * Appends a record that adds or replaces an object. The record is buffered until {@link #flush()}.
+     *
+     * @param obj The saved object.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendPut(T obj) throws IOException {
+        this.append(putPrefix + obj.toString());
+    }
+
+    /**
+     * Appends a record that adds or replaces an object with the object's JSON taken before.
+     *
+     * @param json The JSON of the saved object.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendPut(String json) throws IOException {
+        this.append(putPrefix + json);
+    }
+
+    /**
+     * Appends a record that removes an object. The record is buffered until {@link #flush()}.
+     *
+     * @param id The ID of the removed object.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendDelete(int id) throws IOException {
+        this.append(deletePrefix + id);
+    }
+
+    private void append(String record) throws IOException {
+        if (this.writer == null) {
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            this.writer = new BufferedWriter(Channels.newWriter(this.channel, StandardCharsets.UTF_8));
+        }
+        this.writer.write(record);
+        this.writer.newLine();
+    }
+
+    /**
+     * Flushes the buffered records to the log file.
+     *
+     * @throws IOException If the records cannot be written.
+     */
+    public void flush() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Flushes the buffered records and forces them to the storage device, so they survive a power loss.
+     *
+     * @throws IOException If the records cannot be written or forced.
+     */
+    public void force() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Flushes and closes the log file. A later append reopens it.
+     *
+     * @throws IOException If the log file cannot be closed.
+     */
+    public void close() throws IOException {
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Callback applying a single logged record.
+     */
+    private interface RecordVisitor {
+        void put(String json) throws IOException;
+
+        void delete(int id);
+    }
+}
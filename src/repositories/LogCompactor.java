@@ -0,0 +1,80 @@
+package repositories;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The LogCompactor class periodically compacts the repositories' logs into fresh snapshots on a
+ * background thread. A repository is compacted only when its log has grown past a threshold, and
+ * every compaction is passed to a reporter.
+ */
+public class LogCompactor implements AutoCloseable {
+    private final List<Repository<?>> repositories; // Repositories to compact
+    private final long minLogBytes; // Minimum size of the logs before a repository is compacted
+    private final Consumer<CompactionReport> reporter; // Receives the report of every compaction
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor that creates a compactor for the given repositories.
+     *
+     * @param repositories Repositories to compact.
+     * @param minLogBytes  Minimum size of the logs before a repository is compacted.
+     * @param reporter     Receives the report of every compaction.
+     */
+    public LogCompactor(List<Repository<?>> repositories, long minLogBytes, Consumer<CompactionReport> reporter) {
+        this.repositories = repositories;
+        this.minLogBytes = minLogBytes;
+        this.reporter = reporter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts compacting the repositories periodically.
+     *
+     * @param period The period between two compaction runs.
+     * @param unit   The time unit of the period.
+     */
+    public void start(long period, TimeUnit unit) {
+        this.scheduler.scheduleWithFixedDelay(this::compactAll, period, period, unit);
+    }
+
+    /**
+     * Compacts every repository whose logs have grown past the threshold.
+     *
+     * @return Reports of the performed compactions.
+     */
+    public List<CompactionReport> compactAll() {
+        List<CompactionReport> reports = new ArrayList<>();
+        for (Repository<?> repository : this.repositories) {
+            try {
+                if (repository.logSizeInBytes() < this.minLogBytes) {
+                    continue;
+                }
+                CompactionReport report = repository.compact();
+                reports.add(report);
+                this.reporter.accept(report);
+            } catch (IOException | RuntimeException ex) {
+                ex.fillInStackTrace();
+                System.err.printf("Cannot compact file with name %s!%n", repository.getFilename());
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Stops the periodic compaction. A running compaction is allowed to finish.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdown();
+    }
+}
@@ -0,0 +1,290 @@
+package repositories;
+
+import readersWriters.BinaryReaderWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Store of objects of type T in fixed-size slots of a memory-mapped file. An ID-to-slot index
+ * makes every save and removal patch a single slot in place, and objects are decoded straight
+ * from the mapped buffer. The file starts with a header of the magic number, the schema version,
+ * the slot size and the slot count; every slot holds the object's ID (0 for a free slot), the
+ * length of its record and the record encoded by the BinaryReaderWriter.
+ * <p>
+ * A record larger than a slot doubles the slot size, the only time the whole file is rewritten.
+ *
+ * @param <T> The type of stored objects, must implement Comparable<T>.
+ */
+public class MappedStore<T extends Comparable<T>> {
+    public static final int magic = 0x4852534D; // "HRSM"
+    private static final int headerSize = 64;
+    private static final int slotHeaderSize = 2 * Integer.BYTES; // ID and record length
+    private static final int initialSlotsCount = 64;
+
+    private final Path path; // Path of the mapped file
+    private final BinaryReaderWriter<T> binaryReaderWriter; // Encodes and decodes the records
+    private final ToIntFunction<T> idOf; // Extracts the unique ID of an object
+    private final Map<Integer, Integer> slotsById = new HashMap<>(); // Slot of every stored ID
+    private final Deque<Integer> freeSlots = new ArrayDeque<>(); // Slots of removed objects
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slotSize; // Size of a slot in bytes
+    private int slotsCount; // Count of slots in the file, used or free
+
+    /**
+     * Constructor that opens the store, creating the file if it does not exist, and indexes its slots.
+     *
+     * @param path               Path of the mapped file.
+     * @param binaryReaderWriter The BinaryReaderWriter encoding the records.
+     * @param idOf               Function extracting the unique ID of an object.
+     * @param slotSize           Initial size of a slot in bytes, used for new files only.
+     * @throws IOException If the file cannot be opened or has an unsupported header.
+     */
+    public MappedStore(Path path, BinaryReaderWriter<T> binaryReaderWriter, ToIntFunction<T> idOf, int slotSize)
+            throws IOException {
+        this.path = path;
+        this.binaryReaderWriter = binaryReaderWriter;
+        this.idOf = idOf;
+        boolean isNew = Files.notExists(path) || Files.size(path) == 0;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (isNew) {
+            this.slotSize = slotSize;
+            this.slotsCount = initialSlotsCount;
+            this.map();
+            this.writeHeader();
+        } else {
+            if (this.channel.size() < headerSize) {
+                this.channel.close();
+                throw new IOException(String.format("%s is not a mapped store!", path.getFileName()));
+            }
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+            short version = this.readHeader();
+            this.map();
+            this.index();
+            if (version < this.binaryReaderWriter.getSchemaVersion()) {
+                this.migrate(version);
+            }
+            return;
+        }
+        this.index();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private long fileSize() {
+        return headerSize + (long) this.slotSize * this.slotsCount;
+    }
+
+    private void map() throws IOException {
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.fileSize());
+    }
+
+    private void writeHeader() {
+        this.buffer.putInt(0, magic);
+        this.buffer.putShort(4, this.binaryReaderWriter.getSchemaVersion());
+        this.buffer.putInt(8, this.slotSize);
+        this.buffer.putInt(12, this.slotsCount);
+    }
+
+    private short readHeader() throws IOException {
+        short version = this.buffer.getShort(4);
+        if (this.buffer.getInt(0) != magic || version < 1 || version > this.binaryReaderWriter.getSchemaVersion()) {
+            throw new IOException(String.format("Unsupported mapped store %s v%d!", this.path.getFileName(), version));
+        }
+        this.slotSize = this.buffer.getInt(8);
+        this.slotsCount = this.buffer.getInt(12);
+        return version;
+    }
+
+    // Rewrites every record of an older schema version with the current one, then the header
+    private void migrate(short version) throws IOException {
+        ArrayList<T> objs = new ArrayList<>(this.slotsById.size());
+        for (int slot : this.slotsById.values()) {
+            objs.add(this.binaryReaderWriter.fromBuffer(this.recordOf(slot), version));
+        }
+        for (T obj : objs) {
+            this.put(obj);
+        }
+        this.writeHeader();
+        this.force();
+    }
+
+    private int offsetOf(int slot) {
+        return headerSize + slot * this.slotSize;
+    }
+
+    private void index() {
+        for (int slot = 0; slot < this.slotsCount; slot++) {
+            int id = this.buffer.getInt(this.offsetOf(slot));
+            if (id == 0) {
+                this.freeSlots.add(slot);
+            } else {
+                this.slotsById.put(id, slot);
+            }
+        }
+    }
+
+    private ByteBuffer recordOf(int slot) {
+        int offset = this.offsetOf(slot);
+        int length = this.buffer.getInt(offset + Integer.BYTES);
+        return this.buffer.slice(offset + slotHeaderSize, length);
+    }
+
+    /**
+     * Reads all stored objects, decoded straight from the mapped file. A broken record is skipped.
+     *
+     * @return ArrayList of the stored objects.
+     */
+    public synchronized ArrayList<T> readAll() {
+        ArrayList<T> objs = new ArrayList<>(this.slotsById.size());
+        for (int slot : this.slotsById.values()) {
+            try {
+                objs.add(this.binaryReaderWriter.fromBuffer(this.recordOf(slot)));
+            } catch (IOException | RuntimeException ex) {
+                ex.fillInStackTrace();
+                System.out.printf("Skipping broken record in %s!%n", this.path.getFileName());
+            }
+        }
+        return objs;
+    }
+
+    /**
+     * Reads a single object, decoded straight from the mapped file.
+     *
+     * @param id The ID of the object.
+     * @return The object or null if there is no object with the given ID.
+     * @throws IOException If the record is broken.
+     */
+    public synchronized T read(int id) throws IOException {
+        Integer slot = this.slotsById.get(id);
+        return slot == null ? null : this.binaryReaderWriter.fromBuffer(this.recordOf(slot));
+    }
+
+    /**
+     * Writes an object into its slot, or into a free slot if it is new.
+     *
+     * @param obj The object to write.
+     * @throws IOException If the object cannot be encoded or the file cannot grow.
+     */
+    public synchronized void put(T obj) throws IOException {
+        int id = this.idOf.applyAsInt(obj);
+        byte[] record = this.binaryReaderWriter.toBytes(obj);
+        if (record.length > this.slotSize - slotHeaderSize) {
+            this.resize(Math.max(this.slotSize * 2, Integer.highestOneBit(record.length + slotHeaderSize) * 2));
+        }
+        Integer slot = this.slotsById.get(id);
+        if (slot == null) {
+            if (this.freeSlots.isEmpty()) {
+                this.grow();
+            }
+            slot = this.freeSlots.poll();
+            this.slotsById.put(id, slot);
+        }
+        int offset = this.offsetOf(slot);
+        // The ID goes last, so a new slot is not taken before its record is complete
+        this.buffer.put(offset + slotHeaderSize, record);
+        this.buffer.putInt(offset + Integer.BYTES, record.length);
+        this.buffer.putInt(offset, id);
+    }
+
+    /**
+     * Frees the slot of an object.
+     *
+     * @param id The ID of the object.
+     * @return true if the object was stored, false otherwise.
+     */
+    public synchronized boolean remove(int id) {
+        Integer slot = this.slotsById.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        this.buffer.putInt(this.offsetOf(slot), 0);
+        this.freeSlots.add(slot);
+        return true;
+    }
+
+    // Doubles the count of slots, the file is extended and mapped again
+    private void grow() throws IOException {
+        int previousCount = this.slotsCount;
+        this.slotsCount *= 2;
+        this.map();
+        this.writeHeader();
+        for (int slot = previousCount; slot < this.slotsCount; slot++) {
+            this.freeSlots.add(slot);
+        }
+    }
+
+    // Rewrites the file with larger slots next to the old one and swaps it in atomically
+    private void resize(int newSlotSize) throws IOException {
+        Path tmp = Path.of(this.path + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (FileChannel target = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer resized = target.map(FileChannel.MapMode.READ_WRITE, 0,
+                    headerSize + (long) newSlotSize * this.slotsCount);
+            resized.put(0, this.buffer, 0, headerSize);
+            resized.putInt(8, newSlotSize);
+            for (int slot = 0; slot < this.slotsCount; slot++) {
+                int length = this.buffer.getInt(this.offsetOf(slot) + Integer.BYTES);
+                resized.put(headerSize + slot * newSlotSize, this.buffer, this.offsetOf(slot),
+                        slotHeaderSize + Math.min(length, this.slotSize - slotHeaderSize));
+            }
+            resized.force();
+        }
+        this.channel.close();
+        Files.move(tmp, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.slotSize = newSlotSize;
+        this.map();
+    }
+
+    /**
+     * Forces the changed slots to the storage device.
+     */
+    public synchronized void force() {
+        this.buffer.force();
+    }
+
+    /**
+     * Gets the size of the mapped file.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long sizeInBytes() {
+        return this.fileSize();
+    }
+
+    /**
+     * Gets the size of a slot.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized int getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * Forces the changes and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+}
@@ -0,0 +1,218 @@
+package repositories;
+
+import models.*;
+import readersWriters.*;
+import types.StorageFormat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Registry of the application's repositories. Every repository is created lazily on first use,
+ * so each entity file is parsed at most once per application run.
+ */
+public final class Repositories {
+    public static final String dataDirectory = System.getProperty("storage.dir"); // Working directory if null
+    public static final String usersFilename = "users.txt";
+    public static final String roomsFilename = "rooms.txt";
+    public static final String reservationsFilename = "reservations.txt";
+    public static final String hotelsFilename = "hotels.txt";
+    public static final String debitCardsFilename = "debitCards.txt";
+    public static final String roomsBinaryFilename = "rooms.bin";
+    public static final String reservationsBinaryFilename = "reservations.bin";
+    public static final String roomsMappedFilename = "rooms.dat";
+    public static final String reservationsMappedFilename = "reservations.dat";
+    public static final int roomsSlotSize = 1024; // Initial slot sizes, they double for larger records
+    public static final int reservationsSlotSize = 128;
+
+    // Storage formats, selected per entity type with e.g. -Dstorage.rooms=BINARY or MAPPED
+    public static final StorageFormat roomsFormat = formatOf("storage.rooms");
+    public static final StorageFormat reservationsFormat = formatOf("storage.reservations");
+
+    private Repositories() {
+    }
+
+    private static String pathOf(String filename) {
+        return dataDirectory == null ? filename : Path.of(dataDirectory, filename).toString();
+    }
+
+    private static StorageFormat formatOf(String property) {
+        return StorageFormat.valueOf(System.getProperty(property, StorageFormat.JSON.name()).toUpperCase());
+    }
+
+    /**
+     * Loads the objects of a JSON backing file and its log, if there are any, e.g. to migrate them.
+     *
+     * @return The loaded objects or null if there is no JSON backing file nor log.
+     */
+    private static <T extends Comparable<T>> ArrayList<T> loadJson(String jsonFilename, ReaderWriter<T> readerWriter,
+                                                                   ToIntFunction<T> idOf) {
+        if (Files.notExists(Path.of(jsonFilename)) && Files.notExists(Path.of(jsonFilename + ".log"))) {
+            return null;
+        }
+        return new Repository<>(jsonFilename, readerWriter, idOf).findAll();
+    }
+
+    /**
+     * Creates a repository with a binary backing file. On the first run the JSON backing file and its
+     * log are loaded once and written as the binary backing file.
+     */
+    private static <T extends Comparable<T>> Repository<T> binaryRepository(String jsonFilename, String binaryFilename,
+                                                                             ReaderWriter<T> readerWriter,
+                                                                             BinaryReaderWriter<T> binaryReaderWriter,
+                                                                             ToIntFunction<T> idOf) {
+        Path binary = Path.of(binaryFilename);
+        ArrayList<T> migrated = Files.exists(binary) ? null : loadJson(jsonFilename, readerWriter, idOf);
+        if (migrated != null) {
+            try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                binaryReaderWriter.writeAll(migrated, channel);
+                channel.force(true);
+            } catch (IOException ex) {
+                ex.fillInStackTrace();
+                System.out.printf("Cannot write in a file with the name %s!%n", binaryFilename);
+            }
+        }
+        return new Repository<>(binaryFilename, readerWriter, binaryReaderWriter, idOf);
+    }
+
+    /**
+     * Creates a repository over a memory-mapped store. On the first run the JSON backing file and its
+     * log are loaded once and put into the store.
+     *
+     * @throws RuntimeException if the store cannot be opened.
+     */
+    private static <T extends Comparable<T>> Repository<T> mappedRepository(String jsonFilename, String mappedFilename,
+                                                                             int slotSize, ReaderWriter<T> readerWriter,
+                                                                             BinaryReaderWriter<T> binaryReaderWriter,
+                                                                             ToIntFunction<T> idOf) {
+        Path mapped = Path.of(mappedFilename);
+        ArrayList<T> migrated = Files.exists(mapped) ? null : loadJson(jsonFilename, readerWriter, idOf);
+        try {
+            MappedStore<T> store = new MappedStore<>(mapped, binaryReaderWriter, idOf, slotSize);
+            if (migrated != null) {
+                for (T obj : migrated) {
+                    store.put(obj);
+                }
+                store.force();
+            }
+            return new Repository<>(readerWriter, store, idOf);
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Cannot open the mapped store %s!", mappedFilename), ex);
+        }
+    }
+
+    // Lazy holders, each one is initialized on first access only
+    private static final class RoomsHolder {
+        static final Repository<Room> INSTANCE = switch (roomsFormat) {
+            case BINARY -> binaryRepository(pathOf(roomsFilename), pathOf(roomsBinaryFilename),
+                    new RoomReaderWriter(), new RoomBinaryReaderWriter(), Room::getId);
+            case MAPPED -> mappedRepository(pathOf(roomsFilename), pathOf(roomsMappedFilename), roomsSlotSize,
+                    new RoomReaderWriter(), new RoomBinaryReaderWriter(), Room::getId);
+            case JSON -> new Repository<>(pathOf(roomsFilename), new RoomReaderWriter(), Room::getId);
+        };
+
+        static {
+            Room.reserveIdsUpTo(INSTANCE.maxId());
+        }
+    }
+
+    private static final class HotelsHolder {
+        static final Repository<Hotel> INSTANCE =
+                new Repository<>(pathOf(hotelsFilename), new HotelReaderWriter(), Hotel::getId);
+
+        static {
+            Hotel.reserveIdsUpTo(INSTANCE.maxId());
+        }
+    }
+
+    private static final class UsersHolder {
+        static final Repository<User> INSTANCE =
+                new Repository<>(pathOf(usersFilename), new UserReaderWriter(), User::getId);
+
+        static {
+            User.reserveIdsUpTo(INSTANCE.maxId());
+        }
+    }
+
+    private static final class DebitCardsHolder {
+        static final Repository<DebitCard> INSTANCE =
+                new Repository<>(pathOf(debitCardsFilename), new DebitCardReaderWriter(), DebitCard::getId);
+
+        static {
+            DebitCard.reserveIdsUpTo(INSTANCE.maxId());
+        }
+    }
+
+    private static final class ReservationsHolder {
+        static final Repository<Reservation> INSTANCE = switch (reservationsFormat) {
+            case BINARY -> binaryRepository(pathOf(reservationsFilename), pathOf(reservationsBinaryFilename),
+                    new ReservationReaderWriter(), new ReservationBinaryReaderWriter(), Reservation::getId);
+            case MAPPED -> mappedRepository(pathOf(reservationsFilename), pathOf(reservationsMappedFilename),
+                    reservationsSlotSize, new ReservationReaderWriter(), new ReservationBinaryReaderWriter(), Reservation::getId);
+            case JSON -> new Repository<>(pathOf(reservationsFilename), new ReservationReaderWriter(), Reservation::getId);
+        };
+
+        static {
+            Reservation.reserveIdsUpTo(INSTANCE.maxId());
+        }
+    }
+
+    public static Repository<Room> rooms() {
+        return RoomsHolder.INSTANCE;
+    }
+
+    public static Repository<Hotel> hotels() {
+        return HotelsHolder.INSTANCE;
+    }
+
+    public static Repository<User> users() {
+        return UsersHolder.INSTANCE;
+    }
+
+    public static Repository<DebitCard> debitCards() {
+        return DebitCardsHolder.INSTANCE;
+    }
+
+    public static Repository<Reservation> reservations() {
+        return ReservationsHolder.INSTANCE;
+    }
+
+    /**
+     * Gets all repositories of the application.
+     *
+     * @return List of all repositories.
+     */
+    public static List<Repository<?>> all() {
+        return List.of(rooms(), hotels(), users(), debitCards(), reservations());
+    }
+
+    /**
+     * Gets the repository for the given model class.
+     *
+     * @param cl  The model class.
+     * @param <T> The model type.
+     * @return The repository holding objects of the given class.
+     * @throws RuntimeException if there is no repository for the given class.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<T>> Repository<T> forType(Class<T> cl) {
+        if (cl == Room.class) {
+            return (Repository<T>) rooms();
+        } else if (cl == Hotel.class) {
+            return (Repository<T>) hotels();
+        } else if (cl == User.class) {
+            return (Repository<T>) users();
+        } else if (cl == DebitCard.class) {
+            return (Repository<T>) debitCards();
+        } else if (cl == Reservation.class) {
+            return (Repository<T>) reservations();
+        }
+        throw new RuntimeException("Unknown abstract T type.");
+    }
+}
@@ -0,0 +1,475 @@
+package repositories;
+
+import interfaces.IRepositoryListener;
+import readersWriters.BinaryReaderWriter;
+import readersWriters.ReaderWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * In-memory repository of objects of type T. The backing file is parsed only once, when the repository
+ * is created; afterwards all reads are served from an ID-keyed map and every change is appended to
+ * the entity's log. On startup the state is rebuilt from the backing file and the replayed log.
+ *
+ * @param <T> The type of objects kept in the repository, must implement Comparable<T>.
+ */
+public class Repository<T extends Comparable<T>> {
+    private final String filename; // Name of the backing file
+    private final ReaderWriter<T> readerWriter; // Storage backend for the log and JSON backing files
+    private final BinaryReaderWriter<T> binaryReaderWriter; // Storage backend for binary backing files, else null
+    private final MappedStore<T> mappedStore; // Patches objects in place instead of logging them, else null
+    private final EntityLog<T> log; // Append-only log of the changes since the backing file was written
+    private final ToIntFunction<T> idOf; // Extracts the unique ID of an object
+    private final ConcurrentNavigableMap<Integer, T> entities; // All loaded objects mapped by ID
+    private final ReentrantLock lock = new ReentrantLock(); // Orders the changes and their writes
+    private final ReentrantLock compactionLock = new ReentrantLock(); // Allows a single compaction at a time
+    private final List<IRepositoryListener<T>> listeners = new CopyOnWriteArrayList<>(); // Maintained indexes
+    private volatile IOException writeFailure; // First failed write, the files may miss changes since
+
+    /**
+     * Constructor that creates the repository and loads all objects from the backing file.
+     *
+     * @param filename     The name of the backing file.
+     * @param readerWriter The ReaderWriter used to parse and write the backing file.
+     * @param idOf         Function extracting the unique ID of an object.
+     */
+    public Repository(String filename, ReaderWriter<T> readerWriter, ToIntFunction<T> idOf) {
+        this(filename, readerWriter, null, null, idOf);
+    }
+
+    /**
+     * Constructor that creates the repository with a binary backing file and loads all objects from it.
+     * The log stays in JSON, only the snapshots written by the compaction are binary.
+     *
+     * @param filename           The name of the backing file.
+     * @param readerWriter       The ReaderWriter used to parse the log.
+     * @param binaryReaderWriter The BinaryReaderWriter of the backing file or null for a JSON backing file.
+     * @param idOf               Function extracting the unique ID of an object.
+     */
+    public Repository(String filename, ReaderWriter<T> readerWriter, BinaryReaderWriter<T> binaryReaderWriter,
+                      ToIntFunction<T> idOf) {
+        this(filename, readerWriter, binaryReaderWriter, null, idOf);
+    }
+
+    /**
+     * Constructor that creates the repository over a memory-mapped store and loads all objects from it.
+     * Every change patches the object's slot in place, so there is no log to compact.
+     *
+     * @param readerWriter The ReaderWriter of the objects.
+     * @param mappedStore  The opened mapped store.
+     * @param idOf         Function extracting the unique ID of an object.
+     */
+    public Repository(ReaderWriter<T> readerWriter, MappedStore<T> mappedStore, ToIntFunction<T> idOf) {
+        this(mappedStore.getPath().toString(), readerWriter, null, mappedStore, idOf);
+    }
+
+    private Repository(String filename, ReaderWriter<T> readerWriter, BinaryReaderWriter<T> binaryReaderWriter,
+                       MappedStore<T> mappedStore, ToIntFunction<T> idOf) {
+        this.filename = filename;
+        this.readerWriter = readerWriter;
+        this.binaryReaderWriter = binaryReaderWriter;
+        this.mappedStore = mappedStore;
+        this.idOf = idOf;
+        this.entities = new ConcurrentSkipListMap<>();
+        this.log = new EntityLog<>(Path.of(filename + ".log"), readerWriter);
+        this.load();
+    }
+
+    /**
+     * Reads the backing file once, fills the ID-keyed map and replays the log on top of it.
+     */
+    private void load() {
+        if (this.mappedStore != null) {
+            for (T obj : this.mappedStore.readAll()) {
+                this.entities.put(this.idOf.applyAsInt(obj), obj);
+            }
+            return;
+        }
+        Path snapshot = Path.of(this.filename);
+        if (Files.exists(snapshot)) {
+            try (Stream<T> objs = this.binaryReaderWriter != null
+                    ? this.binaryReaderWriter.stream(snapshot) : this.readerWriter.stream(snapshot)) {
+                objs.forEach(obj -> this.entities.put(this.idOf.applyAsInt(obj), obj));
+            } catch (IOException ex) {
+                ex.fillInStackTrace();
+                System.out.printf("Cannot read from file with name %s!%n", this.filename);
+            }
+        }
+        this.log.replay(this.entities, this.idOf);
+    }
+
+    /**
+     * Gets the size of the backing file and its logs.
+     *
+     * @return The size in bytes.
+     * @throws IOException If the size cannot be read.
+     */
+    public long sizeInBytes() throws IOException {
+        if (this.mappedStore != null) {
+            return this.mappedStore.sizeInBytes();
+        }
+        Path snapshot = Path.of(this.filename);
+        return (Files.exists(snapshot) ? Files.size(snapshot) : 0) + this.log.sizeInBytes();
+    }
+
+    /**
+     * Gets the size of the logs that are not yet compacted into the backing file.
+     *
+     * @return The size in bytes.
+     * @throws IOException If the size cannot be read.
+     */
+    public long logSizeInBytes() throws IOException {
+        return this.log.sizeInBytes();
+    }
+
+    /**
+     * Writes a point-in-time snapshot with one line per live object and atomically swaps it in as the
+     * backing file. Only rolling the log holds the repository lock, so saves are not blocked while the
+     * snapshot is built from the old backing file and the rolled log.
+     *
+     * @return Report of the compaction.
+     * @throws IOException If the snapshot cannot be written or swapped in.
+     */
+    public CompactionReport compact() throws IOException {
+        this.compactionLock.lock();
+        try {
+            long start = System.nanoTime();
+            long bytesBefore = this.sizeInBytes();
+            if (this.mappedStore != null) {
+                this.mappedStore.force(); // slots are patched in place, there is nothing to fold
+                long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                return new CompactionReport(this.filename, this.count(), bytesBefore, this.sizeInBytes(), durationMillis);
+            }
+            this.lock.lock();
+            try {
+                this.log.roll();
+            } finally {
+                this.lock.unlock();
+            }
+
+            // Fold the old snapshot and the rolled log into one JSON line per live object
+            Path snapshot = Path.of(this.filename);
+            Map<Integer, String> lines = new TreeMap<>();
+            if (Files.exists(snapshot) && this.binaryReaderWriter != null) {
+                try (Stream<T> objs = this.binaryReaderWriter.stream(snapshot)) {
+                    objs.forEach(obj -> lines.put(this.idOf.applyAsInt(obj), obj.toString()));
+                }
+            } else if (Files.exists(snapshot)) {
+                try (BufferedReader br = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            lines.put(this.idOf.applyAsInt(this.readerWriter.fromJson(line)), line);
+                        }
+                    }
+                }
+            }
+            this.log.foldRolled(lines, this.idOf);
+
+            Path tmp = Path.of(this.filename + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                if (this.binaryReaderWriter != null) {
+                    this.writeBinary(lines.values(), channel);
+                } else {
+                    BufferedWriter bw = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                    for (String line : lines.values()) {
+                        bw.write(line);
+                        bw.newLine();
+                    }
+                    bw.flush();
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            this.log.discardRolled();
+
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            return new CompactionReport(this.filename, lines.size(), bytesBefore, this.sizeInBytes(), durationMillis);
+        } finally {
+            this.compactionLock.unlock();
+        }
+    }
+
+    // Parses the folded lines again, so the snapshot never sees objects that are being changed
+    private void writeBinary(Collection<String> lines, FileChannel channel) throws IOException {
+        ArrayList<T> objs = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            objs.add(this.readerWriter.fromJson(line));
+        }
+        this.binaryReaderWriter.writeAll(objs, channel);
+    }
+
+    /**
+     * Registers a listener that is notified about every saved and deleted object. The listener is first
+     * notified about all objects already in the repository, so indexes can be built from it.
+     *
+     * @param listener The listener to register.
+     */
+    public void subscribe(IRepositoryListener<T> listener) {
+        this.lock.lock();
+        try {
+            for (T obj : this.entities.values()) {
+                listener.saved(obj);
+            }
+            this.listeners.add(listener);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the name of the backing file.
+     *
+     * @return The name of the backing file.
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Finds an object by its ID.
+     *
+     * @param id The ID of the object.
+     * @return The object with the given ID or null if there is no such object.
+     */
+    public T findById(int id) {
+        return this.entities.get(id);
+    }
+
+    /**
+     * Checks if an object with the given ID exists.
+     *
+     * @param id The ID of the object.
+     * @return true if the object exists, false otherwise.
+     */
+    public boolean existsById(int id) {
+        return this.entities.containsKey(id);
+    }
+
+    /**
+     * Gets all objects ordered by ID.
+     *
+     * @return ArrayList of all objects in the repository.
+     */
+    public ArrayList<T> findAll() {
+        return new ArrayList<>(this.entities.values());
+    }
+
+    /**
+     * Streams all objects ordered by ID without copying them. The stream is weakly consistent,
+     * it never fails on concurrent changes.
+     *
+     * @return Stream of all objects in the repository.
+     */
+    public Stream<T> stream() {
+        return this.entities.values().stream();
+    }
+
+    /**
+     * Gets the count of objects in the repository.
+     *
+     * @return The count of objects.
+     */
+    public int count() {
+        return this.entities.size();
+    }
+
+    /**
+     * Gets the greatest ID in the repository.
+     *
+     * @return The greatest ID or 0 if the repository is empty.
+     */
+    public int maxId() {
+        return this.entities.isEmpty() ? 0 : this.entities.lastKey();
+    }
+
+    private Path storePath() {
+        return this.mappedStore != null ? this.mappedStore.getPath() : this.log.getPath();
+    }
+
+    private void writePut(T obj) throws IOException {
+        if (this.mappedStore != null) {
+            this.mappedStore.put(obj);
+        } else {
+            this.log.appendPut(obj);
+        }
+    }
+
+    private void writeDelete(int id) throws IOException {
+        if (this.mappedStore != null) {
+            this.mappedStore.remove(id);
+        } else {
+            this.log.appendDelete(id);
+        }
+    }
+
+    // Keeps the first failed write, so the repository is never reported as durable after it
+    private void failWrite(IOException ex) {
+        ex.fillInStackTrace();
+        if (this.writeFailure == null) {
+            this.writeFailure = ex;
+        }
+        System.out.printf("Cannot write in a file with the name %s!%n", this.storePath().getFileName());
+    }
+
+    /**
+     * Checks if a write to the log or the mapped store has failed. The objects in memory are still
+     * complete, but the files may miss changes until the application is restarted.
+     *
+     * @return true if a write has failed, false otherwise.
+     */
+    public boolean isBroken() {
+        return this.writeFailure != null;
+    }
+
+    private void flushWrites() throws IOException {
+        if (this.mappedStore == null) {
+            this.log.flush();
+        }
+    }
+
+    /**
+     * Parses an object written by this repository, e.g. from a transaction journal.
+     *
+     * @param json The JSON of the object.
+     * @return The parsed object.
+     * @throws IOException If the JSON cannot be parsed.
+     */
+    public T parse(String json) throws IOException {
+        return this.readerWriter.fromJson(json);
+    }
+
+    /**
+     * Forces the written changes to the storage device, so they survive a power loss. A repository
+     * whose write has failed cannot be forced, as its files may miss changes.
+     *
+     * @throws IOException If the changes cannot be forced or a write has failed.
+     */
+    public void force() throws IOException {
+        this.lock.lock();
+        try {
+            if (this.writeFailure != null) {
+                throw new IOException("A write to " + this.storePath().getFileName() + " has failed!", this.writeFailure);
+            }
+            if (this.mappedStore != null) {
+                this.mappedStore.force();
+            } else {
+                this.log.force();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces an object and writes the change to the log or the mapped store.
+     *
+     * @param obj The object to save.
+     */
+    public void save(T obj) {
+        this.lock.lock();
+        try {
+            this.entities.put(this.idOf.applyAsInt(obj), obj);
+            this.listeners.forEach(listener -> listener.saved(obj));
+            this.writePut(obj);
+            this.flushWrites();
+        } catch (IOException ex) {
+            this.failWrite(ex);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces an object and writes the JSON taken from it before, e.g. by a transaction journal,
+     * so the object may change meanwhile without its writers being held up by the write.
+     *
+     * @param obj  The object to save.
+     * @param json The JSON of the object to write.
+     */
+    public void save(T obj, String json) {
+        this.lock.lock();
+        try {
+            this.entities.put(this.idOf.applyAsInt(obj), obj);
+            this.listeners.forEach(listener -> listener.saved(obj));
+            if (this.mappedStore != null) {
+                this.mappedStore.put(this.parse(json)); // encodes a copy, not the changing object
+            } else {
+                this.log.appendPut(json);
+            }
+            this.flushWrites();
+        } catch (IOException ex) {
+            this.failWrite(ex);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces several objects and writes the changes to the log or the mapped store at once.
+     *
+     * @param objs The objects to save.
+     */
+    public void saveAll(Collection<T> objs) {
+        this.lock.lock();
+        try {
+            for (T obj : objs) {
+                this.entities.put(this.idOf.applyAsInt(obj), obj);
+                this.listeners.forEach(listener -> listener.saved(obj));
+                this.writePut(obj);
+            }
+            this.flushWrites();
+        } catch (IOException ex) {
+            this.failWrite(ex);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an object by its ID and writes the change to the log or the mapped store.
+     *
+     * @param id The ID of the object to remove.
+     * @return true if the object was found and removed, false otherwise.
+     */
+    public boolean delete(int id) {
+        this.lock.lock();
+        try {
+            T removed = this.entities.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            this.listeners.forEach(listener -> listener.deleted(removed));
+            try {
+                this.writeDelete(id);
+                this.flushWrites();
+            } catch (IOException ex) {
+                this.failWrite(ex);
+            }
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
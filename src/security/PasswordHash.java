@@ -0,0 +1,132 @@
+package security;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+
+/**
+ * The PasswordHash class is a salted PBKDF2 hash of a password together with the parameters it was made
+ * with. It is stored in the user's password field as "pbkdf2$algorithm$iterations$salt$hash", the salt and
+ * the hash in Base64, so every user keeps its own salt and cost and the cost can be raised over time.
+ */
+public final class PasswordHash {
+    public static final String scheme = "pbkdf2";
+    private static final String separator = "$";
+    private static final int saltLength = 16;
+    private static final int keyLengthBits = 256;
+    private static final SecureRandom random = new SecureRandom();
+
+    private final String algorithm; // PBKDF2 algorithm, e.g. PBKDF2WithHmacSHA256
+    private final int iterations; // Iteration count of the hash
+    private final byte[] salt; // Random salt of the user
+    private final byte[] hash; // The derived key
+
+    private PasswordHash(String algorithm, int iterations, byte[] salt, byte[] hash) {
+        this.algorithm = algorithm;
+        this.iterations = iterations;
+        this.salt = salt;
+        this.hash = hash;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    private static byte[] derive(String password, String algorithm, int iterations, byte[] salt, int lengthBits)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, lengthBits);
+        try {
+            return SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Hashes a password with a fresh random salt.
+     *
+     * @param password   The plaintext password.
+     * @param algorithm  The PBKDF2 algorithm, e.g. PBKDF2WithHmacSHA256.
+     * @param iterations The iteration count.
+     * @return The hash with its parameters.
+     * @throws NoSuchAlgorithmException If the algorithm is not available.
+     * @throws InvalidKeySpecException If the parameters are invalid.
+     */
+    public static PasswordHash create(String password, String algorithm, int iterations)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        byte[] salt = new byte[saltLength];
+        random.nextBytes(salt);
+        return new PasswordHash(algorithm, iterations, salt, derive(password, algorithm, iterations, salt, keyLengthBits));
+    }
+
+    /**
+     * Parses a stored password.
+     *
+     * @param stored The value of the user's password field.
+     * @return The hash, or null if the value is not an encoded hash, e.g. a legacy plaintext password.
+     */
+    public static PasswordHash parse(String stored) {
+        if (stored == null || !stored.startsWith(scheme + separator)) {
+            return null;
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            return new PasswordHash(parts[1], Integer.parseInt(parts[2]), decoder.decode(parts[3]), decoder.decode(parts[4]));
+        } catch (IllegalArgumentException ex) {
+            ex.fillInStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Checks a password against the hash in constant time.
+     *
+     * @param password The plaintext password.
+     * @return true if the password produces the same hash, false otherwise.
+     * @throws NoSuchAlgorithmException If the algorithm of the hash is not available.
+     * @throws InvalidKeySpecException If the parameters of the hash are invalid.
+     */
+    public boolean matches(String password) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        byte[] candidate = derive(password, this.algorithm, this.iterations, this.salt, this.hash.length * 8);
+        return MessageDigest.isEqual(candidate, this.hash);
+    }
+
+    /**
+     * Checks if the hash was made with other parameters than the given ones, so it should be made again.
+     *
+     * @param algorithm  The current algorithm.
+     * @param iterations The current iteration count.
+     * @return true if the algorithm differs or the iteration count is lower, false otherwise.
+     */
+    public boolean isOutdated(String algorithm, int iterations) {
+        return !this.algorithm.equals(algorithm) || this.iterations < iterations;
+    }
+
+    /**
+     * Encodes the hash with its parameters for the user's password field.
+     *
+     * @return The encoded hash.
+     */
+    public String encode() {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return String.join(separator, scheme, this.algorithm, String.valueOf(this.iterations),
+                encoder.encodeToString(this.salt), encoder.encodeToString(this.hash));
+    }
+
+    @Override
+    public String toString() {
+        return this.encode();
+    }
+}
@@ -0,0 +1,156 @@
+package security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The PasswordHasher class hashes and verifies passwords on a fixed pool of platform threads with a
+ * bounded queue. PBKDF2 deliberately burns CPU, so running it on the request threads (virtual threads in
+ * the HTTP server) would let a burst of logins occupy every carrier thread; the pool bounds the hashing
+ * to its workers and a full queue fails the request fast instead of letting the latency grow unbounded.
+ */
+public class PasswordHasher implements AutoCloseable {
+    public static final String defaultAlgorithm = "PBKDF2WithHmacSHA256";
+    public static final int defaultIterations = 65536;
+
+    private final String algorithm; // PBKDF2 algorithm of new hashes
+    private final int iterations; // Iteration count of new hashes
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Constructor that starts the hashing workers.
+     *
+     * @param algorithm     The PBKDF2 algorithm of new hashes, e.g. PBKDF2WithHmacSHA256.
+     * @param iterations    The iteration count of new hashes.
+     * @param workers       The count of hashing threads.
+     * @param queueCapacity The count of tasks which may wait for a worker.
+     */
+    public PasswordHasher(String algorithm, int iterations, int workers, int queueCapacity) {
+        if (iterations <= 0 || workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("The iterations, workers and queue capacity must be positive!");
+        }
+        this.algorithm = algorithm;
+        this.iterations = iterations;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submittedAt = System.nanoTime();
+        try {
+            this.executor.execute(() -> {
+                T value = null;
+                Exception failure = null;
+                try {
+                    value = task.call();
+                } catch (Exception ex) {
+                    failure = ex;
+                }
+
+                // The metrics are recorded before the caller continues, so they include its task
+                long nanos = System.nanoTime() - submittedAt;
+                this.completed.increment();
+                this.totalNanos.add(nanos);
+                this.maxNanos.accumulateAndGet(nanos, Math::max);
+                if (failure == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            this.rejected.increment();
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Hashes a password with a new salt and the current parameters.
+     *
+     * @param password The plaintext password.
+     * @return The future encoded hash, failed if the queue is full or hashing fails.
+     */
+    public CompletableFuture<String> hash(String password) {
+        return this.submit(() -> PasswordHash.create(password, this.algorithm, this.iterations).encode());
+    }
+
+    /**
+     * Verifies a password against a stored one. A legacy plaintext password is compared directly,
+     * without using the pool.
+     *
+     * @param password The plaintext password.
+     * @param stored   The value of the user's password field.
+     * @return The future result, true if the password matches.
+     */
+    public CompletableFuture<Boolean> verify(String password, String stored) {
+        if (stored == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        PasswordHash hash = PasswordHash.parse(stored);
+        if (hash == null) {
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                    stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8)));
+        }
+        return this.submit(() -> hash.matches(password));
+    }
+
+    /**
+     * Checks if a stored password should be hashed again, i.e. it is plaintext or was hashed with
+     * other parameters than the current ones.
+     *
+     * @param stored The value of the user's password field.
+     * @return true if it should be hashed again, false otherwise.
+     */
+    public boolean needsRehash(String stored) {
+        PasswordHash hash = PasswordHash.parse(stored);
+        return hash == null || hash.isOutdated(this.algorithm, this.iterations);
+    }
+
+    /**
+     * Takes a snapshot of the pool's load and latency.
+     *
+     * @return The snapshot.
+     */
+    public PasswordHashingStats stats() {
+        long completedCount = this.completed.sum();
+        double meanMillis = completedCount == 0 ? 0.0 : this.totalNanos.sum() / (double) completedCount / 1_000_000.0;
+        return new PasswordHashingStats(this.executor.getQueue().size(), this.executor.getActiveCount(),
+                completedCount, this.rejected.sum(), meanMillis, this.maxNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Stops the workers after the queued tasks are done.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package security;
+
+/**
+ * The PasswordHashingStats class is a snapshot of the password hashing pool's load and latency,
+ * so the worker count, the queue capacity and the iteration count can be tuned.
+ */
+public class PasswordHashingStats {
+    private final int queueDepth; // Tasks waiting for a worker
+    private final int activeWorkers; // Workers hashing right now
+    private final long completedCount; // Finished hashes and verifications
+    private final long rejectedCount; // Tasks refused because the queue was full
+    private final double meanLatencyMillis; // Mean time from submitting a task to its completion
+    private final double maxLatencyMillis; // Longest time from submitting a task to its completion
+
+    /**
+     * Constructor that initializes a snapshot with all measured values.
+     *
+     * @param queueDepth        Tasks waiting for a worker.
+     * @param activeWorkers     Workers hashing right now.
+     * @param completedCount    Finished hashes and verifications.
+     * @param rejectedCount     Tasks refused because the queue was full.
+     * @param meanLatencyMillis Mean time from submitting a task to its completion.
+     * @param maxLatencyMillis  Longest time from submitting a task to its completion.
+     */
+    public PasswordHashingStats(int queueDepth, int activeWorkers, long completedCount, long rejectedCount,
+                                double meanLatencyMillis, double maxLatencyMillis) {
+        this.queueDepth = queueDepth;
+        this.activeWorkers = activeWorkers;
+        this.completedCount = completedCount;
+        this.rejectedCount = rejectedCount;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public double getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * Converts the snapshot to a single human readable line.
+     *
+     * @return The snapshot as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Password hashing: %d queued | %d active | %d completed | %d rejected | mean %.2f ms | max %.2f ms",
+                this.queueDepth, this.activeWorkers, this.completedCount, this.rejectedCount,
+                this.meanLatencyMillis, this.maxLatencyMillis);
+    }
+}
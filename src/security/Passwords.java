@@ -0,0 +1,24 @@
+package security;
+
+/**
+ * Registry of the application's password hasher. It is created lazily on first use with the parameters
+ * of the system properties password.algorithm, password.iterations, password.workers and
+ * password.queueCapacity, so the cost of new hashes can be raised without touching the stored ones.
+ */
+public final class Passwords {
+
+    private Passwords() {
+    }
+
+    private static final class HasherHolder {
+        static final PasswordHasher INSTANCE = new PasswordHasher(
+                System.getProperty("password.algorithm", PasswordHasher.defaultAlgorithm),
+                Integer.getInteger("password.iterations", PasswordHasher.defaultIterations),
+                Integer.getInteger("password.workers", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("password.queueCapacity", 1024));
+    }
+
+    public static PasswordHasher hasher() {
+        return HasherHolder.INSTANCE;
+    }
+}
@@ -0,0 +1,135 @@
+package server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import utils.JsonMappers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * The ApiRequest class gives a route handler the parts of an HTTP request: the path parameters
+ * matched by the route, the query parameters, the headers and the JSON body.
+ */
+public class ApiRequest {
+    private final HttpExchange exchange; // The exchange of the request
+    private final Matcher path; // The route's match of the request path
+    private final Map<String, String> query; // Decoded query parameters
+    private JsonNode body; // The parsed JSON body, read on first use
+
+    /**
+     * Constructor that wraps an exchange matched by a route.
+     *
+     * @param exchange The exchange of the request.
+     * @param path     The route's match of the request path.
+     */
+    public ApiRequest(HttpExchange exchange, Matcher path) {
+        this.exchange = exchange;
+        this.path = path;
+        this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            String[] keyAndValue = pair.split("=", 2);
+            query.put(URLDecoder.decode(keyAndValue[0], StandardCharsets.UTF_8),
+                    keyAndValue.length == 2 ? URLDecoder.decode(keyAndValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return query;
+    }
+
+    /**
+     * Gets a path parameter as a number.
+     *
+     * @param group The index of the parameter's group in the route pattern.
+     * @return The value of the parameter.
+     */
+    public int pathInt(int group) {
+        return Integer.parseInt(this.path.group(group));
+    }
+
+    /**
+     * Gets a query parameter.
+     *
+     * @param name The name of the parameter.
+     * @return The value of the parameter.
+     * @throws IllegalArgumentException If the parameter is missing.
+     */
+    public String query(String name) {
+        String value = this.query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("The query parameter %s is required!", name));
+        }
+        return value;
+    }
+
+    /**
+     * Gets an optional query parameter.
+     *
+     * @param name         The name of the parameter.
+     * @param defaultValue The value if the parameter is missing.
+     * @return The value of the parameter or the default value.
+     */
+    public String query(String name, String defaultValue) {
+        return this.query.getOrDefault(name, defaultValue);
+    }
+
+    public String header(String name) {
+        return this.exchange.getRequestHeaders().getFirst(name);
+    }
+
+    /**
+     * Gets the JSON body, an empty body is read as an empty object.
+     *
+     * @return The root node of the body.
+     * @throws IOException If the body is not valid JSON.
+     */
+    public JsonNode body() throws IOException {
+        if (this.body == null) {
+            try (InputStream in = this.exchange.getRequestBody()) {
+                byte[] bytes = in.readAllBytes();
+                this.body = bytes.length == 0 ? JsonMappers.mapper().createObjectNode()
+                        : JsonMappers.mapper().readTree(bytes);
+            }
+        }
+        return this.body;
+    }
+
+    /**
+     * Gets a required field of the JSON body.
+     *
+     * @param name The name of the field.
+     * @return The node of the field.
+     * @throws IOException If the body is not valid JSON.
+     * @throws IllegalArgumentException If the field is missing.
+     */
+    public JsonNode field(String name) throws IOException {
+        JsonNode node = this.body().get(name);
+        if (node == null || node.isNull()) {
+            throw new IllegalArgumentException(String.format("The field %s is required!", name));
+        }
+        return node;
+    }
+
+    /**
+     * Gets a required date field of the JSON body, e.g. "2024-07-01T14:00".
+     *
+     * @param name The name of the field.
+     * @return The parsed date.
+     * @throws IOException If the body is not valid JSON.
+     * @throws IllegalArgumentException If the field is missing.
+     */
+    public LocalDateTime dateField(String name) throws IOException {
+        return LocalDateTime.parse(this.field(name).asText());
+    }
+}
@@ -0,0 +1,49 @@
+package server;
+
+import java.util.Map;
+
+/**
+ * The ApiResponse class holds the HTTP status of a handled request and the object sent back as JSON.
+ */
+public class ApiResponse {
+    private final int status; // HTTP status code
+    private final Object body; // Object serialized as the JSON body, null for an empty body
+
+    /**
+     * Constructor that initializes a response with a status and a body.
+     *
+     * @param status HTTP status code.
+     * @param body   Object serialized as the JSON body, null for an empty body.
+     */
+    public ApiResponse(int status, Object body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public static ApiResponse ok(Object body) {
+        return new ApiResponse(200, body);
+    }
+
+    public static ApiResponse created(Object body) {
+        return new ApiResponse(201, body);
+    }
+
+    /**
+     * Creates an error response whose body is the error message.
+     *
+     * @param status  HTTP status code.
+     * @param message Message describing the error.
+     * @return The error response.
+     */
+    public static ApiResponse error(int status, String message) {
+        return new ApiResponse(status, Map.of("error", message));
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,386 @@
+package server;
+
+import booking.BookingResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controllers.AdminController;
+import controllers.HotelController;
+import controllers.UserController;
+import interfaces.IRouteHandler;
+import models.Hotel;
+import models.Reservation;
+import models.Room;
+import models.User;
+import repositories.Repositories;
+import types.BookingStatus;
+import types.RoomType;
+import utils.JsonMappers;
+import utils.Money;
+import validators.UserCredentialsValidator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ApiServer class exposes the hotel, user and admin operations of the controllers over HTTP/JSON with
+ * the JDK's built-in HttpServer. Every request runs on its own virtual thread, so thousands of clients
+ * can search and book concurrently while blocking on the repositories costs no platform thread.
+ * <p>
+ * A login returns a session token, which the user operations expect in the "Authorization: Bearer" header.
+ * The admin operations expect the secret admin code in the "X-Admin-Code" header.
+ */
+public class ApiServer implements AutoCloseable {
+    public static final int defaultPort = 8080;
+    private static final String adminCodeHeader = "X-Admin-Code";
+
+    private final UserController userController = new UserController();
+    private final HotelController hotelController = new HotelController();
+    private final AdminController adminController = new AdminController();
+    private final Map<String, Integer> sessions = new ConcurrentHashMap<>(); // User ID of every session token
+    private final Map<Integer, ReentrantLock> userLocks = new ConcurrentHashMap<>(); // Lock of every user by ID
+    private final List<Route> routes = new ArrayList<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor that binds the server to a port, it starts serving after start() is called.
+     *
+     * @param port The port to listen on, 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ApiServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", this::dispatch);
+        this.registerRoutes();
+    }
+
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to a second for the running requests.
+     */
+    @Override
+    public void close() {
+        this.server.stop(1);
+        this.executor.close();
+    }
+
+    private void route(String method, String pattern, IRouteHandler handler) {
+        this.routes.add(new Route(method, Pattern.compile(pattern), handler));
+    }
+
+    private void registerRoutes() {
+        // Users
+        this.route("POST", "/users/register", this::register);
+        this.route("POST", "/users/login", this::login);
+        this.route("POST", "/users/logout", request -> {
+            this.sessions.remove(tokenOf(request));
+            return new ApiResponse(204, null);
+        });
+        this.route("GET", "/users/me/bookings", request ->
+                ApiResponse.ok(this.userController.showAllBookings(this.sessionUser(request))));
+
+        // Hotels
+        this.route("GET", "/hotels", request -> ApiResponse.ok(this.adminController.showAllHotels()));
+        this.route("GET", "/hotels/(\\d+)/rooms", request ->
+                ApiResponse.ok(this.hotelController.viewAllRooms(hotelOf(request.pathInt(1)))));
+        this.route("GET", "/hotels/(\\d+)/recommendations", request -> {
+            LocalDateTime from = LocalDateTime.parse(request.query("from"));
+            LocalDateTime to = LocalDateTime.parse(request.query("to"));
+            int guestsCount = Integer.parseInt(request.query("guests"));
+            return ApiResponse.ok(this.hotelController.recommendRooms(from, to, guestsCount,
+                    hotelOf(request.pathInt(1))));
+        });
+        this.route("POST", "/hotels/(\\d+)/bookings", this::book);
+        this.route("POST", "/bookings/(\\d+)/cancel", this::cancel);
+
+        // Admin
+        this.route("GET", "/admin/hotels/(\\d+)/bookings", this.admin(request ->
+                ApiResponse.ok(this.adminController.viewAllBookings(request.pathInt(1)))));
+        this.route("GET", "/admin/hotels/(\\d+)/income", this.admin(request -> {
+            Hotel hotel = hotelOf(request.pathInt(1));
+            return ApiResponse.ok(Map.of("hotelId", hotel.getId(),
+                    "income", Money.toDecimal(this.adminController.getTotalIncome(hotel.getId()))));
+        }));
+        this.route("GET", "/admin/hotels/(\\d+)/cancellation-fees", this.admin(request ->
+                ApiResponse.ok(Map.of("hotelId", request.pathInt(1),
+                        "cancellationFees", Money.toDecimal(this.adminController.getCancellationFees(request.pathInt(1)))))));
+        this.route("GET", "/admin/hotels/(\\d+)/statistics", this.admin(request -> {
+            Hotel hotel = hotelOf(request.pathInt(1));
+            LocalDate from = LocalDate.parse(request.query("from"));
+            LocalDate to = LocalDate.parse(request.query("to"));
+            return ApiResponse.ok(Map.of("hotelId", hotel.getId(), "from", from.toString(), "to", to.toString(),
+                    "byRoomType", this.adminController.getBookingStatistics(hotel.getId(), from, to)));
+        }));
+        this.route("GET", "/admin/hotels/(\\d+)/analytics", this.admin(request -> {
+            Hotel hotel = hotelOf(request.pathInt(1));
+            return ApiResponse.ok(this.adminController.getRevenueMetrics(hotel.getId(),
+                    LocalDate.parse(request.query("from")), LocalDate.parse(request.query("to")), roomTypesOf(request)));
+        }));
+        this.route("GET", "/admin/analytics", this.admin(request ->
+                ApiResponse.ok(this.adminController.getRevenueMetrics(LocalDate.parse(request.query("from")),
+                        LocalDate.parse(request.query("to")), roomTypesOf(request)))));
+        this.route("GET", "/admin/statistics/verification", this.admin(request ->
+                ApiResponse.ok(Map.of("mismatchedHotels", this.adminController.verifyBookingStatistics()))));
+        this.route("GET", "/admin/hotels/(\\d+)/rooms", this.admin(request ->
+                ApiResponse.ok(this.adminController.showAllHotelRooms(request.pathInt(1)))));
+        this.route("POST", "/admin/hotels/(\\d+)/rooms", this.admin(request -> {
+            int roomId = request.field("id").asInt();
+            boolean isAdded = this.adminController.addRoom(roomId, request.pathInt(1),
+                    RoomType.valueOf(request.field("type").asText()), amenitiesOf(request),
+                    request.field("maximumOccupancy").asInt(), Money.parse(request.field("pricePerNight").asText()));
+            return isAdded ? ApiResponse.created(Repositories.rooms().findById(roomId))
+                    : ApiResponse.error(400, "Sorry, but the room's creation not successful!");
+        }));
+        this.route("PUT", "/admin/rooms/(\\d+)", this.admin(request -> {
+            int roomId = request.pathInt(1);
+            boolean isUpdated = this.adminController.updateRoom(roomId, request.field("hotelId").asInt(),
+                    RoomType.valueOf(request.field("type").asText()), amenitiesOf(request),
+                    request.field("maximumOccupancy").asInt(), Money.parse(request.field("pricePerNight").asText()));
+            return isUpdated ? ApiResponse.ok(Repositories.rooms().findById(roomId))
+                    : ApiResponse.error(404, "There is no room with this ID!");
+        }));
+        this.route("DELETE", "/admin/rooms/(\\d+)", this.admin(request ->
+                this.adminController.removeRoom(request.pathInt(1)) ? new ApiResponse(204, null)
+                        : ApiResponse.error(404, "There is no room with this ID!")));
+    }
+
+    private ApiResponse register(ApiRequest request) throws IOException {
+        String[] credentials = {request.field("username").asText(), request.field("email").asText(),
+                request.field("password").asText(), request.field("password").asText(),
+                request.field("balance").asText()};
+        if (!this.userController.register(credentials)) {
+            return ApiResponse.error(400, "Sorry, incorrect registration data!");
+        }
+        return this.login(request);
+    }
+
+    private ApiResponse login(ApiRequest request) throws IOException {
+        User loggedIn = new User();
+        String[] credentials = {request.field("username").asText(), request.field("password").asText()};
+        if (!this.userController.login(credentials, loggedIn)) {
+            return ApiResponse.error(401, "Sorry, you mistake your credentials!");
+        }
+        String token = UUID.randomUUID().toString();
+        this.sessions.put(token, loggedIn.getId());
+
+        ObjectNode session = JsonMappers.mapper().createObjectNode();
+        session.put("token", token);
+        session.put("userId", loggedIn.getId());
+        session.put("username", loggedIn.getUsername());
+        session.put("email", loggedIn.getEmail());
+        return ApiResponse.ok(session);
+    }
+
+    private ApiResponse book(ApiRequest request) throws IOException {
+        User user = this.sessionUser(request);
+        Hotel hotel = hotelOf(request.pathInt(1));
+        LocalDateTime from = request.dateField("from");
+        LocalDateTime to = request.dateField("to");
+        BookingResult result;
+        int roomId = request.field("roomId").asInt();
+        // A user's bookings and cancellations change the user's reservations and card entry, one at a time
+        ReentrantLock lock = this.lockOf(user);
+        lock.lock();
+        try {
+            result = this.hotelController.bookRoom(roomId, hotel, from, to, user, HotelController.fixedCancellationFee);
+        } finally {
+            lock.unlock();
+        }
+        return new ApiResponse(statusOf(result.getStatus()), result);
+    }
+
+    private ApiResponse cancel(ApiRequest request) {
+        User user = this.sessionUser(request);
+        Reservation reservation = Repositories.reservations().findById(request.pathInt(1));
+        if (reservation == null || reservation.getRoomsIds().isEmpty()) {
+            return ApiResponse.error(404, "There is no reservation with this ID!");
+        }
+        Room room = Repositories.rooms().findById(reservation.getRoomsIds().keyAt(0));
+        if (room == null) {
+            return ApiResponse.error(404, "There is no room of this reservation!");
+        }
+        BookingResult result;
+        ReentrantLock lock = this.lockOf(user);
+        lock.lock();
+        try {
+            // The controller throws for a cancellation the user cannot pay for, the user's lock keeps the card entry
+            if (user.getReservations().containsKey(reservation.getId())
+                    && user.getDebitCard().getValue() < HotelController.fixedCancellationFee) {
+                return new ApiResponse(statusOf(BookingStatus.INSUFFICIENT_FUNDS),
+                        new BookingResult(BookingStatus.INSUFFICIENT_FUNDS, reservation));
+            }
+            result = this.hotelController.cancelReservation(reservation.getId(), user, hotelOf(room.getHotelId()));
+        } finally {
+            lock.unlock();
+        }
+        return new ApiResponse(statusOf(result.getStatus()), result);
+    }
+
+    // A ReentrantLock does not pin the virtual thread to its carrier while the journal is forced
+    private ReentrantLock lockOf(User user) {
+        return this.userLocks.computeIfAbsent(user.getId(), id -> new ReentrantLock());
+    }
+
+    private static int statusOf(BookingStatus status) {
+        return switch (status) {
+            case BOOKED -> 201;
+            case CANCELLED -> 200;
+            case NOT_FOUND -> 404;
+            case UNAVAILABLE -> 409;
+            case INSUFFICIENT_FUNDS, PAYMENT_FAILED -> 402;
+            case NOT_SAVED -> 503;
+        };
+    }
+
+    private static String tokenOf(ApiRequest request) {
+        String authorization = request.header("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new ApiError(401, "Please log in first!");
+        }
+        return authorization.substring("Bearer ".length());
+    }
+
+    private User sessionUser(ApiRequest request) {
+        Integer userId = this.sessions.get(tokenOf(request));
+        User user = userId == null ? null : Repositories.users().findById(userId);
+        if (user == null) {
+            throw new ApiError(401, "Please log in first!");
+        }
+        return user;
+    }
+
+    private static Hotel hotelOf(int hotelId) {
+        Hotel hotel = Repositories.hotels().findById(hotelId);
+        if (hotel == null) {
+            throw new ApiError(404, "Hotel not found!");
+        }
+        return hotel;
+    }
+
+    private static EnumSet<RoomType> roomTypesOf(ApiRequest request) {
+        EnumSet<RoomType> types = EnumSet.noneOf(RoomType.class);
+        String typesParameter = request.query("types", "");
+        if (typesParameter.isBlank()) {
+            return EnumSet.allOf(RoomType.class);
+        }
+        for (String type : typesParameter.split(",")) {
+            types.add(RoomType.valueOf(type.trim().toUpperCase()));
+        }
+        return types;
+    }
+
+    private static ArrayList<String> amenitiesOf(ApiRequest request) throws IOException {
+        ArrayList<String> amenities = new ArrayList<>();
+        request.field("amenities").forEach(amenity -> amenities.add(amenity.asText()));
+        return amenities;
+    }
+
+    private IRouteHandler admin(IRouteHandler handler) {
+        return request -> {
+            String secretCode = request.header(adminCodeHeader);
+            if (secretCode == null || !UserCredentialsValidator.isValidSecretAdminCode(secretCode)) {
+                return ApiResponse.error(403, "Wrong admin code!");
+            }
+            return handler.handle(request);
+        };
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        ApiResponse response;
+        try {
+            response = this.handle(exchange);
+        } catch (ApiError ex) {
+            response = ApiResponse.error(ex.getStatus(), ex.getMessage());
+        } catch (JsonProcessingException | IllegalArgumentException | DateTimeException ex) {
+            response = ApiResponse.error(400, String.format("Invalid request: %s", ex.getMessage()));
+        } catch (IOException | RuntimeException ex) {
+            ex.fillInStackTrace();
+            response = ApiResponse.error(500, "Oops! Something went wrong! Please try again later!");
+        }
+        this.send(exchange, response);
+    }
+
+    private ApiResponse handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean isKnownPath = false;
+        for (Route route : this.routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (matcher.matches()) {
+                isKnownPath = true;
+                if (route.method.equals(exchange.getRequestMethod())) {
+                    return route.handler.handle(new ApiRequest(exchange, matcher));
+                }
+            }
+        }
+        return isKnownPath ? ApiResponse.error(405, "Method not allowed!") : ApiResponse.error(404, "Not found!");
+    }
+
+    private void send(HttpExchange exchange, ApiResponse response) throws IOException {
+        try (exchange) {
+            if (response.getBody() == null) {
+                exchange.sendResponseHeaders(response.getStatus(), -1);
+                return;
+            }
+            byte[] body = JsonMappers.mapper().writeValueAsBytes(response.getBody());
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.getStatus(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static final class Route {
+        private final String method; // HTTP method of the route
+        private final Pattern pattern; // Pattern of the path, its groups are the path parameters
+        private final IRouteHandler handler;
+
+        private Route(String method, Pattern pattern, IRouteHandler handler) {
+            this.method = method;
+            this.pattern = pattern;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * Error which ends a request with the given HTTP status.
+     */
+    private static final class ApiError extends RuntimeException {
+        private final int status;
+
+        private ApiError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        private int getStatus() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package transactions;
+
+/**
+ * The GroupCommitStats class is a snapshot of the journal writer's batching and forcing, so the maximum
+ * batch size and latency can be tuned against the storage device.
+ */
+public class GroupCommitStats {
+    private final int queueDepth; // Records waiting for the writer
+    private final long recordCount; // Records written
+    private final long batchCount; // Batches written, each with a single write
+    private final int maxBatchSize; // Most records written in one batch
+    private final long forceCount; // Forces of the journal, at most one per batch
+    private final double meanForceMillis; // Mean duration of a force
+    private final double maxForceMillis; // Longest duration of a force
+
+    /**
+     * Constructor that initializes a snapshot with all measured values.
+     *
+     * @param queueDepth      Records waiting for the writer.
+     * @param recordCount     Records written.
+     * @param batchCount      Batches written, each with a single write.
+     * @param maxBatchSize    Most records written in one batch.
+     * @param forceCount      Forces of the journal, at most one per batch.
+     * @param meanForceMillis Mean duration of a force.
+     * @param maxForceMillis  Longest duration of a force.
+     */
+    public GroupCommitStats(int queueDepth, long recordCount, long batchCount, int maxBatchSize, long forceCount,
+                            double meanForceMillis, double maxForceMillis) {
+        this.queueDepth = queueDepth;
+        this.recordCount = recordCount;
+        this.batchCount = batchCount;
+        this.maxBatchSize = maxBatchSize;
+        this.forceCount = forceCount;
+        this.meanForceMillis = meanForceMillis;
+        this.maxForceMillis = maxForceMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public double getMeanBatchSize() {
+        return this.batchCount == 0 ? 0 : (double) this.recordCount / this.batchCount;
+    }
+
+    public long getForceCount() {
+        return forceCount;
+    }
+
+    public double getMeanForceMillis() {
+        return meanForceMillis;
+    }
+
+    public double getMaxForceMillis() {
+        return maxForceMillis;
+    }
+
+    /**
+     * Converts the snapshot to a single human readable line.
+     *
+     * @return The snapshot as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Journal: %d queued | %d records in %d batches | mean batch %.1f | max batch %d | %d forces | mean force %.2f ms | max force %.2f ms",
+                this.queueDepth, this.recordCount, this.batchCount, this.getMeanBatchSize(), this.maxBatchSize,
+                this.forceCount, this.meanForceMillis, this.maxForceMillis);
+    }
+}
@@ -0,0 +1,280 @@
+package transactions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GroupCommitWriter class appends records to a file channel on a single writer thread. Producers put
+ * their records into a bounded queue, which blocks them while it is full; the writer takes a batch of up
+ * to the maximum batch size, waiting at most the maximum latency after the batch's first record for more
+ * of them, writes the whole batch with one write and forces the channel once. Each record's future
+ * completes when the batch is written and, for a durable record, forced to the storage device.
+ * <p>
+ * A batch which cannot be written is cut off the file again and its records fail. A failed force leaves
+ * the records in an unknown state, so the writer is broken afterwards and fails every further record.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    private static final byte[] noBytes = new byte[0];
+
+    private final FileChannel channel;
+    private final String filename; // Name of the file, for the error messages
+    private final int maxBatchSize; // Most records written and forced together
+    private final long maxLatencyNanos; // Longest wait for more records after the first one of a batch
+    private final BlockingQueue<Pending> queue;
+    private final Thread thread;
+    private final Pending stop = new Pending(noBytes, false); // Tells the writer thread to finish
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024); // Batch buffer, used by the writer thread only
+    private volatile boolean isClosed;
+    private volatile IOException failure; // The failed force which broke the writer
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final LongAdder forceCount = new LongAdder();
+    private final LongAdder forceNanos = new LongAdder();
+    private final AtomicLong maxForceNanos = new AtomicLong();
+
+    /**
+     * A record waiting for the writer.
+     */
+    private static final class Pending {
+        private final byte[] bytes;
+        private final boolean isDurable;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Pending(byte[] bytes, boolean isDurable) {
+            this.bytes = bytes;
+            this.isDurable = isDurable;
+        }
+    }
+
+    /**
+     * Constructor that starts the writer thread. The records are written at the channel's position.
+     *
+     * @param channel         The channel of the file, open for writing.
+     * @param filename        The name of the file, for the error messages.
+     * @param maxBatchSize    The most records written and forced together.
+     * @param maxLatencyNanos The longest wait for more records after the first one of a batch, 0 to batch
+     *                        only the records queued while the previous batch was written.
+     * @param queueCapacity   The count of records which may wait for the writer.
+     */
+    public GroupCommitWriter(FileChannel channel, String filename, int maxBatchSize, long maxLatencyNanos,
+                             int queueCapacity) {
+        if (maxBatchSize <= 0 || maxLatencyNanos < 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("The batch size and queue capacity must be positive, the latency not negative!");
+        }
+        this.channel = channel;
+        this.filename = filename;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.thread = new Thread(this::run, "journal-writer-" + filename);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public boolean isBroken() {
+        return this.failure != null;
+    }
+
+    /**
+     * Queues a record for the writer, waiting while the queue is full.
+     *
+     * @param record    The bytes of the record.
+     * @param isDurable Whether the record's batch must be forced before its future completes.
+     * @return The future which completes when the record is written, or forced if durable; failed if the
+     * record cannot be written or the writer is broken or closed.
+     */
+    public CompletableFuture<Void> append(byte[] record, boolean isDurable) {
+        Pending pending = new Pending(record, isDurable);
+        if (this.failure != null) {
+            pending.future.completeExceptionally(this.failure);
+        } else if (this.isClosed) {
+            pending.future.completeExceptionally(new IllegalStateException("The writer of " + this.filename + " is closed!"));
+        } else {
+            try {
+                this.queue.put(pending);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                pending.future.completeExceptionally(ex);
+            }
+        }
+        return pending.future;
+    }
+
+    /**
+     * Waits until every record queued so far is written and forced.
+     *
+     * @throws IOException If the records cannot be written or forced.
+     */
+    public void sync() throws IOException {
+        try {
+            this.append(noBytes, true).join();
+        } catch (RuntimeException ex) {
+            throw new IOException("Cannot sync the writer of " + this.filename + "!", ex.getCause());
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(this.maxBatchSize);
+        boolean isStopping = false;
+        while (!isStopping) {
+            batch.clear();
+            try {
+                isStopping = this.collect(batch);
+            } catch (InterruptedException ex) {
+                isStopping = true; // the batch collected so far is still written
+            }
+            if (!batch.isEmpty()) {
+                this.write(batch);
+            }
+        }
+    }
+
+    // Collects a batch, returning true if the writer is told to finish
+    private boolean collect(List<Pending> batch) throws InterruptedException {
+        Pending first = this.queue.take();
+        if (first == this.stop) {
+            return true;
+        }
+        batch.add(first);
+        long deadline = first.enqueuedAt + this.maxLatencyNanos;
+        while (batch.size() < this.maxBatchSize) {
+            Pending next = this.queue.poll();
+            if (next == null) {
+                long waitNanos = deadline - System.nanoTime();
+                if (waitNanos <= 0) {
+                    break;
+                }
+                next = this.queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            if (next == this.stop) {
+                return true;
+            }
+            batch.add(next);
+        }
+        return false;
+    }
+
+    private void write(List<Pending> batch) {
+        IOException failed = this.failure;
+        if (failed == null) {
+            failed = this.writeAndForce(batch);
+        }
+
+        // The metrics are recorded before the producers continue, so they include their records
+        this.recordCount.add(batch.size());
+        this.batchCount.increment();
+        this.maxBatch.accumulateAndGet(batch.size(), Math::max);
+        for (Pending pending : batch) {
+            if (failed == null) {
+                pending.future.complete(null);
+            } else {
+                pending.future.completeExceptionally(failed);
+            }
+        }
+    }
+
+    private IOException writeAndForce(List<Pending> batch) {
+        int size = 0;
+        boolean isDurable = false;
+        for (Pending pending : batch) {
+            size += pending.bytes.length;
+            isDurable |= pending.isDurable;
+        }
+        if (this.buffer.capacity() < size) {
+            this.buffer = ByteBuffer.allocate(Math.max(size, 2 * this.buffer.capacity()));
+        }
+        this.buffer.clear();
+        for (Pending pending : batch) {
+            this.buffer.put(pending.bytes);
+        }
+        this.buffer.flip();
+
+        long start;
+        try {
+            start = this.channel.position();
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            return ex;
+        }
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot write in a file with the name %s!%n", this.filename);
+            try {
+                this.channel.truncate(start);
+                this.channel.position(start);
+            } catch (IOException truncateEx) {
+                this.failure = truncateEx; // a partly written batch stays in the file
+            }
+            return ex;
+        }
+        if (!isDurable) {
+            return null;
+        }
+
+        long forceStart = System.nanoTime();
+        try {
+            this.channel.force(false);
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot force the file with the name %s!%n", this.filename);
+            this.failure = ex;
+            return ex;
+        }
+        long nanos = System.nanoTime() - forceStart;
+        this.forceCount.increment();
+        this.forceNanos.add(nanos);
+        this.maxForceNanos.accumulateAndGet(nanos, Math::max);
+        return null;
+    }
+
+    /**
+     * Takes a snapshot of the writer's batching and forcing.
+     *
+     * @return The snapshot.
+     */
+    public GroupCommitStats stats() {
+        long forces = this.forceCount.sum();
+        return new GroupCommitStats(this.queue.size(), this.recordCount.sum(), this.batchCount.sum(),
+                (int) this.maxBatch.get(), forces, forces == 0 ? 0 : this.forceNanos.sum() / 1e6 / forces,
+                this.maxForceNanos.get() / 1e6);
+    }
+
+    /**
+     * Writes the queued records and stops the writer thread. Records queued afterwards fail.
+     */
+    @Override
+    public void close() {
+        if (this.isClosed) {
+            return;
+        }
+        this.isClosed = true;
+        try {
+            this.queue.put(this.stop);
+            this.thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        Pending pending;
+        while ((pending = this.queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("The writer of " + this.filename + " is closed!"));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package transactions;
+
+/**
+ * The RecoveryReport class describes the recovery of the transaction journal at startup: the committed
+ * transactions replayed into the repositories and the incomplete records discarded.
+ */
+public class RecoveryReport {
+    private final String filename; // Name of the journal file
+    private final int replayedTransactions; // Committed transactions applied to the repositories again
+    private final int discardedRecords; // Torn or corrupted records, i.e. transactions that never committed
+    private final long durationMillis; // Duration of the recovery
+
+    /**
+     * Constructor that initializes a report with all measured values.
+     *
+     * @param filename             Name of the journal file.
+     * @param replayedTransactions Committed transactions applied to the repositories again.
+     * @param discardedRecords     Torn or corrupted records.
+     * @param durationMillis       Duration of the recovery in milliseconds.
+     */
+    public RecoveryReport(String filename, int replayedTransactions, int discardedRecords, long durationMillis) {
+        this.filename = filename;
+        this.replayedTransactions = replayedTransactions;
+        this.discardedRecords = discardedRecords;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public int getReplayedTransactions() {
+        return replayedTransactions;
+    }
+
+    public int getDiscardedRecords() {
+        return discardedRecords;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Converts the report to a single human readable line.
+     *
+     * @return The report as a string.
+     */
+    @Override
+    public String toString() {
+        return String.format("Recovered %s: %d transactions replayed | %d incomplete records discarded | %d ms",
+                this.filename, this.replayedTransactions, this.discardedRecords, this.durationMillis);
+    }
+}
@@ -0,0 +1,131 @@
+package transactions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Transaction class groups the saves and deletions of several repositories, e.g. the room, hotel,
+ * reservation, debit card and user of a booking, so they are written as one unit: the group is appended
+ * to the transaction journal as a single record and applied to the repositories only once the record is
+ * durable. If the record cannot be written, nothing is applied and the registered rollback actions undo
+ * the in-memory changes made for the transaction.
+ */
+public class Transaction {
+    private final TransactionJournal journal; // Journal the transaction is committed to
+    private final List<Entry> entries = new ArrayList<>(); // Saves and deletions in their order
+    private final List<Runnable> rollbacks = new ArrayList<>(); // Undo actions in their registration order
+    private boolean isFinished; // Flag indicating if the transaction was committed or rolled back
+
+    /**
+     * A save or a deletion of an object.
+     */
+    static final class Entry {
+        final Class<?> type; // Model class of the object
+        final Object obj; // The saved object, null for a deletion
+        final int id; // ID of the deleted object
+        String json; // JSON of the saved object, taken when the transaction is appended
+
+        private Entry(Class<?> type, Object obj, int id) {
+            this.type = type;
+            this.obj = obj;
+            this.id = id;
+        }
+    }
+
+    Transaction(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Adds the save of an object. The object is written as it is at the commit.
+     *
+     * @param type The model class of the object.
+     * @param obj  The object to save.
+     * @return This transaction.
+     */
+    public <T extends Comparable<T>> Transaction save(Class<T> type, T obj) {
+        this.entries.add(new Entry(type, obj, 0));
+        return this;
+    }
+
+    /**
+     * Adds the saves of several objects of the same type.
+     *
+     * @param type The model class of the objects.
+     * @param objs The objects to save.
+     * @return This transaction.
+     */
+    public <T extends Comparable<T>> Transaction saveAll(Class<T> type, Iterable<T> objs) {
+        for (T obj : objs) {
+            this.save(type, obj);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the deletion of an object.
+     *
+     * @param type The model class of the object.
+     * @param id   The ID of the object to delete.
+     * @return This transaction.
+     */
+    public <T extends Comparable<T>> Transaction delete(Class<T> type, int id) {
+        this.entries.add(new Entry(type, null, id));
+        return this;
+    }
+
+    /**
+     * Registers an action undoing an in-memory change made for the transaction. The actions run in reverse
+     * order of their registration if the transaction is rolled back.
+     *
+     * @param undo The undo action.
+     * @return This transaction.
+     */
+    public Transaction onRollback(Runnable undo) {
+        this.rollbacks.add(undo);
+        return this;
+    }
+
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /**
+     * Writes the transaction durably to the journal and applies it to the repositories. If it cannot be
+     * written, it is rolled back.
+     *
+     * @return true if the transaction is committed, false if it was rolled back.
+     */
+    public boolean commit() {
+        if (this.isFinished) {
+            throw new IllegalStateException("The transaction is already finished!");
+        }
+        this.isFinished = true;
+        if (this.journal.commit(this)) {
+            return true;
+        }
+        this.undo();
+        return false;
+    }
+
+    /**
+     * Discards the transaction without writing anything and runs its rollback actions.
+     */
+    public void rollback() {
+        if (this.isFinished) {
+            throw new IllegalStateException("The transaction is already finished!");
+        }
+        this.isFinished = true;
+        this.undo();
+    }
+
+    private void undo() {
+        for (int i = this.rollbacks.size() - 1; i >= 0; i--) {
+            this.rollbacks.get(i).run();
+        }
+    }
+}
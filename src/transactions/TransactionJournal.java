@@ -0,0 +1,397 @@
+package transactions;
+
+import repositories.Repositories;
+import repositories.Repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * The TransactionJournal class makes the multi-repository writes of a transaction atomic. Every
+ * transaction is appended as a single "TX id crc entries" line, with the entries' JSON captured at the
+ * commit, and forced to the storage device before it is applied to the repositories. The lines are
+ * written by a {@link GroupCommitWriter}, so the transactions committed concurrently share one write and
+ * one force. The transactions are applied in the order of their IDs, so an object saved by several of
+ * them is logged last with the JSON of the last one.
+ * <p>
+ * The repositories' logs are only flushed when a transaction is applied, so nothing but a checkpoint
+ * proves that its writes are durable. On startup the journal is recovered: a torn or corrupted line (its
+ * checksum does not match) is a transaction that never committed and is discarded; every committed
+ * transaction since the last checkpoint is applied to the repositories again, in their order, so every
+ * object ends up as written by its last transaction. A checkpoint forces the repositories' logs and
+ * truncates the journal; it runs after the recovery and whenever the journal grows past a threshold,
+ * and fails without truncating while a repository's write has failed.
+ */
+public class TransactionJournal implements AutoCloseable {
+    private static final String transactionPrefix = "TX ";
+    private static final String donePrefix = "DONE "; // Written by older versions after applying a transaction
+    private static final String putPrefix = "PUT ";
+    private static final String deletePrefix = "DEL ";
+    private static final char entrySeparator = '\t'; // Never part of the compact JSON of an object
+
+    private final Path path; // Path of the journal file
+    private final long checkpointBytes; // Size of the journal which triggers a checkpoint
+    private final FileChannel channel;
+    private final GroupCommitWriter writer; // Writes and forces the records in batches
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock(); // Commits share, checkpoints own
+    private final ReentrantLock appendLock = new ReentrantLock(); // Orders the appended records
+    private final ReentrantLock applyLock = new ReentrantLock(); // Orders the applied transactions
+    private final Condition appliedChanged = this.applyLock.newCondition();
+    private final AtomicBoolean isCheckpointing = new AtomicBoolean();
+    private final LongAdder committedCount = new LongAdder();
+    private final RecoveryReport recoveryReport;
+    private long transactionNo; // Greatest transaction ID, guarded by appendLock
+    private long journalBytes; // Size of the journal file with the queued records, guarded by appendLock
+    private long appliedNo; // Greatest transaction ID applied or given up, guarded by applyLock
+
+    /**
+     * Constructor that opens the journal file and recovers it.
+     *
+     * @param path            Path of the journal file.
+     * @param checkpointBytes Size of the journal which triggers a checkpoint.
+     * @param maxBatchSize    The most records written and forced together.
+     * @param maxLatencyNanos The longest wait for more records after the first one of a batch.
+     * @param queueCapacity   The count of records which may wait for the writer.
+     * @throws IOException If the journal cannot be opened or recovered.
+     */
+    public TransactionJournal(Path path, long checkpointBytes, int maxBatchSize, long maxLatencyNanos,
+                              int queueCapacity) throws IOException {
+        this.path = path;
+        this.checkpointBytes = checkpointBytes;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.writer = new GroupCommitWriter(this.channel, path.getFileName().toString(), maxBatchSize,
+                maxLatencyNanos, queueCapacity);
+        this.recoveryReport = this.recover();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public RecoveryReport getRecoveryReport() {
+        return recoveryReport;
+    }
+
+    public long getCommittedCount() {
+        return committedCount.sum();
+    }
+
+    /**
+     * Takes a snapshot of the journal writer's batching and forcing.
+     *
+     * @return The snapshot.
+     */
+    public GroupCommitStats stats() {
+        return this.writer.stats();
+    }
+
+    /**
+     * Starts a new transaction on this journal.
+     *
+     * @return The new transaction.
+     */
+    public Transaction begin() {
+        return new Transaction(this);
+    }
+
+    private static String encode(List<Transaction.Entry> entries) {
+        StringBuilder payload = new StringBuilder();
+        for (Transaction.Entry entry : entries) {
+            if (!payload.isEmpty()) {
+                payload.append(entrySeparator);
+            }
+            if (entry.obj == null) {
+                payload.append(deletePrefix).append(entry.type.getName()).append(' ').append(entry.id);
+            } else {
+                // Rooms, hotels and debit cards are changed under their monitors; reservations and users under
+                // the booking's locks, which the committing thread holds (see BookingEngine). No I/O is done here.
+                synchronized (entry.obj) {
+                    entry.json = entry.obj.toString();
+                }
+                payload.append(putPrefix).append(entry.type.getName()).append(' ').append(entry.json);
+            }
+        }
+        return payload.toString();
+    }
+
+    private static String checksumOf(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    // Queues a line under the append lock, so the lines are written in the order of their transaction IDs
+    private CompletableFuture<Void> append(String line, boolean isDurable) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        this.journalBytes += bytes.length;
+        return this.writer.append(bytes, isDurable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Repository<T> repositoryOf(Class<?> type) {
+        return Repositories.forType((Class<T>) type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> void apply(Transaction.Entry entry) throws IOException {
+        Repository<T> repository = repositoryOf(entry.type);
+        if (entry.obj == null) {
+            repository.delete(entry.id);
+        } else {
+            repository.save((T) entry.obj, entry.json); // the JSON appended to the journal, so no monitor is held
+        }
+        if (repository.isBroken()) {
+            throw new IOException("Cannot write the repository " + repository.getFilename() + "!");
+        }
+    }
+
+    /**
+     * Commits a transaction: appends it, waits until it is durable and applies it to the repositories.
+     * If a repository cannot write its entry, the transaction is still committed, as the journal keeps
+     * it: no checkpoint truncates the journal until a restart has replayed it.
+     *
+     * @param transaction The transaction to commit.
+     * @return true if the transaction is committed, false if it could not be written.
+     */
+    boolean commit(Transaction transaction) {
+        if (transaction.getEntries().isEmpty()) {
+            return true;
+        }
+        this.checkpointLock.readLock().lock();
+        try {
+            if (this.writer.isBroken()) {
+                return false;
+            }
+            long transactionId;
+            CompletableFuture<Void> written;
+            this.appendLock.lock();
+            try {
+                String payload = encode(transaction.getEntries());
+                transactionId = ++this.transactionNo;
+                written = this.append(transactionPrefix + transactionId + ' ' + checksumOf(payload) + ' '
+                        + payload + '\n', true);
+            } finally {
+                this.appendLock.unlock();
+            }
+            boolean isWritten = true;
+            try {
+                written.join();
+            } catch (CompletionException | CancellationException ex) {
+                ex.fillInStackTrace(); // the writer reported the failure
+                isWritten = false;
+            }
+            if (!this.applyInTurn(transactionId, isWritten ? transaction : null)) {
+                return false;
+            }
+            this.committedCount.increment();
+        } finally {
+            this.checkpointLock.readLock().unlock();
+        }
+        this.checkpointIfNeeded();
+        return true;
+    }
+
+    /**
+     * Waits until the transactions with lower IDs are applied or given up, then applies this one. A
+     * transaction written in the same batch as an earlier one may be woken first, and applying it first
+     * would leave an object it shares with the earlier one logged with the earlier JSON.
+     *
+     * @param transactionId The ID of the transaction.
+     * @param transaction   The written transaction, or null if it could not be written.
+     * @return true if the transaction is applied.
+     */
+    private boolean applyInTurn(long transactionId, Transaction transaction) {
+        this.applyLock.lock();
+        try {
+            while (this.appliedNo != transactionId - 1) {
+                this.appliedChanged.awaitUninterruptibly();
+            }
+            try {
+                if (transaction == null) {
+                    return false;
+                }
+                for (Transaction.Entry entry : transaction.getEntries()) {
+                    try {
+                        apply(entry);
+                    } catch (IOException ex) {
+                        // The transaction is durable in the journal, which is not truncated until a restart replays it
+                        ex.fillInStackTrace();
+                        System.out.printf("Cannot apply transaction %d from %s!%n", transactionId, this.path.getFileName());
+                    }
+                }
+                return true;
+            } finally {
+                this.appliedNo = transactionId;
+                this.appliedChanged.signalAll();
+            }
+        } finally {
+            this.applyLock.unlock();
+        }
+    }
+
+    private void checkpointIfNeeded() {
+        long size;
+        this.appendLock.lock();
+        try {
+            size = this.journalBytes;
+        } finally {
+            this.appendLock.unlock();
+        }
+        if (size < this.checkpointBytes || !this.isCheckpointing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.checkpoint();
+        } catch (IOException ex) {
+            ex.fillInStackTrace();
+            System.out.printf("Cannot checkpoint the file with the name %s!%n", this.path.getFileName());
+        } finally {
+            this.isCheckpointing.set(false);
+        }
+    }
+
+    /**
+     * Forces the repositories' logs to the storage device and truncates the journal, as all its
+     * transactions are then durable in the repositories. Commits wait until the checkpoint is done. If a
+     * repository's write has failed, its log cannot be forced and the journal is kept.
+     *
+     * @throws IOException If a log cannot be forced or the journal cannot be truncated.
+     */
+    public void checkpoint() throws IOException {
+        this.checkpointLock.writeLock().lock();
+        try {
+            this.writer.sync(); // the queued records of the finished commits
+            for (Repository<?> repository : Repositories.all()) {
+                repository.force();
+            }
+            this.appendLock.lock();
+            try {
+                this.channel.truncate(0);
+                this.channel.position(0);
+                this.channel.force(true);
+                this.journalBytes = 0;
+            } finally {
+                this.appendLock.unlock();
+            }
+        } finally {
+            this.checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A committed transaction read from the journal.
+     */
+    private static final class Committed {
+        private final long id;
+        private final String payload;
+
+        private Committed(long id, String payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+
+    private static <T extends Comparable<T>> void replay(String entry) throws IOException, ClassNotFoundException {
+        String[] parts = entry.split(" ", 3);
+        Repository<T> repository = repositoryOf(Class.forName(parts[1]));
+        if (entry.startsWith(putPrefix)) {
+            repository.save(repository.parse(parts[2]));
+        } else if (entry.startsWith(deletePrefix)) {
+            repository.delete(Integer.parseInt(parts[2].trim()));
+        } else {
+            throw new IOException("Unknown journal entry!");
+        }
+    }
+
+    private RecoveryReport recover() throws IOException {
+        long start = System.nanoTime();
+        List<Committed> committed = new ArrayList<>();
+        int discarded = 0;
+
+        this.channel.position(0);
+        BufferedReader br = new BufferedReader(Channels.newReader(this.channel, StandardCharsets.UTF_8));
+        String line;
+        while ((line = br.readLine()) != null) {
+            try {
+                if (line.startsWith(transactionPrefix)) {
+                    String[] parts = line.split(" ", 4);
+                    long id = Long.parseLong(parts[1]);
+                    this.transactionNo = Math.max(this.transactionNo, id);
+                    if (parts.length == 4 && checksumOf(parts[3]).equals(parts[2])) {
+                        committed.add(new Committed(id, parts[3]));
+                    } else {
+                        discarded++;
+                    }
+                } else if (!line.isBlank() && !line.startsWith(donePrefix)) { // an old DONE line proves no write
+                    discarded++;
+                }
+            } catch (RuntimeException ex) {
+                ex.fillInStackTrace();
+                discarded++;
+            }
+        }
+
+        // Replay every transaction since the checkpoint, the saves and deletions are idempotent
+        int replayed = 0;
+        for (Committed transaction : committed) {
+            try {
+                for (String entry : transaction.payload.split(String.valueOf(entrySeparator))) {
+                    replay(entry);
+                }
+                replayed++;
+            } catch (IOException | ClassNotFoundException | RuntimeException ex) {
+                ex.fillInStackTrace();
+                System.out.printf("Cannot replay transaction %d from %s!%n", transaction.id, this.path.getFileName());
+            }
+        }
+
+        this.appendLock.lock();
+        try {
+            this.journalBytes = this.channel.size();
+            this.channel.position(this.journalBytes);
+        } finally {
+            this.appendLock.unlock();
+        }
+        this.applyLock.lock();
+        try {
+            this.appliedNo = this.transactionNo; // the next transaction is the first one to apply
+        } finally {
+            this.applyLock.unlock();
+        }
+        this.checkpoint();
+        return new RecoveryReport(this.path.getFileName().toString(), replayed, discarded,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Checkpoints and closes the journal.
+     *
+     * @throws IOException If the checkpoint fails or the journal cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.checkpoint();
+        } finally {
+            this.writer.close();
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package transactions;
+
+import repositories.Repositories;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Registry of the application's transaction journal. The journal is opened and recovered lazily on first
+ * use, in the data directory of the repositories; -Dtransactions.checkpointBytes sets the size of the
+ * journal which triggers a checkpoint, -Dtransactions.maxBatchSize, -Dtransactions.maxLatencyMicros and
+ * -Dtransactions.queueCapacity configure the batching of its writes.
+ */
+public final class Transactions {
+    public static final String journalFilename = "transactions.journal";
+    public static final long defaultCheckpointBytes = 16L * 1024 * 1024;
+    public static final int defaultMaxBatchSize = 256;
+    public static final long defaultMaxLatencyMicros = 0;
+    public static final int defaultQueueCapacity = 4096;
+
+    private Transactions() {
+    }
+
+    private static final class JournalHolder {
+        static final TransactionJournal INSTANCE = open();
+
+        private static TransactionJournal open() {
+            Path path = Repositories.dataDirectory == null ? Path.of(journalFilename)
+                    : Path.of(Repositories.dataDirectory, journalFilename);
+            try {
+                TransactionJournal journal = new TransactionJournal(path,
+                        Long.getLong("transactions.checkpointBytes", defaultCheckpointBytes),
+                        Integer.getInteger("transactions.maxBatchSize", defaultMaxBatchSize),
+                        Long.getLong("transactions.maxLatencyMicros", defaultMaxLatencyMicros) * 1000,
+                        Integer.getInteger("transactions.queueCapacity", defaultQueueCapacity));
+                RecoveryReport report = journal.getRecoveryReport();
+                if (0 < report.getReplayedTransactions() || 0 < report.getDiscardedRecords()) {
+                    System.err.println(report);
+                }
+                return journal;
+            } catch (IOException ex) {
+                throw new RuntimeException(String.format("Cannot open the transaction journal %s!", path), ex);
+            }
+        }
+    }
+
+    public static TransactionJournal journal() {
+        return JournalHolder.INSTANCE;
+    }
+}
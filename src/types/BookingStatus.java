@@ -0,0 +1,14 @@
+package types;
+
+/**
+ * BookingStatus defines the outcome of a booking or a cancellation.
+ */
+public enum BookingStatus {
+    BOOKED,
+    CANCELLED,
+    NOT_FOUND,
+    UNAVAILABLE,
+    INSUFFICIENT_FUNDS,
+    PAYMENT_FAILED,
+    NOT_SAVED
+}
@@ -0,0 +1,10 @@
+package types;
+
+/**
+ * StorageFormat defines the format of an entity's snapshot file.
+ */
+public enum StorageFormat {
+    JSON,
+    BINARY,
+    MAPPED
+}
@@ -0,0 +1,292 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * The IntLongMap class maps primitive int keys to primitive long values, e.g. reservation IDs to prices
+ * in cents, and keeps the order the keys were added in. The keys and values are stored densely in that
+ * order, and an open-addressing table with linear probing maps every key to its position, the same way
+ * as in {@link IntSet}. Removing a key shifts the later entries.
+ * <p>
+ * The map is not synchronized. In JSON the map of amounts is written by {@link Money.AmountsSerializer}.
+ */
+public class IntLongMap {
+    private int[] keys; // The keys in the order they were added
+    private long[] values; // The value of each key at the same position
+    private int size;
+    private int[] slots; // Position + 1 of the key hashed to each slot, 0 if the slot is free
+    private int mask; // Capacity of the table - 1
+
+    /**
+     * Represents an action on an entry of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, long value);
+    }
+
+    /**
+     * Default constructor that creates an empty map.
+     */
+    public IntLongMap() {
+        this(0);
+    }
+
+    /**
+     * Constructor that creates an empty map which holds the expected count of keys without growing.
+     *
+     * @param expectedSize The expected count of keys.
+     */
+    public IntLongMap(int expectedSize) {
+        int length = Math.max(expectedSize, 2);
+        this.keys = new int[length];
+        this.values = new long[length];
+        this.slots = new int[IntSet.tableCapacityFor(expectedSize)];
+        this.mask = this.slots.length - 1;
+    }
+
+    /**
+     * Creates a map of a single entry.
+     *
+     * @param key   The key.
+     * @param value The value of the key.
+     * @return The map.
+     */
+    public static IntLongMap of(int key, long value) {
+        IntLongMap map = new IntLongMap(1);
+        map.put(key, value);
+        return map;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    // Slot holding the key, or the free slot where it would be added
+    private int slotOf(int key) {
+        int slot = IntSet.hash(key) & this.mask;
+        int position;
+        while ((position = this.slots[slot]) != 0 && this.keys[position - 1] != key) {
+            slot = (slot + 1) & this.mask;
+        }
+        return slot;
+    }
+
+    public boolean containsKey(int key) {
+        return this.slots[this.slotOf(key)] != 0;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key          The key.
+     * @param defaultValue The value returned if the key is not in the map.
+     * @return The value of the key, or the default value.
+     */
+    public long getOrDefault(int key, long defaultValue) {
+        int position = this.slots[this.slotOf(key)];
+        return position == 0 ? defaultValue : this.values[position - 1];
+    }
+
+    /**
+     * Gets the key at a position in the order the keys were added.
+     *
+     * @param index The position.
+     * @return The key.
+     * @throws IndexOutOfBoundsException If the position is not in the map.
+     */
+    public int keyAt(int index) {
+        return this.keys[this.checkIndex(index)];
+    }
+
+    /**
+     * Gets the value at a position in the order the keys were added.
+     *
+     * @param index The position.
+     * @return The value.
+     * @throws IndexOutOfBoundsException If the position is not in the map.
+     */
+    public long valueAt(int index) {
+        return this.values[this.checkIndex(index)];
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return index;
+    }
+
+    /**
+     * Sets the value of a key, adding the key after the others if it is not in the map yet.
+     *
+     * @param key   The key.
+     * @param value The value of the key.
+     * @return true if the key is added, false if its value is replaced.
+     */
+    public boolean put(int key, long value) {
+        int slot = this.slotOf(key);
+        int position = this.slots[slot];
+        if (position != 0) {
+            this.values[position - 1] = value;
+            return false;
+        }
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        this.size++;
+        if (2L * this.size > this.slots.length) {
+            this.rehash(this.slots.length * 2);
+        } else {
+            this.slots[slot] = this.size;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a key and its value, keeping the order of the others.
+     *
+     * @param key The key to remove.
+     * @return true if the key is removed, false if it was not in the map.
+     */
+    public boolean remove(int key) {
+        int slot = this.slotOf(key);
+        int position = this.slots[slot];
+        if (position == 0) {
+            return false;
+        }
+        this.freeSlot(slot);
+        // The later entries move one position down, their slots follow them
+        for (int index = position; index < this.size; index++) {
+            int moved = this.keys[index];
+            this.slots[this.slotOf(moved)] = index;
+            this.keys[index - 1] = moved;
+            this.values[index - 1] = this.values[index];
+        }
+        this.size--;
+        return true;
+    }
+
+    // Frees a slot, moving back the keys of its probe sequence so every key stays reachable
+    private void freeSlot(int slot) {
+        int free = slot;
+        int next = (free + 1) & this.mask;
+        int position;
+        while ((position = this.slots[next]) != 0) {
+            int home = IntSet.hash(this.keys[position - 1]) & this.mask;
+            if (((next - home) & this.mask) >= ((next - free) & this.mask)) {
+                this.slots[free] = position;
+                free = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.slots[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int index = 0; index < this.size; index++) {
+            int slot = IntSet.hash(this.keys[index]) & this.mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.slots[slot] = index + 1;
+        }
+    }
+
+    /**
+     * Copies the keys in the order they were added.
+     *
+     * @return The keys.
+     */
+    public int[] keys() {
+        return Arrays.copyOf(this.keys, this.size);
+    }
+
+    /**
+     * Sums the values without boxing them.
+     *
+     * @return The sum of the values.
+     * @throws ArithmeticException If the sum overflows.
+     */
+    public long sumOfValues() {
+        long sum = 0;
+        for (int index = 0; index < this.size; index++) {
+            sum = Math.addExact(sum, this.values[index]);
+        }
+        return sum;
+    }
+
+    /**
+     * Calls an action for every entry in the order the keys were added, without boxing them.
+     *
+     * @param action The action.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int index = 0; index < this.size; index++) {
+            action.accept(this.keys[index], this.values[index]);
+        }
+    }
+
+    /**
+     * Estimates the heap memory used by the map: its object, the keys, the values and the table.
+     *
+     * @return The estimated footprint in bytes.
+     */
+    public long memoryFootprintBytes() {
+        return 40L + (16L + (long) this.keys.length * Integer.BYTES) + (16L + (long) this.values.length * Long.BYTES)
+                + (16L + (long) this.slots.length * Integer.BYTES);
+    }
+
+    /**
+     * Compares the map with another one, regardless of the order of the keys.
+     *
+     * @param o The other object.
+     * @return true if the other object maps the same keys to the same values, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntLongMap other) || other.size != this.size) {
+            return false;
+        }
+        for (int index = 0; index < this.size; index++) {
+            int position = other.slots[other.slotOf(this.keys[index])];
+            if (position == 0 || other.values[position - 1] != this.values[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int index = 0; index < this.size; index++) {
+            hashCode += this.keys[index] ^ Long.hashCode(this.values[index]);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int index = 0; index < this.size; index++) {
+            if (index > 0) {
+                text.append(", ");
+            }
+            text.append(this.keys[index]).append('=').append(this.values[index]);
+        }
+        return text.append('}').toString();
+    }
+}
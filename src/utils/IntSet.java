@@ -0,0 +1,333 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * The IntSet class is a set of primitive ints, e.g. the IDs of a hotel's rooms, which keeps the order the
+ * ints were added in. The ints are stored densely in that order, and an open-addressing table with linear
+ * probing maps every int to its position, so a lookup costs a few array reads instead of a scan over boxed
+ * Integers. Removing an int shifts the later ones, like a list does.
+ * <p>
+ * In JSON the set is an array of numbers, e.g. [1, 2, 3], the way the ID lists were written. The set is
+ * not synchronized.
+ */
+@JsonSerialize(using = IntSet.Serializer.class)
+@JsonDeserialize(using = IntSet.Deserializer.class)
+public class IntSet implements Iterable<Integer> {
+    private static final int minCapacity = 8; // Smallest table, a power of two
+
+    private int[] elements; // The ints in the order they were added
+    private int size;
+    private int[] slots; // Position + 1 of the int hashed to each slot, 0 if the slot is free
+    private int mask; // Capacity of the table - 1
+
+    /**
+     * Default constructor that creates an empty set.
+     */
+    public IntSet() {
+        this(0);
+    }
+
+    /**
+     * Constructor that creates an empty set which holds the expected count of ints without growing.
+     *
+     * @param expectedSize The expected count of ints.
+     */
+    public IntSet(int expectedSize) {
+        this.elements = new int[Math.max(expectedSize, 4)];
+        this.slots = new int[tableCapacityFor(expectedSize)];
+        this.mask = this.slots.length - 1;
+    }
+
+    /**
+     * Creates a set of the given ints, skipping repeated ones.
+     *
+     * @param ints The ints in their order.
+     * @return The set.
+     */
+    public static IntSet of(int... ints) {
+        IntSet set = new IntSet(ints.length);
+        for (int value : ints) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // Table capacity keeping the load factor at most 1/2
+    static int tableCapacityFor(int size) {
+        int capacity = minCapacity;
+        while (capacity < 2L * size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Fibonacci hashing spreads consecutive IDs over the table
+    static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    // Slot holding the int, or the free slot where it would be added
+    private int slotOf(int value) {
+        int slot = hash(value) & this.mask;
+        int position;
+        while ((position = this.slots[slot]) != 0 && this.elements[position - 1] != value) {
+            slot = (slot + 1) & this.mask;
+        }
+        return slot;
+    }
+
+    public boolean contains(int value) {
+        return this.slots[this.slotOf(value)] != 0;
+    }
+
+    /**
+     * Gets the position of an int in the order the ints were added.
+     *
+     * @param value The int.
+     * @return The position, -1 if the int is not in the set.
+     */
+    public int indexOf(int value) {
+        return this.slots[this.slotOf(value)] - 1;
+    }
+
+    /**
+     * Gets the int at a position in the order the ints were added.
+     *
+     * @param index The position.
+     * @return The int.
+     * @throws IndexOutOfBoundsException If the position is not in the set.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return this.elements[index];
+    }
+
+    /**
+     * Adds an int after the others, if it is not in the set yet.
+     *
+     * @param value The int to add.
+     * @return true if the int is added, false if it was in the set already.
+     */
+    public boolean add(int value) {
+        int slot = this.slotOf(value);
+        if (this.slots[slot] != 0) {
+            return false;
+        }
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.size * 2);
+        }
+        this.elements[this.size++] = value;
+        if (2L * this.size > this.slots.length) {
+            this.rehash(this.slots.length * 2);
+        } else {
+            this.slots[slot] = this.size;
+        }
+        return true;
+    }
+
+    /**
+     * Removes an int, keeping the order of the others.
+     *
+     * @param value The int to remove.
+     * @return true if the int is removed, false if it was not in the set.
+     */
+    public boolean remove(int value) {
+        int slot = this.slotOf(value);
+        int position = this.slots[slot];
+        if (position == 0) {
+            return false;
+        }
+        this.freeSlot(slot);
+        // The later ints move one position down, their slots follow them
+        for (int index = position; index < this.size; index++) {
+            int moved = this.elements[index];
+            this.slots[this.slotOf(moved)] = index;
+            this.elements[index - 1] = moved;
+        }
+        this.size--;
+        return true;
+    }
+
+    // Frees a slot, moving back the ints of its probe sequence so every int stays reachable
+    private void freeSlot(int slot) {
+        int free = slot;
+        int next = (free + 1) & this.mask;
+        int position;
+        while ((position = this.slots[next]) != 0) {
+            int home = hash(this.elements[position - 1]) & this.mask;
+            if (((next - home) & this.mask) >= ((next - free) & this.mask)) {
+                this.slots[free] = position;
+                free = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        this.slots[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int index = 0; index < this.size; index++) {
+            int slot = hash(this.elements[index]) & this.mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.slots[slot] = index + 1;
+        }
+    }
+
+    public void clear() {
+        this.size = 0;
+        Arrays.fill(this.slots, 0);
+    }
+
+    /**
+     * Copies the ints in the order they were added.
+     *
+     * @return The ints.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.elements, this.size);
+    }
+
+    /**
+     * Calls an action for every int in the order they were added, without boxing them.
+     *
+     * @param action The action.
+     */
+    public void forEachInt(IntConsumer action) {
+        for (int index = 0; index < this.size; index++) {
+            action.accept(this.elements[index]);
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (this.index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elements[this.index++];
+            }
+        };
+    }
+
+    /**
+     * Estimates the heap memory used by the set: its object, the ints and the table.
+     *
+     * @return The estimated footprint in bytes.
+     */
+    public long memoryFootprintBytes() {
+        return 32L + (16L + (long) this.elements.length * Integer.BYTES) + (16L + (long) this.slots.length * Integer.BYTES);
+    }
+
+    /**
+     * Compares the set with another one, regardless of the order of the ints.
+     *
+     * @param o The other object.
+     * @return true if the other object is a set of the same ints, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntSet other) || other.size != this.size) {
+            return false;
+        }
+        for (int index = 0; index < this.size; index++) {
+            if (!other.contains(this.elements[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int index = 0; index < this.size; index++) {
+            hashCode += this.elements[index];
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+    /**
+     * Writes the set as a JSON array of numbers.
+     */
+    public static final class Serializer extends StdSerializer<IntSet> {
+        public Serializer() {
+            super(IntSet.class);
+        }
+
+        @Override
+        public void serialize(IntSet set, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeArray(set.elements, 0, set.size);
+        }
+    }
+
+    /**
+     * Reads a JSON array of numbers as a set.
+     */
+    public static final class Deserializer extends StdDeserializer<IntSet> {
+        public Deserializer() {
+            super(IntSet.class);
+        }
+
+        @Override
+        public IntSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return (IntSet) ctxt.handleUnexpectedToken(IntSet.class, p);
+            }
+            IntSet set = new IntSet();
+            JsonToken token;
+            while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    return (IntSet) ctxt.handleUnexpectedToken(IntSet.class, p);
+                }
+                set.add(p.getIntValue());
+            }
+            return set;
+        }
+    }
+}
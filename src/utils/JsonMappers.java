@@ -0,0 +1,81 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import models.*;
+
+import java.util.Map;
+
+/**
+ * JsonMappers class holds the application's single configured ObjectMapper and the immutable
+ * ObjectReader and ObjectWriter of every model type. Building a mapper is far more expensive than
+ * using one, so they are built once and shared, all of them are thread-safe.
+ */
+public final class JsonMappers {
+    private static final ObjectMapper mapper = createObjectMapper();
+    private static final Map<Class<?>, ObjectReader> readers = Map.of(
+            Room.class, mapper.readerFor(Room.class),
+            Hotel.class, mapper.readerFor(Hotel.class),
+            User.class, mapper.readerFor(User.class),
+            DebitCard.class, mapper.readerFor(DebitCard.class),
+            Reservation.class, mapper.readerFor(Reservation.class));
+    private static final Map<Class<?>, ObjectWriter> writers = Map.of(
+            Room.class, mapper.writerFor(Room.class),
+            Hotel.class, mapper.writerFor(Hotel.class),
+            User.class, mapper.writerFor(User.class),
+            DebitCard.class, mapper.writerFor(DebitCard.class),
+            Reservation.class, mapper.writerFor(Reservation.class));
+
+    private JsonMappers() {
+    }
+
+    /**
+     * Creates and configures the ObjectMapper with JavaTimeModule.
+     * @return Configured ObjectMapper instance.
+     */
+    private static ObjectMapper createObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.setDateFormat(new StdDateFormat().withColonInTimeZone(true));
+        return mapper;
+    }
+
+    /**
+     * Gets the shared ObjectMapper, it must not be reconfigured.
+     * @return The shared ObjectMapper.
+     */
+    public static ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * Gets the prebuilt reader of a model type.
+     * @param cl The model class.
+     * @return The ObjectReader of the model type.
+     * @throws RuntimeException if the class is not a model class.
+     */
+    public static ObjectReader readerFor(Class<?> cl) {
+        ObjectReader reader = readers.get(cl);
+        if (reader == null) {
+            throw new RuntimeException("Unknown abstract T type.");
+        }
+        return reader;
+    }
+
+    /**
+     * Gets the prebuilt writer of a model type.
+     * @param cl The model class.
+     * @return The ObjectWriter of the model type.
+     * @throws RuntimeException if the class is not a model class.
+     */
+    public static ObjectWriter writerFor(Class<?> cl) {
+        ObjectWriter writer = writers.get(cl);
+        if (writer == null) {
+            throw new RuntimeException("Unknown abstract T type.");
+        }
+        return writer;
+    }
+}
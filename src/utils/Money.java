@@ -0,0 +1,299 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Money class holds the helpers of the application's money representation: an amount is a primitive long
+ * of cents, so sums over many prices are exact and need no boxing. The helpers work on primitives only
+ * and fail on an overflow instead of wrapping around.
+ * <p>
+ * In JSON an amount stays a decimal number, e.g. 149.5, so the stored files keep their shape; the
+ * nested Serializer and Deserializer convert it, and the decimal text of the older files is read
+ * exactly instead of through a double.
+ */
+public final class Money {
+    public static final long zero = 0L;
+    public static final int centsPerUnit = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount given as a double, e.g. from an older binary file, to cents, rounding to the
+     * nearest cent.
+     *
+     * @param amount The amount of money.
+     * @return The amount in cents.
+     */
+    public static long fromDouble(double amount) {
+        return Math.round(amount * centsPerUnit);
+    }
+
+    /**
+     * Converts an amount in cents to a double, for ratios and percentages only.
+     *
+     * @param cents The amount in cents.
+     * @return The amount of money.
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) centsPerUnit;
+    }
+
+    public static long of(long units) {
+        return Math.multiplyExact(units, centsPerUnit);
+    }
+
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    public static long subtract(long cents, long otherCents) {
+        return Math.subtractExact(cents, otherCents);
+    }
+
+    public static long times(long cents, long factor) {
+        return Math.multiplyExact(cents, factor);
+    }
+
+    /**
+     * Takes a percentage of an amount, rounding half up to the nearest cent.
+     *
+     * @param cents   The amount in cents.
+     * @param percent The percentage, e.g. 15 for 15%.
+     * @return The percentage of the amount in cents.
+     */
+    public static long percentOf(long cents, int percent) {
+        long hundredths = Math.multiplyExact(cents, percent);
+        return Math.floorDiv(hundredths + 50, 100);
+    }
+
+    /**
+     * Parses a decimal amount, e.g. "149.5", "-3" or "1.0E7", to cents. Digits after the second decimal
+     * are rounded half up.
+     *
+     * @param text The decimal amount.
+     * @return The amount in cents.
+     * @throws NumberFormatException If the text is not a decimal number.
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == 'e' || c == 'E') { // Scientific notation, as Double.toString writes large amounts
+                return fromDouble(Double.parseDouble(text.toString()));
+            }
+        }
+
+        int i = 0;
+        boolean isNegative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            isNegative = text.charAt(i) == '-';
+            i++;
+        }
+        long cents = 0;
+        int decimals = -1; // Digits read after the point, -1 before the point
+        boolean hasDigits = false;
+        boolean isRoundedUp = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if ('0' <= c && c <= '9') {
+                hasDigits = true;
+                if (decimals < 2) {
+                    cents = Math.addExact(Math.multiplyExact(cents, 10), c - '0');
+                    if (0 <= decimals) {
+                        decimals++;
+                    }
+                } else if (decimals == 2) {
+                    isRoundedUp = c >= '5';
+                    decimals++;
+                }
+            } else {
+                throw new NumberFormatException("Not an amount of money: " + text);
+            }
+        }
+        if (!hasDigits) {
+            throw new NumberFormatException("Not an amount of money: " + text);
+        }
+        for (int missing = Math.max(decimals, 0); missing < 2; missing++) {
+            cents = Math.multiplyExact(cents, 10);
+        }
+        if (isRoundedUp) {
+            cents = Math.addExact(cents, 1);
+        }
+        return isNegative ? -cents : cents;
+    }
+
+    /**
+     * Converts an amount in cents to an exact decimal, for the responses which are not a model.
+     *
+     * @param cents The amount in cents.
+     * @return The amount of money with two decimals.
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Formats an amount as a decimal number with at most two decimals, e.g. "149.5" or "100.0", the way
+     * the amounts were written as doubles.
+     *
+     * @param cents The amount in cents.
+     * @return The decimal amount.
+     */
+    public static String format(long cents) {
+        StringBuilder text = new StringBuilder(24);
+        if (cents < 0) {
+            text.append('-');
+        }
+        long units = Math.abs(cents / centsPerUnit);
+        int rest = (int) Math.abs(cents % centsPerUnit);
+        text.append(units).append('.');
+        if (rest % 10 == 0) {
+            text.append(rest / 10);
+        } else {
+            text.append(rest / 10).append(rest % 10);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes an amount in cents as a decimal JSON number.
+     */
+    public static final class Serializer extends StdSerializer<Long> {
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long cents, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(format(cents));
+        }
+    }
+
+    /**
+     * Reads a decimal JSON number, or a string of one, as an amount in cents.
+     */
+    public static final class Deserializer extends StdDeserializer<Long> {
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                    || token == JsonToken.VALUE_STRING) {
+                try {
+                    return parse(p.getText().trim());
+                } catch (NumberFormatException | ArithmeticException ex) {
+                    return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), ex.getMessage());
+                }
+            }
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+    }
+
+    /**
+     * Reads an entry of an ID and an amount, e.g. {"3": 149.5}, as the ID and the amount in cents. A
+     * content deserializer does not apply to a Map.Entry, so the entry is read as a whole.
+     */
+    public static final class EntryDeserializer extends StdDeserializer<Map.Entry<Integer, Long>> {
+        private final Deserializer amountDeserializer = new Deserializer();
+
+        public EntryDeserializer() {
+            super(Map.Entry.class);
+        }
+
+        @Override
+        public Map.Entry<Integer, Long> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                p.nextToken();
+            }
+            if (p.currentToken() != JsonToken.FIELD_NAME) {
+                return entryOf(ctxt.handleUnexpectedToken(Map.Entry.class, p));
+            }
+            int id;
+            try {
+                id = Integer.parseInt(p.currentName());
+            } catch (NumberFormatException ex) {
+                return entryOf(ctxt.handleWeirdKey(Integer.class, p.currentName(), ex.getMessage()));
+            }
+            p.nextToken();
+            long cents = this.amountDeserializer.deserialize(p, ctxt);
+            if (p.nextToken() != JsonToken.END_OBJECT) {
+                return entryOf(ctxt.handleUnexpectedToken(Map.Entry.class, p));
+            }
+            return Map.entry(id, cents);
+        }
+
+        // A problem handler replaces the unexpected input with an entry of the same type
+        @SuppressWarnings("unchecked")
+        private static Map.Entry<Integer, Long> entryOf(Object value) {
+            return (Map.Entry<Integer, Long>) value;
+        }
+    }
+
+    /**
+     * Writes a map of IDs to amounts in cents as a JSON object of decimal numbers, e.g. {"3": 149.5}.
+     */
+    public static final class AmountsSerializer extends StdSerializer<IntLongMap> {
+        public AmountsSerializer() {
+            super(IntLongMap.class);
+        }
+
+        @Override
+        public void serialize(IntLongMap amounts, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(amounts, amounts.size());
+            for (int i = 0; i < amounts.size(); i++) {
+                gen.writeFieldId(amounts.keyAt(i));
+                gen.writeNumber(format(amounts.valueAt(i)));
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a JSON object of IDs and decimal amounts as a map of IDs to amounts in cents.
+     */
+    public static final class AmountsDeserializer extends StdDeserializer<IntLongMap> {
+        private final Deserializer amountDeserializer = new Deserializer();
+
+        public AmountsDeserializer() {
+            super(IntLongMap.class);
+        }
+
+        @Override
+        public IntLongMap deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                p.nextToken();
+            }
+            IntLongMap amounts = new IntLongMap();
+            for (; p.currentToken() == JsonToken.FIELD_NAME; p.nextToken()) {
+                int id;
+                try {
+                    id = Integer.parseInt(p.currentName());
+                } catch (NumberFormatException ex) {
+                    return (IntLongMap) ctxt.handleWeirdKey(Integer.class, p.currentName(), ex.getMessage());
+                }
+                p.nextToken();
+                amounts.put(id, this.amountDeserializer.deserialize(p, ctxt));
+            }
+            if (p.currentToken() != JsonToken.END_OBJECT) {
+                return (IntLongMap) ctxt.handleUnexpectedToken(IntLongMap.class, p);
+            }
+            return amounts;
+        }
+    }
+}
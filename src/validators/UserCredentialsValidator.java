@@ -1,19 +1,11 @@
 package validators;
 
-import models.User;
-import readersWriters.UserReaderWriter;
-
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.ArrayList;
+import indexes.Indexes;
 
 /**
  * Utility class for validating user credentials such as username, email, password, and secret admin code.
  */
 public class UserCredentialsValidator {
-    private static final String usersFilename = "users.txt";
-
     /**
      * Validates if a username meets the criteria.
      *
@@ -21,24 +13,8 @@ public class UserCredentialsValidator {
      * @return true if the username is valid; false otherwise.
      */
     public static boolean isValidUsername(String username) {
-        boolean isValid = username.matches("^[a-zA-Z+0-9]{6,20}$");
-        UserReaderWriter urw = new UserReaderWriter();
-        try {
-            File file = new File(UserCredentialsValidator.usersFilename);
-            FileReader fr = new FileReader(file);
-            ArrayList<User> readUsers;
-            do {
-                readUsers = urw.read(fr, file);
-                for (User usr : readUsers) {
-                    if (usr == null || username.equals(usr.getUsername())) {
-                        return false;
-                    }
-                }
-            } while (file.canRead());
-        } catch (FileNotFoundException ex) {
-            ex.fillInStackTrace();
-        }
-        return isValid;
+        // A taken username is found in the credentials index instead of scanning all users
+        return username.matches("^[a-zA-Z+0-9]{6,20}$") && !Indexes.users().isUsernameTaken(username);
     }
 
     /**
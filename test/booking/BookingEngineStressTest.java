@@ -0,0 +1,163 @@
+package booking;
+
+import controllers.HotelController;
+import generators.DatasetGenerator;
+import models.Hotel;
+import models.Reservation;
+import models.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repositories.Repositories;
+import types.BookingStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Books the same rooms from many threads at once and checks that no room is ever booked for overlapping
+ * periods. The repositories work on a small generated dataset in a temporary directory.
+ */
+class BookingEngineStressTest {
+    private static final int threadsCount = 16;
+    private static final int roomsCount = 4;
+    private static final int horizonDays = 30;
+    private static final LocalDateTime firstDay = LocalDate.now().plusDays(1).atTime(14, 0);
+
+    @TempDir
+    static Path dir;
+
+    private static Hotel hotel;
+    private static int firstRoomId;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        // The repositories read the directory when they are first used
+        System.setProperty("storage.dir", dir.toString());
+        new DatasetGenerator(42, 1, roomsCount, DatasetGenerator.defaultRoomTypeWeights(), threadsCount, 0.2,
+                firstDay, horizonDays).generate(dir);
+        assertEquals(dir.toString(), Repositories.dataDirectory);
+        hotel = Repositories.hotels().findById(1);
+        firstRoomId = hotel.getAllRoomsIds().get(0);
+    }
+
+    // Runs a task on every thread, all of them starting together, and collects their results
+    private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threadsCount; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User userOf(int threadNo) {
+        return Repositories.users().findById(1 + threadNo % threadsCount);
+    }
+
+    // Counts the pairs of active reservations of the same room whose periods overlap
+    private static long countOverlaps() {
+        Map<Integer, List<Reservation>> byRoom = new HashMap<>();
+        for (Reservation reservation : Repositories.reservations().findAll()) {
+            if (!reservation.isCancelled()) {
+                for (int roomId : reservation.getRoomsIds().keys()) {
+                    byRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(reservation);
+                }
+            }
+        }
+        long overlaps = 0;
+        for (List<Reservation> reservations : byRoom.values()) {
+            reservations.sort((first, second) -> first.getFromDate().compareTo(second.getFromDate()));
+            for (int i = 1; i < reservations.size(); i++) {
+                if (reservations.get(i).getFromDate().isBefore(reservations.get(i - 1).getToDate())) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    @Test
+    void onlyOneOfConcurrentBookingsOfTheSamePeriodSucceeds() throws Exception {
+        HotelController controller = new HotelController();
+        LocalDateTime from = firstDay.plusDays(horizonDays + 100);
+        LocalDateTime to = from.plusDays(3).withHour(12);
+        int[] threadNo = {0};
+        List<BookingStatus> statuses = runConcurrently(() -> {
+            User user;
+            synchronized (threadNo) {
+                user = userOf(threadNo[0]++);
+            }
+            return controller.bookRoom(firstRoomId, hotel, from, to, user, HotelController.fixedCancellationFee)
+                    .getStatus();
+        });
+
+        assertEquals(1, statuses.stream().filter(status -> status == BookingStatus.BOOKED).count());
+        assertEquals(threadsCount - 1, statuses.stream().filter(status -> status == BookingStatus.UNAVAILABLE).count());
+        assertEquals(0, countOverlaps());
+    }
+
+    @Test
+    void concurrentBookingsAndCancellationsNeverOverlap() throws Exception {
+        HotelController controller = new HotelController();
+        LocalDateTime windowStart = firstDay.plusDays(horizonDays);
+        int[] threadNo = {0};
+        List<Integer> bookedCounts = runConcurrently(() -> {
+            int no;
+            synchronized (threadNo) {
+                no = threadNo[0]++;
+            }
+            User user = userOf(no);
+            SplittableRandom random = new SplittableRandom(no);
+            int booked = 0;
+            for (int i = 0; i < 200; i++) {
+                int roomId = hotel.getAllRoomsIds().get(random.nextInt(roomsCount));
+                LocalDateTime from = windowStart.plusDays(random.nextInt(20));
+                LocalDateTime to = from.plusDays(1 + random.nextInt(4)).withHour(12);
+                BookingResult result = controller.bookRoom(roomId, hotel, from, to, user,
+                        HotelController.fixedCancellationFee);
+                if (result.getStatus() == BookingStatus.BOOKED) {
+                    booked++;
+                    if (random.nextInt(4) == 0) {
+                        BookingResult cancelled = controller.cancelReservation(result.getReservation().getId(),
+                                user, hotel);
+                        assertEquals(BookingStatus.CANCELLED, cancelled.getStatus());
+                    }
+                } else {
+                    assertEquals(BookingStatus.UNAVAILABLE, result.getStatus());
+                }
+            }
+            return booked;
+        });
+
+        assertTrue(bookedCounts.stream().mapToInt(Integer::intValue).sum() > 0);
+        assertEquals(0, countOverlaps());
+    }
+}
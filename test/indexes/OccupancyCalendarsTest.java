@@ -0,0 +1,109 @@
+package indexes;
+
+import models.Reservation;
+import models.Room;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repositories.Repositories;
+import types.RoomType;
+import utils.IntSet;
+import utils.Money;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Books and cancels stays from many threads while the calendars' horizon rolls forward and checks that
+ * the calendars end up with the nights of exactly the active reservations. The repositories work in a
+ * temporary directory.
+ */
+class OccupancyCalendarsTest {
+    private static final int threadsCount = 8;
+    private static final int rollsCount = 8;
+    private static final int staysPerRoll = 10;
+    private static final int hotelId = 1;
+
+    @TempDir
+    static Path dir;
+
+    @BeforeAll
+    static void setUp() {
+        // The repositories read the directory when they are first used
+        System.setProperty("storage.dir", dir.toString());
+        assertEquals(dir.toString(), Repositories.dataDirectory);
+    }
+
+    @Test
+    void bookingsAndCancellationsWhileTheHorizonRollsKeepTheirNights() throws Exception {
+        LocalDate today = LocalDate.now();
+        OccupancyCalendars calendars = new OccupancyCalendars(today);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < threadsCount; i++) {
+            Room room = new Room(hotelId, RoomType.DOUBLE, new ArrayList<>(), 2, false, new HashMap<>(),
+                    Money.of(50), new IntSet());
+            Repositories.rooms().save(room);
+            rooms.add(room);
+        }
+        Repositories.rooms().subscribe(calendars.getRoomsListener());
+        Repositories.reservations().subscribe(calendars.getReservationsListener());
+
+        // The stays are inside the horizon before and after every roll
+        LocalDateTime firstStay = today.plusDays((long) rollsCount * Long.SIZE).atTime(14, 0);
+        CyclicBarrier roll = new CyclicBarrier(threadsCount + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                for (int k = 1; k <= rollsCount; k++) {
+                    roll.await();
+                    calendars.advanceTo(today.plusDays((long) k * Long.SIZE));
+                }
+                return null;
+            }));
+            for (Room room : rooms) {
+                futures.add(executor.submit(() -> {
+                    int stayNo = 0;
+                    for (int k = 1; k <= rollsCount; k++) {
+                        roll.await();
+                        for (int i = 0; i < staysPerRoll; i++, stayNo++) {
+                            LocalDateTime from = firstStay.plusDays(2L * stayNo);
+                            Reservation reservation = new Reservation(from, from.plusDays(1).withHour(12), 0, false);
+                            reservation.getRoomsIds().put(room.getId(), room.getTotalPrice());
+                            Repositories.reservations().save(reservation);
+                            if (stayNo % 3 == 0) {
+                                reservation.setCancelled(true);
+                                Repositories.reservations().save(reservation);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Reservation reservation : Repositories.reservations().findAll()) {
+            int roomId = reservation.getRoomsIds().keyAt(0);
+            ArrayList<Integer> free = calendars.freeRooms(hotelId, reservation.getFromDate(), reservation.getToDate());
+            assertNotNull(free);
+            assertEquals(reservation.isCancelled(), free.contains(roomId),
+                    "the nights of reservation " + reservation.getId());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package transactions;
+
+import models.DebitCard;
+import models.Hotel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import readersWriters.DebitCardReaderWriter;
+import repositories.Repositories;
+import repositories.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Commits transactions on the same object from many threads at once and reads the repository's files
+ * again, as a restart after a checkpoint would; and checks that a failed write keeps the journal. The
+ * hotels' log cannot be written, a directory is in its place.
+ */
+class TransactionJournalTest {
+    private static final int threadsCount = 16;
+    private static final int roundsCount = 50;
+
+    @TempDir
+    static Path dir;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        // The repositories read the directory when they are first used
+        System.setProperty("storage.dir", dir.toString());
+        assertEquals(dir.toString(), Repositories.dataDirectory);
+        Files.createDirectory(Path.of(Repositories.hotels().getFilename() + ".log"));
+    }
+
+    @Test
+    void concurrentCommitsOfTheSameObjectLeaveItsLastStateInTheLog() throws Exception {
+        DebitCard card = new DebitCard(0, 1);
+        Repositories.debitCards().save(card);
+        TransactionJournal journal = Transactions.journal();
+        AtomicLong balance = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        try {
+            // Every round starts together, so its transactions are written in one batch and applied together
+            CyclicBarrier round = new CyclicBarrier(threadsCount);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threadsCount; i++) {
+                futures.add(executor.submit(() -> {
+                    boolean isCommitted = true;
+                    for (int j = 0; j < roundsCount; j++) {
+                        round.await();
+                        synchronized (card) {
+                            card.setBalance(balance.incrementAndGet());
+                        }
+                        isCommitted &= journal.begin().save(DebitCard.class, card).commit();
+                    }
+                    return isCommitted;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The log is all that is left after a checkpoint truncates the journal
+        Repository<DebitCard> restarted = new Repository<>(Repositories.debitCards().getFilename(),
+                new DebitCardReaderWriter(), DebitCard::getId);
+        assertEquals(threadsCount * roundsCount, card.getBalance());
+        assertEquals(card.getBalance(), restarted.findById(card.getId()).getBalance());
+    }
+
+    @Test
+    void checkpointKeepsTheJournalAfterAFailedWrite() {
+        TransactionJournal journal = Transactions.journal();
+        assertTrue(journal.begin().save(Hotel.class, new Hotel()).commit()); // it is durable in the journal
+
+        assertTrue(Repositories.hotels().isBroken());
+        assertThrows(IOException.class, journal::checkpoint);
+        assertTrue(0 < journal.getPath().toFile().length());
+    }
+}